@@ -2,7 +2,9 @@ package org.unichain.common.overlay.client;
 
 import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
+import io.grpc.stub.ClientResponseObserver;
 import org.unichain.api.DatabaseGrpc;
+import org.unichain.api.GrpcAPI.BlockLimit;
 import org.unichain.api.GrpcAPI.EmptyMessage;
 import org.unichain.api.GrpcAPI.NumberMessage;
 import org.unichain.protos.Protocol.Block;
@@ -12,12 +14,14 @@ public class DatabaseGrpcClient {
 
   private final ManagedChannel channel;
   private final DatabaseGrpc.DatabaseBlockingStub databaseBlockingStub;
+  private final DatabaseGrpc.DatabaseStub databaseStub;
 
   public DatabaseGrpcClient(String host, int port) {
     channel = ManagedChannelBuilder.forAddress(host, port)
         .usePlaintext(true)
         .build();
     databaseBlockingStub = DatabaseGrpc.newBlockingStub(channel);
+    databaseStub = DatabaseGrpc.newStub(channel);
   }
 
   public DatabaseGrpcClient(String host) {
@@ -25,6 +29,7 @@ public class DatabaseGrpcClient {
         .usePlaintext(true)
         .build();
     databaseBlockingStub = DatabaseGrpc.newBlockingStub(channel);
+    databaseStub = DatabaseGrpc.newStub(channel);
   }
 
 
@@ -37,6 +42,16 @@ public class DatabaseGrpcClient {
     return databaseBlockingStub.getBlockByNum(builder.build());
   }
 
+  /**
+   * Stream the solidified blocks in [startNum, endNum), fewer if the remote node has not solidified
+   * them all. Blocks are sent only as fast as the observer takes them.
+   */
+  public void getSolidBlocks(long startNum, long endNum,
+      ClientResponseObserver<BlockLimit, Block> observer) {
+    BlockLimit request = BlockLimit.newBuilder().setStartNum(startNum).setEndNum(endNum).build();
+    databaseStub.getSolidBlocks(request, observer);
+  }
+
   public void shutdown() {
     channel.shutdown();
   }
@@ -256,11 +256,12 @@ public class DataWord implements Comparable<DataWord> {
   }
 
   public void bnot() {
-    if (this.isZero()) {
-      this.data = ByteUtil.copyToArray(MAX_VALUE);
-      return;
+    // MAX_VALUE - value, a new array as before
+    byte[] result = new byte[WORD_SIZE];
+    for (int i = WORD_SIZE - 1, j = data.length - 1; i >= 0; i--, j--) {
+      result[i] = (byte) ~(j >= 0 ? data[j] : 0);
     }
-    this.data = ByteUtil.copyToArray(MAX_VALUE.subtract(this.value()));
+    this.data = result;
   }
 
   // By   : Holger
@@ -281,15 +282,11 @@ public class DataWord implements Comparable<DataWord> {
     this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
   }
 
-  // TODO: mul can be done in more efficient way
-  // TODO:     with shift left shift right trick
-  // TODO      without BigInteger quick hack
+  // arithmetic below runs on the 32-bit limbs of UInt256, results are mod 2^256 as with BigInteger
   public void mul(DataWord word) {
-    BigInteger result = value().multiply(word.value());
-    this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
+    this.data = UInt256.toBytes(UInt256.mul(limbs(), word.limbs()));
   }
 
-  // TODO: improve with no BigInteger
   public void div(DataWord word) {
 
     if (word.isZero()) {
@@ -297,11 +294,10 @@ public class DataWord implements Comparable<DataWord> {
       return;
     }
 
-    BigInteger result = value().divide(word.value());
-    this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
+    this.data = UInt256.toBytes(UInt256.divMod(limbs(), word.limbs())[0]);
   }
 
-  // TODO: improve with no BigInteger
+  // truncated toward zero, -2^255 / -1 wraps to -2^255
   public void sDiv(DataWord word) {
 
     if (word.isZero()) {
@@ -309,23 +305,23 @@ public class DataWord implements Comparable<DataWord> {
       return;
     }
 
-    BigInteger result = sValue().divide(word.sValue());
-    this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
+    boolean negative = this.isSigned();
+    boolean wordNegative = word.isSigned();
+    long[] result = UInt256.divMod(absLimbs(negative), word.absLimbs(wordNegative))[0];
+    if (negative != wordNegative) {
+      result = UInt256.negate(result);
+    }
+    this.data = UInt256.toBytes(result);
   }
 
-  // TODO: improve with no BigInteger
   public void sub(DataWord word) {
-    BigInteger result = value().subtract(word.value());
-    this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
+    this.data = UInt256.toBytes(UInt256.sub(limbs(), word.limbs()));
   }
 
-  // TODO: improve with no BigInteger
   public void exp(DataWord word) {
-    BigInteger result = value().modPow(word.value(), _2_256);
-    this.data = ByteUtil.copyToArray(result);
+    this.data = UInt256.toBytes(UInt256.exp(limbs(), word.limbs()));
   }
 
-  // TODO: improve with no BigInteger
   public void mod(DataWord word) {
 
     if (word.isZero()) {
@@ -333,10 +329,10 @@ public class DataWord implements Comparable<DataWord> {
       return;
     }
 
-    BigInteger result = value().mod(word.value());
-    this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
+    this.data = UInt256.toBytes(UInt256.divMod(limbs(), word.limbs())[1]);
   }
 
+  // sign of the dividend
   public void sMod(DataWord word) {
 
     if (word.isZero()) {
@@ -344,22 +340,26 @@ public class DataWord implements Comparable<DataWord> {
       return;
     }
 
-    BigInteger result = sValue().abs().mod(word.sValue().abs());
-    result = (sValue().signum() == -1) ? result.negate() : result;
-
-    this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
+    boolean negative = this.isSigned();
+    long[] result = UInt256.divMod(absLimbs(negative), word.absLimbs(word.isSigned()))[1];
+    if (negative) {
+      result = UInt256.negate(result);
+    }
+    this.data = UInt256.toBytes(result);
   }
 
+  // the sum is not truncated before the mod
   public void addmod(DataWord word1, DataWord word2) {
     if (word2.isZero()) {
       this.data = new byte[32];
       return;
     }
 
-    BigInteger result = value().add(word1.value()).mod(word2.value());
-    this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
+    long[] sum = UInt256.add(limbs(), word1.limbs());
+    this.data = UInt256.toBytes(UInt256.divMod(sum, word2.limbs())[1]);
   }
 
+  // the full 512 bits product is taken mod word2
   public void mulmod(DataWord word1, DataWord word2) {
 
     if (this.isZero() || word1.isZero() || word2.isZero()) {
@@ -367,8 +367,25 @@ public class DataWord implements Comparable<DataWord> {
       return;
     }
 
-    BigInteger result = value().multiply(word1.value()).mod(word2.value());
-    this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
+    long[] product = UInt256.mulFull(limbs(), word1.limbs());
+    this.data = UInt256.toBytes(UInt256.divMod(product, word2.limbs())[1]);
+  }
+
+  private long[] limbs() {
+    return UInt256.of(data);
+  }
+
+  /**
+   * @param negative whether this word is negative as a signed value
+   */
+  private long[] absLimbs(boolean negative) {
+    long[] limbs = limbs();
+    return negative ? UInt256.negate(limbs) : limbs;
+  }
+
+  // the sign bit of the 256 bits value, false for an empty word
+  private boolean isSigned() {
+    return data.length == WORD_SIZE && isNegative();
   }
 
   @JsonValue
@@ -434,7 +451,7 @@ public class DataWord implements Comparable<DataWord> {
   public void signExtend(byte k) {
     if (0 > k || k > 31)
       throw new IndexOutOfBoundsException();
-    byte mask = this.sValue().testBit((k * 8) + 7) ? (byte) 0xff : 0;
+    byte mask = (this.data[31 - k] & 0x80) != 0 ? (byte) 0xff : 0;
     for (int i = 31; i > k; i--) {
       this.data[31 - i] = mask;
     }
@@ -464,12 +481,11 @@ public class DataWord implements Comparable<DataWord> {
    * @return this << arg
    */
   public DataWord shiftLeft(DataWord arg) {
-    if (arg.value().compareTo(BigInteger.valueOf(MAX_POW)) >= 0) {
+    if (arg.isMaxPowOrMore()) {
       return DataWord.ZERO();
     }
 
-    BigInteger result = value().shiftLeft(arg.intValueSafe());
-    return new DataWord(ByteUtil.copyToArray(result.and(MAX_VALUE)));
+    return new DataWord(UInt256.toBytes(UInt256.shiftLeft(limbs(), arg.intValue())));
   }
 
   /**
@@ -478,12 +494,11 @@ public class DataWord implements Comparable<DataWord> {
    * @return this >> arg
    */
   public DataWord shiftRight(DataWord arg) {
-    if (arg.value().compareTo(BigInteger.valueOf(MAX_POW)) >= 0) {
+    if (arg.isMaxPowOrMore()) {
       return DataWord.ZERO();
     }
 
-    BigInteger result = value().shiftRight(arg.intValueSafe());
-    return new DataWord(ByteUtil.copyToArray(result.and(MAX_VALUE)));
+    return new DataWord(UInt256.toBytes(UInt256.shiftRight(limbs(), arg.intValue(), 0)));
   }
 
   /**
@@ -492,7 +507,7 @@ public class DataWord implements Comparable<DataWord> {
    * @return this >> arg
    */
   public DataWord shiftRightSigned(DataWord arg) {
-    if (arg.value().compareTo(BigInteger.valueOf(MAX_POW)) >= 0) {
+    if (arg.isMaxPowOrMore()) {
       if (this.isNegative()) {
         DataWord result = ONE();
         result.negate();
@@ -502,8 +517,13 @@ public class DataWord implements Comparable<DataWord> {
       }
     }
 
-    BigInteger result = sValue().shiftRight(arg.intValueSafe());
-    return new DataWord(ByteUtil.copyToArray(result.and(MAX_VALUE)));
+    long fill = isSigned() ? 0xFFFFFFFFL : 0;
+    return new DataWord(UInt256.toBytes(UInt256.shiftRight(limbs(), arg.intValue(), fill)));
+  }
+
+  // value >= 256, all bits are shifted out
+  private boolean isMaxPowOrMore() {
+    return bytesOccupied() > 2 || intValue() >= MAX_POW;
   }
 
   public static long sizeInWords(long bytesSize) {
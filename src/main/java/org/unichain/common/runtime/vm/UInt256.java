@@ -0,0 +1,300 @@
+package org.unichain.common.runtime.vm;
+
+/**
+ * Unsigned 256-bit arithmetic on fixed limbs for {@link DataWord}, without BigInteger.
+ *
+ * A number is a little-endian array of 32-bit digits held in longs (each in [0, 2^32)), eight digits
+ * for a word; products and sums are kept wider where the opcode needs them (addmod, mulmod).
+ * 32-bit digits keep every partial product in a long, java 8 has no unsigned 64x64 high multiply.
+ */
+final class UInt256 {
+
+  static final int DIGITS = 8;
+  private static final long MASK = 0xFFFFFFFFL;
+
+  private UInt256() {
+  }
+
+  /**
+   * @param data big-endian bytes, at most 32, right aligned
+   */
+  static long[] of(byte[] data) {
+    long[] digits = new long[DIGITS];
+    for (int i = 0, j = data.length - 1; j >= 0; i++, j--) {
+      digits[i >>> 2] |= (data[j] & 0xFFL) << ((i & 3) << 3);
+    }
+    return digits;
+  }
+
+  /**
+   * @return the low 256 bits as 32 big-endian bytes
+   */
+  static byte[] toBytes(long[] digits) {
+    byte[] data = new byte[DataWord.WORD_SIZE];
+    int n = Math.min(digits.length, DIGITS);
+    for (int i = 0; i < n; i++) {
+      long d = digits[i];
+      int j = DataWord.WORD_SIZE - 1 - (i << 2);
+      data[j] = (byte) d;
+      data[j - 1] = (byte) (d >>> 8);
+      data[j - 2] = (byte) (d >>> 16);
+      data[j - 3] = (byte) (d >>> 24);
+    }
+    return data;
+  }
+
+  static boolean isZero(long[] a) {
+    for (long d : a) {
+      if (d != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return a + b, one digit wider than the widest operand
+   */
+  static long[] add(long[] a, long[] b) {
+    int n = Math.max(a.length, b.length);
+    long[] r = new long[n + 1];
+    long carry = 0;
+    for (int i = 0; i < n; i++) {
+      long t = digit(a, i) + digit(b, i) + carry;
+      r[i] = t & MASK;
+      carry = t >>> 32;
+    }
+    r[n] = carry;
+    return r;
+  }
+
+  /**
+   * @return a - b mod 2^256
+   */
+  static long[] sub(long[] a, long[] b) {
+    long[] r = new long[DIGITS];
+    long borrow = 0;
+    for (int i = 0; i < DIGITS; i++) {
+      long t = digit(a, i) - digit(b, i) - borrow;
+      r[i] = t & MASK;
+      borrow = t < 0 ? 1 : 0;
+    }
+    return r;
+  }
+
+  /**
+   * @return -a mod 2^256, two's complement over all eight digits
+   */
+  static long[] negate(long[] a) {
+    long[] r = new long[DIGITS];
+    long carry = 1;
+    for (int i = 0; i < DIGITS; i++) {
+      long t = (~digit(a, i) & MASK) + carry;
+      r[i] = t & MASK;
+      carry = t >>> 32;
+    }
+    return r;
+  }
+
+  /**
+   * @return a * b mod 2^256
+   */
+  static long[] mul(long[] a, long[] b) {
+    long[] r = new long[DIGITS];
+    for (int i = 0; i < DIGITS; i++) {
+      long ai = a[i];
+      if (ai == 0) {
+        continue;
+      }
+      long carry = 0;
+      for (int j = 0; i + j < DIGITS; j++) {
+        long t = ai * b[j] + r[i + j] + carry;
+        r[i + j] = t & MASK;
+        carry = t >>> 32;
+      }
+    }
+    return r;
+  }
+
+  /**
+   * @return a * b, all 512 bits
+   */
+  static long[] mulFull(long[] a, long[] b) {
+    long[] r = new long[a.length + b.length];
+    for (int i = 0; i < a.length; i++) {
+      long ai = a[i];
+      if (ai == 0) {
+        continue;
+      }
+      long carry = 0;
+      for (int j = 0; j < b.length; j++) {
+        // < 2^64: (2^32-1)^2 + 2 * (2^32-1)
+        long t = ai * b[j] + r[i + j] + carry;
+        r[i + j] = t & MASK;
+        carry = t >>> 32;
+      }
+      r[i + b.length] = carry;
+    }
+    return r;
+  }
+
+  /**
+   * @return base ^ exponent mod 2^256
+   */
+  static long[] exp(long[] base, long[] exponent) {
+    long[] r = new long[DIGITS];
+    r[0] = 1;
+    int bits = bitLength(exponent);
+    for (int i = bits - 1; i >= 0; i--) {
+      r = mul(r, r);
+      if (((exponent[i >>> 5] >>> (i & 31)) & 1) != 0) {
+        r = mul(r, base);
+      }
+    }
+    return r;
+  }
+
+  static long[] shiftLeft(long[] a, int n) {
+    long[] r = new long[DIGITS];
+    int digits = n >>> 5;
+    int bits = n & 31;
+    for (int i = DIGITS - 1; i >= digits; i--) {
+      long d = a[i - digits] << bits;
+      if (bits != 0 && i - digits - 1 >= 0) {
+        d |= a[i - digits - 1] >>> (32 - bits);
+      }
+      r[i] = d & MASK;
+    }
+    return r;
+  }
+
+  /**
+   * @param fill digit shifted in from the top: 0 for a logical shift, all ones for an arithmetic one
+   */
+  static long[] shiftRight(long[] a, int n, long fill) {
+    long[] r = new long[DIGITS];
+    int digits = n >>> 5;
+    int bits = n & 31;
+    for (int i = 0; i < DIGITS; i++) {
+      long lo = i + digits < DIGITS ? a[i + digits] : fill;
+      long hi = i + digits + 1 < DIGITS ? a[i + digits + 1] : fill;
+      long d = lo >>> bits;
+      if (bits != 0) {
+        d |= hi << (32 - bits);
+      }
+      r[i] = d & MASK;
+    }
+    return r;
+  }
+
+  /**
+   * Unsigned division, Knuth's algorithm D (Hacker's Delight, divmnu).
+   *
+   * @param u dividend, any number of digits
+   * @param v divisor, not zero
+   * @return {quotient, remainder}
+   */
+  static long[][] divMod(long[] u, long[] v) {
+    int n = significant(v);
+    int m = significant(u);
+    if (n == 0) {
+      throw new ArithmeticException("division by zero");
+    }
+    if (m < n) {
+      return new long[][]{new long[1], u.clone()};
+    }
+
+    long[] q = new long[m - n + 1];
+    long[] r = new long[n];
+
+    if (n == 1) {
+      long divisor = v[0];
+      long k = 0;
+      for (int j = m - 1; j >= 0; j--) {
+        long t = (k << 32) | u[j];
+        q[j] = Long.divideUnsigned(t, divisor);
+        k = Long.remainderUnsigned(t, divisor);
+      }
+      r[0] = k;
+      return new long[][]{q, r};
+    }
+
+    // normalize so the top digit of the divisor has its high bit set; digits are below 2^32, so a
+    // shift right by 32 (s == 0) gives 0 as it should
+    int s = Integer.numberOfLeadingZeros((int) v[n - 1]);
+    long[] vn = new long[n];
+    for (int i = n - 1; i > 0; i--) {
+      vn[i] = ((v[i] << s) | (v[i - 1] >>> (32 - s))) & MASK;
+    }
+    vn[0] = (v[0] << s) & MASK;
+
+    long[] un = new long[m + 1];
+    un[m] = u[m - 1] >>> (32 - s);
+    for (int i = m - 1; i > 0; i--) {
+      un[i] = ((u[i] << s) | (u[i - 1] >>> (32 - s))) & MASK;
+    }
+    un[0] = (u[0] << s) & MASK;
+
+    for (int j = m - n; j >= 0; j--) {
+      long num = (un[j + n] << 32) | un[j + n - 1];
+      long qhat = Long.divideUnsigned(num, vn[n - 1]);
+      long rhat = Long.remainderUnsigned(num, vn[n - 1]);
+      while (qhat > MASK
+          || Long.compareUnsigned(qhat * vn[n - 2], (rhat << 32) | un[j + n - 2]) > 0) {
+        qhat--;
+        rhat += vn[n - 1];
+        if (rhat > MASK) {
+          break;
+        }
+      }
+
+      // multiply and subtract
+      long k = 0;
+      long t;
+      for (int i = 0; i < n; i++) {
+        long p = qhat * vn[i];
+        t = un[i + j] - k - (p & MASK);
+        un[i + j] = t & MASK;
+        k = (p >>> 32) - (t >> 32);
+      }
+      t = un[j + n] - k;
+      un[j + n] = t & MASK;
+
+      q[j] = qhat;
+      if (t < 0) {
+        // subtracted too much, add back
+        q[j]--;
+        k = 0;
+        for (int i = 0; i < n; i++) {
+          t = un[i + j] + vn[i] + k;
+          un[i + j] = t & MASK;
+          k = t >>> 32;
+        }
+        un[j + n] = (un[j + n] + k) & MASK;
+      }
+    }
+
+    // unnormalize the remainder
+    for (int i = 0; i < n; i++) {
+      r[i] = ((un[i] >>> s) | (un[i + 1] << (32 - s))) & MASK;
+    }
+    return new long[][]{q, r};
+  }
+
+  private static long digit(long[] a, int i) {
+    return i < a.length ? a[i] : 0;
+  }
+
+  private static int significant(long[] a) {
+    int n = a.length;
+    while (n > 0 && a[n - 1] == 0) {
+      n--;
+    }
+    return n;
+  }
+
+  private static int bitLength(long[] a) {
+    int n = significant(a);
+    return n == 0 ? 0 : (n - 1) * 32 + (64 - Long.numberOfLeadingZeros(a[n - 1]));
+  }
+}
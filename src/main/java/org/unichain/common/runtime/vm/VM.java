@@ -1255,10 +1255,10 @@ public class VM {
           program.step();
           int nPush = op.val() - PUSH1.val() + 1;
 
-          byte[] data = program.sweep(nPush);
+          DataWord data = program.sweepPush(nPush);
 
           if (logger.isDebugEnabled()) {
-            hint = "" + Hex.toHexString(data);
+            hint = "" + data.toHexString();
           }
 
           program.stackPush(data);
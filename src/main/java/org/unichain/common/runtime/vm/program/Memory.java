@@ -21,21 +21,28 @@ import org.unichain.common.runtime.vm.DataWord;
 import org.unichain.common.runtime.vm.program.listener.ProgramListener;
 import org.unichain.common.runtime.vm.program.listener.ProgramListenerAware;
 
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 
 import static java.lang.Math.ceil;
-import static java.lang.Math.min;
 import static java.lang.String.format;
 import static org.unichain.common.utils.ByteUtil.EMPTY_BYTE_ARRAY;
 import static org.unichain.common.utils.ByteUtil.oneByteToHexString;
 
+/**
+ * Contract memory in one contiguous buffer, grown by half its size when an extension does not fit.
+ *
+ * The size paid for ({@link #size()}, in words) and the size allocated ({@link #internalSize()}, in
+ * 1KB chunks) are accounted as when memory was a list of chunks; only the backing array is larger.
+ */
 public class Memory implements ProgramListenerAware {
 
   private static final int CHUNK_SIZE = 1024;
   private static final int WORD_SIZE = 32;
 
-  private List<byte[]> chunks = new LinkedList<>();
+  private byte[] buffer = EMPTY_BYTE_ARRAY;
+  private int allocated;
   private int softSize;
   private ProgramListener programListener;
 
@@ -51,25 +58,7 @@ public class Memory implements ProgramListenerAware {
 
     extend(address, size);
     byte[] data = new byte[size];
-
-    int chunkIndex = address / CHUNK_SIZE;
-    int chunkOffset = address % CHUNK_SIZE;
-
-    int toGrab = data.length;
-    int start = 0;
-
-    while (toGrab > 0) {
-      int copied = grabMax(chunkIndex, chunkOffset, toGrab, data, start);
-
-      // read next chunk from the start
-      ++chunkIndex;
-      chunkOffset = 0;
-
-      // mark remind
-      toGrab -= copied;
-      start += copied;
-    }
-
+    System.arraycopy(buffer, address, data, 0, size);
     return data;
   }
 
@@ -83,9 +72,6 @@ public class Memory implements ProgramListenerAware {
       extend(address, dataSize);
     }
 
-    int chunkIndex = address / CHUNK_SIZE;
-    int chunkOffset = address % CHUNK_SIZE;
-
     int toCapture = 0;
     if (limited) {
       toCapture = (address + dataSize > softSize) ? softSize - address : dataSize;
@@ -93,17 +79,8 @@ public class Memory implements ProgramListenerAware {
       toCapture = dataSize;
     }
 
-    int start = 0;
-    while (toCapture > 0) {
-      int captured = captureMax(chunkIndex, chunkOffset, toCapture, data, start);
-
-      // capture next chunk
-      ++chunkIndex;
-      chunkOffset = 0;
-
-      // mark remind
-      toCapture -= captured;
-      start += captured;
+    if (toCapture > 0) {
+      System.arraycopy(data, 0, buffer, address, toCapture);
     }
 
     if (programListener != null) {
@@ -125,7 +102,8 @@ public class Memory implements ProgramListenerAware {
     final int newSize = Math.addExact(address, size);
     int toAllocate = newSize - internalSize();
     if (toAllocate > 0) {
-      addChunks((int) ceil((double) toAllocate / CHUNK_SIZE));
+      allocate(Math.addExact(allocated,
+          (int) ceil((double) toAllocate / CHUNK_SIZE) * CHUNK_SIZE));
     }
 
     toAllocate = newSize - softSize;
@@ -140,18 +118,16 @@ public class Memory implements ProgramListenerAware {
   }
 
   public DataWord readWord(int address) {
-    return new DataWord(read(address, 32));
+    extend(address, WORD_SIZE);
+    return new DataWord(Arrays.copyOfRange(buffer, address, address + WORD_SIZE));
   }
 
   // just access expecting all data valid
   public byte readByte(int address) {
-
-    int chunkIndex = address / CHUNK_SIZE;
-    int chunkOffset = address % CHUNK_SIZE;
-
-    byte[] chunk = chunks.get(chunkIndex);
-
-    return chunk[chunkOffset];
+    if (address >= allocated) {
+      throw new IndexOutOfBoundsException("Index: " + address + ", Size: " + allocated);
+    }
+    return buffer[address];
   }
 
   @Override
@@ -192,35 +168,29 @@ public class Memory implements ProgramListenerAware {
   }
 
   public int internalSize() {
-    return chunks.size() * CHUNK_SIZE;
+    return allocated;
   }
 
+  /**
+   * @return copies of the allocated memory in 1KB chunks
+   */
   public List<byte[]> getChunks() {
-    return new LinkedList<>(chunks);
-  }
-
-  private int captureMax(int chunkIndex, int chunkOffset, int size, byte[] src, int srcPos) {
-
-    byte[] chunk = chunks.get(chunkIndex);
-    int toCapture = min(size, chunk.length - chunkOffset);
-
-    System.arraycopy(src, srcPos, chunk, chunkOffset, toCapture);
-    return toCapture;
-  }
-
-  private int grabMax(int chunkIndex, int chunkOffset, int size, byte[] dest, int destPos) {
-
-    byte[] chunk = chunks.get(chunkIndex);
-    int toGrab = min(size, chunk.length - chunkOffset);
-
-    System.arraycopy(chunk, chunkOffset, dest, destPos, toGrab);
-
-    return toGrab;
+    List<byte[]> chunks = new LinkedList<>();
+    for (int offset = 0; offset < allocated; offset += CHUNK_SIZE) {
+      chunks.add(Arrays.copyOfRange(buffer, offset, offset + CHUNK_SIZE));
+    }
+    return chunks;
   }
 
-  private void addChunks(int num) {
-    for (int i = 0; i < num; ++i) {
-      chunks.add(new byte[CHUNK_SIZE]);
+  private void allocate(int size) {
+    if (size > buffer.length) {
+      // grow by half at least, so a contract extending word by word copies the buffer a few times only
+      int capacity = buffer.length + (buffer.length >> 1);
+      if (capacity - size < 0) {
+        capacity = size;
+      }
+      buffer = Arrays.copyOf(buffer, capacity);
     }
+    allocated = size;
   }
 }
@@ -154,7 +154,7 @@ public class Program {
 
   public ProgramPrecompile getProgramPrecompile() {
     if (programPrecompile == null) {
-      programPrecompile = ProgramPrecompile.compile(ops);
+      programPrecompile = ProgramPrecompile.of(ops);
     }
     return programPrecompile;
   }
@@ -294,6 +294,23 @@ public class Program {
     return data;
   }
 
+  /**
+   * Same as {@link #sweep(int)} for the immediate of the PUSH op before pc, with the word already
+   * decoded by the code analysis.
+   */
+  public DataWord sweepPush(int n) {
+    DataWord word = getProgramPrecompile().getPushWord(pc - 1);
+    if (word == null) {
+      return new DataWord(sweep(n));
+    }
+
+    pc += n;
+    if (pc >= ops.length) {
+      stop();
+    }
+    return word;
+  }
+
   public DataWord stackPop() {
     return stack.pop();
   }
@@ -17,25 +17,86 @@
  */
 package org.unichain.common.runtime.vm.program;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import lombok.extern.slf4j.Slf4j;
 import org.unichain.common.runtime.config.VMConfig;
 import org.unichain.common.runtime.vm.DataWord;
 import org.unichain.common.runtime.vm.OpCode;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.BitSet;
 
 
 @Slf4j(topic = "VM")
 /**
  * Created by Anton Nashatyrev on 06.02.2017.
+ *
+ * Analysis of a contract code: its JUMPDEST positions and the decoded words of its PUSH ops.
+ * Analyses are shared by every program running the same code, cached by code content, which also makes
+ * them safe across code changes (a redeploy after SUICIDE is another code, so another entry).
  */
 public class ProgramPrecompile {
 
-  private Set<Integer> jumpdest = new HashSet<>();
+  // bytes held by the cached codes and their analyses
+  private static final long CACHE_WEIGHT = 32L * 1024 * 1024;
+
+  private static final Cache<CodeKey, ProgramPrecompile> CACHE = CacheBuilder.newBuilder()
+      .maximumWeight(CACHE_WEIGHT)
+      .weigher((CodeKey key, ProgramPrecompile value) -> key.code.length + value.footprint())
+      .build();
+
+  private BitSet jumpdest = new BitSet();
+
+  // 1 + index of the word pushed by the PUSH op at each position in pushWords, 0 elsewhere
+  private int[] pushOffsets;
+
+  // 32 bytes words of the PUSH ops, packed in code order
+  private byte[] pushWords;
+
+  private static final class CodeKey {
+
+    private final byte[] code;
+    private final int hash;
+
+    private CodeKey(byte[] code) {
+      this.code = code;
+      this.hash = Arrays.hashCode(code);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return this == o || (o instanceof CodeKey && hash == ((CodeKey) o).hash
+          && Arrays.equals(code, ((CodeKey) o).code));
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  /**
+   * Analysis of the code, from the cache when this code was analysed before.
+   */
+  public static ProgramPrecompile of(byte[] ops) {
+    if (ops.length == 0) {
+      return compile(ops);
+    }
+
+    ProgramPrecompile ret = CACHE.getIfPresent(new CodeKey(ops));
+    if (ret == null) {
+      ret = compile(ops);
+      CACHE.put(new CodeKey(ops.clone()), ret);
+    }
+    return ret;
+  }
 
   public static ProgramPrecompile compile(byte[] ops) {
     ProgramPrecompile ret = new ProgramPrecompile();
+    ret.pushOffsets = new int[ops.length];
+    ByteArrayOutputStream words = new ByteArrayOutputStream();
     for (int i = 0; i < ops.length; ++i) {
 
       OpCode op = OpCode.code(ops[i]);
@@ -45,13 +106,21 @@ public class ProgramPrecompile {
 
       if (op.equals(OpCode.JUMPDEST)) {
         logger.debug("JUMPDEST:" + i);
-        ret.jumpdest.add(i);
+        ret.jumpdest.set(i);
       }
 
       if (op.asInt() >= OpCode.PUSH1.asInt() && op.asInt() <= OpCode.PUSH32.asInt()) {
-        i += op.asInt() - OpCode.PUSH1.asInt() + 1;
+        int nPush = op.asInt() - OpCode.PUSH1.asInt() + 1;
+        // right aligned as a word, bytes past the end of the code are zeros
+        byte[] word = new byte[DataWord.WORD_SIZE];
+        int available = Math.max(0, Math.min(nPush, ops.length - i - 1));
+        System.arraycopy(ops, i + 1, word, DataWord.WORD_SIZE - nPush, available);
+        words.write(word, 0, word.length);
+        ret.pushOffsets[i] = words.size() / DataWord.WORD_SIZE;
+        i += nPush;
       }
     }
+    ret.pushWords = words.toByteArray();
     return ret;
   }
 
@@ -89,6 +158,24 @@ public class ProgramPrecompile {
   }
 
   public boolean hasJumpDest(int pc) {
-    return jumpdest.contains(pc);
+    return pc >= 0 && jumpdest.get(pc);
+  }
+
+  /**
+   * @return word pushed by the PUSH op at this position, null if there is none
+   */
+  public DataWord getPushWord(int pc) {
+    if (pc < 0 || pc >= pushOffsets.length || pushOffsets[pc] == 0) {
+      return null;
+    }
+    int offset = (pushOffsets[pc] - 1) * DataWord.WORD_SIZE;
+    return new DataWord(Arrays.copyOfRange(pushWords, offset, offset + DataWord.WORD_SIZE));
+  }
+
+  /**
+   * Bytes held by the analysis, array headers and the object itself left out.
+   */
+  private int footprint() {
+    return jumpdest.size() / Byte.SIZE + pushOffsets.length * Integer.BYTES + pushWords.length;
   }
 }
@@ -21,33 +21,82 @@ import org.unichain.common.runtime.vm.DataWord;
 import org.unichain.common.runtime.vm.program.listener.ProgramListener;
 import org.unichain.common.runtime.vm.program.listener.ProgramListenerAware;
 
+import java.util.Arrays;
+import java.util.EmptyStackException;
 import java.util.Objects;
 
-public class Stack extends java.util.Stack<DataWord> implements ProgramListenerAware {
+/**
+ * Operand stack of a program on a plain array, indexed from the bottom like {@link java.util.Stack}.
+ * A program runs on one thread, the stack is not synchronized.
+ */
+public class Stack implements ProgramListenerAware {
+
+  private static final int INITIAL_CAPACITY = 32;
 
-  private static final long serialVersionUID = 1;
+  private DataWord[] words = new DataWord[INITIAL_CAPACITY];
+  private int size;
 
-  private transient ProgramListener programListener;
+  private ProgramListener programListener;
 
   @Override
   public void setProgramListener(ProgramListener listener) {
     this.programListener = listener;
   }
 
-  @Override
-  public synchronized DataWord pop() {
+  public DataWord pop() {
     if (programListener != null) {
       programListener.onStackPop();
     }
-    return super.pop();
+    if (size == 0) {
+      throw new EmptyStackException();
+    }
+    DataWord word = words[--size];
+    words[size] = null;
+    return word;
   }
 
-  @Override
   public DataWord push(DataWord item) {
     if (programListener != null) {
       programListener.onStackPush(item);
     }
-    return super.push(item);
+    if (size == words.length) {
+      words = Arrays.copyOf(words, size << 1);
+    }
+    words[size++] = item;
+    return item;
+  }
+
+  public DataWord peek() {
+    if (size == 0) {
+      throw new EmptyStackException();
+    }
+    return words[size - 1];
+  }
+
+  /**
+   * @param index from the bottom of the stack
+   */
+  public DataWord get(int index) {
+    checkIndex(index);
+    return words[index];
+  }
+
+  /**
+   * @return the word replaced
+   */
+  public DataWord set(int index, DataWord word) {
+    checkIndex(index);
+    DataWord old = words[index];
+    words[index] = word;
+    return old;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
   }
 
   public void swap(int from, int to) {
@@ -55,8 +104,9 @@ public class Stack extends java.util.Stack<DataWord> implements ProgramListenerA
       if (programListener != null) {
         programListener.onStackSwap(from, to);
       }
-      DataWord tmp = get(from);
-      set(from, set(to, tmp));
+      DataWord tmp = words[from];
+      words[from] = words[to];
+      words[to] = tmp;
     }
   }
 
@@ -64,6 +114,17 @@ public class Stack extends java.util.Stack<DataWord> implements ProgramListenerA
     return from >= 0 && from < size();
   }
 
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new ArrayIndexOutOfBoundsException(index + " >= " + size);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(Arrays.copyOf(words, size));
+  }
+
   @Override
   public boolean equals(Object o) {
     if (o == null) {
@@ -75,16 +136,25 @@ public class Stack extends java.util.Stack<DataWord> implements ProgramListenerA
     if (o.getClass() != this.getClass()) {
       return false;
     }
-    if (!super.equals(o)) {
+    Stack dataWords = (Stack) o;
+    if (size != dataWords.size) {
       return false;
     }
-    Stack dataWords = (Stack) o;
+    for (int i = 0; i < size; i++) {
+      if (!Objects.equals(words[i], dataWords.words[i])) {
+        return false;
+      }
+    }
     return Objects.equals(programListener, dataWords.programListener);
   }
 
 
   @Override
   public int hashCode() {
-    return Objects.hash(super.hashCode(), programListener);
+    int hash = 1;
+    for (int i = 0; i < size; i++) {
+      hash = 31 * hash + Objects.hashCode(words[i]);
+    }
+    return Objects.hash(hash, programListener);
   }
 }
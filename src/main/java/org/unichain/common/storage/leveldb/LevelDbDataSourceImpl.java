@@ -355,6 +355,42 @@ public class LevelDbDataSourceImpl implements DbSourceInter<byte[]>,
     }
   }
 
+  /**
+   * @return entries with a key <= key, the limit nearest ones
+   */
+  public Map<byte[], byte[]> getPrev(byte[] key, long limit) {
+    if (limit <= 0) {
+      return Collections.emptyMap();
+    }
+    resetDbLock.readLock().lock();
+    try (DBIterator iterator = database.iterator()) {
+      Map<byte[], byte[]> result = new HashMap<>();
+      long i = 0;
+      iterator.seek(key);
+      if (!iterator.hasNext()) {
+        // every key is lower, start from the last one
+        iterator.seekToLast();
+        if (iterator.hasNext()) {
+          Entry<byte[], byte[]> entry = iterator.peekNext();
+          result.put(entry.getKey(), entry.getValue());
+          i++;
+        }
+      } else if (Arrays.equals(iterator.peekNext().getKey(), key)) {
+        result.put(key, iterator.peekNext().getValue());
+        i++;
+      }
+      for (; iterator.hasPrev() && i++ < limit; iterator.prev()) {
+        Entry<byte[], byte[]> entry = iterator.peekPrev();
+        result.put(entry.getKey(), entry.getValue());
+      }
+      return result;
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      resetDbLock.readLock().unlock();
+    }
+  }
+
   public Set<byte[]> getValuesPrev(byte[] key, long limit) {
     if (limit <= 0) {
       return Sets.newHashSet();
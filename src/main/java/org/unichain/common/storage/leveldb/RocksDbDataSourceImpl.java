@@ -2,6 +2,7 @@ package org.unichain.common.storage.leveldb;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Sets;
+import com.google.common.primitives.UnsignedBytes;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
@@ -411,6 +412,35 @@ public class RocksDbDataSourceImpl implements DbSourceInter<byte[]>,
     }
   }
 
+  /**
+   * @return entries with a key <= key, the limit nearest ones
+   */
+  public Map<byte[], byte[]> getPrev(byte[] key, long limit) {
+    if (quitIfNotAlive()) {
+      return Collections.emptyMap();
+    }
+    if (limit <= 0) {
+      return Collections.emptyMap();
+    }
+    resetDbLock.readLock().lock();
+    try (RocksIterator iter = database.newIterator()) {
+      Map<byte[], byte[]> result = new HashMap<>();
+      iter.seek(key);
+      if (!iter.isValid()) {
+        iter.seekToLast();
+      } else if (UnsignedBytes.lexicographicalComparator().compare(iter.key(), key) > 0) {
+        iter.prev();
+      }
+      long i = 0;
+      for (; iter.isValid() && i < limit; iter.prev(), i++) {
+        result.put(iter.key(), iter.value());
+      }
+      return result;
+    } finally {
+      resetDbLock.readLock().unlock();
+    }
+  }
+
   public Set<byte[]> getlatestValues(long limit) {
     if (quitIfNotAlive()) {
       return null;
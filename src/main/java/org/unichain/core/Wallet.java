@@ -77,6 +77,7 @@ import java.util.*;
 
 import static org.unichain.core.config.Parameter.DatabaseConstants.EXCHANGE_COUNT_LIMIT_MAX;
 import static org.unichain.core.config.Parameter.DatabaseConstants.PROPOSAL_COUNT_LIMIT_MAX;
+import static org.unichain.core.config.Parameter.DatabaseConstants.TRANSACTIONS_COUNT_LIMIT_MAX;
 import static org.unichain.core.services.http.utils.Util.*;
 import static org.unichain.core.services.http.utils.Util.FUTURE_QR_FIELD_PAGE_INDEX;
 
@@ -869,6 +870,11 @@ public class Wallet {
         .setValue(dbManager.getDynamicPropertiesStore().getWitness55PayPerBlock())
         .build());
 
+    builder.addChainParameter(Protocol.ChainParameters.ChainParameter.newBuilder()
+        .setKey("getAllowNewRewardAlgorithm")
+        .setValue(dbManager.getDynamicPropertiesStore().useNewRewardAlgorithm() ? 1 : 0)
+        .build());
+
     return builder.build();
   }
 
@@ -1161,6 +1167,78 @@ public class Wallet {
     return transactionInfoCapsule == null ? null : transactionInfoCapsule.getInstance();
   }
 
+  /**
+   * @throws IllegalArgumentException if the cursor is not one of an entry
+   */
+  public AddressHistoryList getAddressHistory(AddressHistoryMessage request) {
+    AddressHistoryStore addressHistoryStore = dbManager.getAddressHistoryStore();
+    AddressHistoryList.Builder builder = AddressHistoryList.newBuilder()
+        .setFirstBlockNum(addressHistoryStore.isEnabled() ? addressHistoryStore.getFirstBlockNum() : -1);
+    if (!addressHistoryStore.isEnabled()) {
+      return builder.build();
+    }
+    int limit = (int) Math.min(Math.max(request.getLimit(), 0), TRANSACTIONS_COUNT_LIMIT_MAX);
+    byte direction = request.getDirection() == AddressHistoryMessage.Direction.TO
+        ? AddressHistoryStore.TO : AddressHistoryStore.FROM;
+    List<AddressHistoryStore.Entry> entries = addressHistoryStore.getHistory(
+        request.getAddress().toByteArray(), direction, request.getCursor().toByteArray(), limit,
+        request.getAscending());
+    for (AddressHistoryStore.Entry entry : entries) {
+      AddressHistoryList.Entry.Builder entryBuilder = AddressHistoryList.Entry.newBuilder()
+          .setBlockNum(entry.getBlockNum())
+          .setIndex(entry.getIndex())
+          .setTxId(ByteString.copyFrom(entry.getTransactionId()))
+          .setCursor(ByteString.copyFrom(entry.getCursor()));
+      TransactionCapsule transaction = dbManager.getTransactionStore()
+          .getUnchecked(entry.getTransactionId());
+      if (transaction != null) {
+        entryBuilder.setTransaction(transaction.getInstance());
+      }
+      builder.addEntry(entryBuilder);
+    }
+    if (!entries.isEmpty() && entries.size() == limit) {
+      builder.setNextCursor(ByteString.copyFrom(entries.get(entries.size() - 1).getCursor()));
+    }
+    return builder.build();
+  }
+
+  /**
+   * @return proof that the transaction is in its block, null if it is not in a block
+   */
+  public TransactionMerkleProof getTransactionMerkleProof(ByteString transactionId) {
+    if (Objects.isNull(transactionId) || transactionId.size() != Sha256Hash.LENGTH) {
+      return null;
+    }
+    BlockCapsule block;
+    try {
+      long blockNum = dbManager.getTransactionStore().getBlockNumber(transactionId.toByteArray());
+      if (blockNum < 0) {
+        return null;
+      }
+      block = dbManager.getBlockByNum(blockNum);
+    } catch (StoreException e) {
+      return null;
+    }
+    Sha256Hash txId = Sha256Hash.wrap(transactionId);
+    List<TransactionCapsule> transactions = block.getTransactions();
+    for (int index = 0; index < transactions.size(); index++) {
+      if (!transactions.get(index).getTransactionId().equals(txId)) {
+        continue;
+      }
+      TransactionMerkleProof.Builder builder = TransactionMerkleProof.newBuilder()
+          .setTxId(transactionId)
+          .setBlockNum(block.getNum())
+          .setBlockId(block.getBlockId().getByteString())
+          .setRoot(block.getMerkleRoot().getByteString())
+          .setLeaf(block.getMerkleLeaf(index).getByteString())
+          .setIndex(index)
+          .setCount(transactions.size());
+      block.getMerkleBranch(index).forEach(hash -> builder.addBranch(hash.getByteString()));
+      return builder.build();
+    }
+    return null;
+  }
+
   public Proposal getProposalById(ByteString proposalId) {
     if (Objects.isNull(proposalId)) {
       return null;
@@ -1497,18 +1575,32 @@ public class Wallet {
 
       //load sublist from [start -> end)
       var tokenStore = dbManager.getFutureTokenStore();
-      var tmpTickKeyBs = summary.getLowerTick();
-      int index = 0;
-      while (true){
-        var tmpTick = tokenStore.get(tmpTickKeyBs.toByteArray());
-        if(index >= start && index < end)
-        {
+      var dealIndex = dbManager.getFutureDealIndexStore();
+      var chain = FutureDealIndexStore.tokenChain(query.getOwnerAddress().toByteArray(), query.getTokenName().getBytes());
+      if(dealIndex.isSynced(chain, summary.getTotalDeal(), summary.getLowerTick(), summary.getUpperTick())){
+        //seek the page by deal index
+        for(long index = start; index < end; index++){
+          var tickKey = dealIndex.getTick(chain, index);
+          var tmpTick = Objects.isNull(tickKey) ? null : tokenStore.get(tickKey);
+          if(Objects.isNull(tmpTick))
+            break;
           deals.add(tmpTick.getInstance());
         }
-        if(index >= end)
-          break;
-        tmpTickKeyBs = tmpTick.getNextTick();
-        index ++;
+      }
+      else {
+        var tmpTickKeyBs = summary.getLowerTick();
+        int index = 0;
+        while (true){
+          var tmpTick = tokenStore.get(tmpTickKeyBs.toByteArray());
+          if(index >= start && index < end)
+          {
+            deals.add(tmpTick.getInstance());
+          }
+          if(index >= end)
+            break;
+          tmpTickKeyBs = tmpTick.getNextTick();
+          index ++;
+        }
       }
     }
 
@@ -1574,18 +1666,32 @@ public class Wallet {
         end = (int)summary.getTotalDeal();
 
       var futureStore = dbManager.getFutureTransferStore();
-      var tmpTickKeyBs = summary.getLowerTick();
-      int index = 0;
-      while (true){
-        var tmpTick = futureStore.get(tmpTickKeyBs.toByteArray());
-        if(index >= start && index < end)
-        {
+      var dealIndex = dbManager.getFutureDealIndexStore();
+      var chain = query.getOwnerAddress().toByteArray();
+      if(dealIndex.isSynced(chain, summary.getTotalDeal(), summary.getLowerTick(), summary.getUpperTick())){
+        //seek the page by deal index
+        for(long index = start; index < end; index++){
+          var tickKey = dealIndex.getTick(chain, index);
+          var tmpTick = Objects.isNull(tickKey) ? null : futureStore.get(tickKey);
+          if(Objects.isNull(tmpTick))
+            break;
           deals.add(tmpTick.getInstance());
         }
-        if(index >= end)
-          break;
-        tmpTickKeyBs = tmpTick.getNextTick();
-        index ++;
+      }
+      else {
+        var tmpTickKeyBs = summary.getLowerTick();
+        int index = 0;
+        while (true){
+          var tmpTick = futureStore.get(tmpTickKeyBs.toByteArray());
+          if(index >= start && index < end)
+          {
+            deals.add(tmpTick.getInstance());
+          }
+          if(index >= end)
+            break;
+          tmpTickKeyBs = tmpTick.getNextTick();
+          index ++;
+        }
       }
     }
 
@@ -29,6 +29,7 @@ import org.unichain.core.capsule.AccountCapsule;
 import org.unichain.core.capsule.FutureTokenCapsule;
 import org.unichain.core.capsule.TransactionResultCapsule;
 import org.unichain.core.config.Parameter;
+import org.unichain.core.db.FutureDealIndexStore;
 import org.unichain.core.db.Manager;
 import org.unichain.core.exception.ContractExeException;
 import org.unichain.core.exception.ContractValidateException;
@@ -201,6 +202,8 @@ public class TokenTransferActuatorV3 extends AbstractActuator {
     var tickKey = Util.makeFutureTokenIndexKey(toAddress, tokenKey, tickDay);
 
     var tokenStore = dbManager.getFutureTokenStore();
+    var dealIndex = dbManager.getFutureDealIndexStore();
+    var chain = FutureDealIndexStore.tokenChain(toAddress, tokenKey);
     var accountStore = dbManager.getAccountStore();
     var toAcc = accountStore.get(toAddress);
     var summary = toAcc.getFutureTokenSummary(tokenName);
@@ -233,6 +236,7 @@ public class TokenTransferActuatorV3 extends AbstractActuator {
               .clearPrevTick()
               .build();
       tokenStore.put(tickKey, new FutureTokenCapsule(tick));
+      dealIndex.reset(chain, tickKey);
 
       //save summary
       summary = Protocol.FutureTokenSummaryV2.newBuilder()
@@ -252,6 +256,8 @@ public class TokenTransferActuatorV3 extends AbstractActuator {
     /**
      * other tick exist
      */
+    var indexSynced = dealIndex.isSynced(chain, summary.getTotalDeal(), summary.getLowerTick(), summary.getUpperTick());
+
     var headKey = summary.getLowerTick().toByteArray();
     var head = tokenStore.get(headKey);
     var headTime = head.getExpireTime();
@@ -271,6 +277,9 @@ public class TokenTransferActuatorV3 extends AbstractActuator {
               .clearPrevTick()
               .build();
       tokenStore.put(tickKey, new FutureTokenCapsule(newHead));
+      if(indexSynced){
+        dealIndex.addFirst(chain, tickKey);
+      }
 
       //save summary
       summary = summary.toBuilder()
@@ -298,6 +307,9 @@ public class TokenTransferActuatorV3 extends AbstractActuator {
               .setPrevTick(oldTailKeyBs)
               .build();
       tokenStore.put(tickKey, new FutureTokenCapsule(newTail));
+      if(indexSynced){
+        dealIndex.addLast(chain, tickKey);
+      }
 
       //save old tail
       var oldTail = tokenStore.get(oldTailKeyBs.toByteArray());
@@ -334,6 +346,8 @@ public class TokenTransferActuatorV3 extends AbstractActuator {
                 .setNextTick(oldNextTickKey)
                 .build();
         tokenStore.put(tickKey, new FutureTokenCapsule(newTick));
+        // positions after the slot shift, the chain is paged by walking it
+        dealIndex.invalidate(chain);
 
         //save prev tick
         searchTick.setNextTick(ByteString.copyFrom(tickKey));
@@ -25,6 +25,7 @@ import org.springframework.util.Assert;
 import org.unichain.common.utils.Utils;
 import org.unichain.core.capsule.TransactionResultCapsule;
 import org.unichain.core.config.Parameter;
+import org.unichain.core.db.FutureDealIndexStore;
 import org.unichain.core.db.Manager;
 import org.unichain.core.exception.BalanceInsufficientException;
 import org.unichain.core.exception.ContractExeException;
@@ -120,6 +121,9 @@ public class TokenWithdrawFutureActuatorV3 extends AbstractActuator {
       var accountStore = dbManager.getAccountStore();
       var ownerAcc = accountStore.get(ownerAddress);
       var summary = ownerAcc.getFutureTokenSummary(tokenName);
+      var dealIndex = dbManager.getFutureDealIndexStore();
+      var chain = FutureDealIndexStore.tokenChain(ownerAddress, tokenKey);
+      var indexSynced = dealIndex.isSynced(chain, summary.getTotalDeal(), summary.getLowerTick(), summary.getUpperTick());
 
       /**
        * loop to withdraw, the most fastest way!!!
@@ -161,6 +165,7 @@ public class TokenWithdrawFutureActuatorV3 extends AbstractActuator {
        * all deals withdrawn: remove summary
        */
       if(withdrawAll){
+        dealIndex.clear(chain);
         ownerAcc.clearFutureToken(tokenKey);
         ownerAcc.addToken(tokenKey, withdrawAmount);
         accountStore.put(ownerAddress, ownerAcc);
@@ -173,6 +178,9 @@ public class TokenWithdrawFutureActuatorV3 extends AbstractActuator {
       var newHead = tokenStore.get(tmpTickKeyBs.toByteArray());
       newHead.clearPrevTick();
       tokenStore.put(tmpTickKeyBs.toByteArray(), newHead);
+      if(indexSynced){
+        dealIndex.removeFirst(chain, withdrawDeal);
+      }
       summary = summary.toBuilder()
               .setTotalDeal(summary.getTotalDeal() - withdrawDeal)
               .setTotalValue(summary.getTotalValue() - withdrawAmount)
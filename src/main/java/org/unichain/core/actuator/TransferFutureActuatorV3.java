@@ -123,6 +123,8 @@ public class TransferFutureActuatorV3 extends AbstractActuator {
     var tickKey = Util.makeFutureTransferIndexKey(toAddress, tickDay);
 
     var futureStore = dbManager.getFutureTransferStore();
+    var dealIndex = dbManager.getFutureDealIndexStore();
+    var chain = toAddress;
     var accountStore = dbManager.getAccountStore();
     var toAcc = accountStore.get(toAddress);
     var summary = toAcc.getFutureSummary();
@@ -156,6 +158,7 @@ public class TransferFutureActuatorV3 extends AbstractActuator {
               .clearPrevTick()
               .build();
       futureStore.put(tickKey, new FutureTransferCapsule(tick));
+      dealIndex.reset(chain, tickKey);
 
       //save summary
       summary = Protocol.FutureSummary.newBuilder()
@@ -174,6 +177,8 @@ public class TransferFutureActuatorV3 extends AbstractActuator {
     /**
      * other ticks exist
      */
+    var indexSynced = dealIndex.isSynced(chain, summary.getTotalDeal(), summary.getLowerTick(), summary.getUpperTick());
+
     var headKey = summary.getLowerTick().toByteArray();
     var head = futureStore.get(headKey);
     var headTime = head.getExpireTime();
@@ -194,6 +199,9 @@ public class TransferFutureActuatorV3 extends AbstractActuator {
               .clearPrevTick()
               .build();
       futureStore.put(tickKey, new FutureTransferCapsule(newHead));
+      if(indexSynced){
+        dealIndex.addFirst(chain, tickKey);
+      }
 
       //save summary
       summary = summary.toBuilder()
@@ -220,6 +228,9 @@ public class TransferFutureActuatorV3 extends AbstractActuator {
               .setPrevTick(oldTailKeyBs)
               .build();
       futureStore.put(tickKey, new FutureTransferCapsule(newTail));
+      if(indexSynced){
+        dealIndex.addLast(chain, tickKey);
+      }
 
       //save old tail
       var oldTail = futureStore.get(oldTailKeyBs.toByteArray());
@@ -256,6 +267,8 @@ public class TransferFutureActuatorV3 extends AbstractActuator {
                 .setNextTick(oldNextTickKey)
                 .build();
         futureStore.put(tickKey, new FutureTransferCapsule(newTick));
+        // positions after the slot shift, the chain is paged by walking it
+        dealIndex.invalidate(chain);
 
         //save prev
         searchTick.setNextTick(ByteString.copyFrom(tickKey));
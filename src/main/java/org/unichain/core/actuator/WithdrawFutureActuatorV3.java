@@ -96,6 +96,8 @@ public class WithdrawFutureActuatorV3 extends AbstractActuator {
         var accountStore = dbManager.getAccountStore();
         var ownerAcc = dbManager.getAccountStore().get(ownerAddress);
         var summary = ownerAcc.getFutureSummary();
+        var dealIndex = dbManager.getFutureDealIndexStore();
+        var indexSynced = dealIndex.isSynced(ownerAddress, summary.getTotalDeal(), summary.getLowerTick(), summary.getUpperTick());
 
         /**
          * loop to withdraw, the most fastest way!!!
@@ -137,6 +139,7 @@ public class WithdrawFutureActuatorV3 extends AbstractActuator {
          * all deals withdraw: remove summary
          */
         if(withdrawAll){
+            dealIndex.clear(ownerAddress);
             ownerAcc.clearFuture();
             ownerAcc.addBalance(withdrawAmount);
             accountStore.put(ownerAddress, ownerAcc);
@@ -149,6 +152,9 @@ public class WithdrawFutureActuatorV3 extends AbstractActuator {
         var newHead = futureStore.get(tmpTickKeyBs.toByteArray());
         newHead.clearPrevTick();
         futureStore.put(tmpTickKeyBs.toByteArray(), newHead);
+        if(indexSynced){
+            dealIndex.removeFirst(ownerAddress, withdrawDeal);
+        }
         summary = summary.toBuilder()
                 .setTotalDeal(summary.getTotalDeal() - withdrawDeal)
                 .setTotalBalance(summary.getTotalBalance() - withdrawAmount)
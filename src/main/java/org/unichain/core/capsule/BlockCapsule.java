@@ -18,6 +18,7 @@ package org.unichain.core.capsule;
 import com.google.common.primitives.Longs;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
 import com.google.protobuf.InvalidProtocolBufferException;
 import lombok.Getter;
 import lombok.Setter;
@@ -40,7 +41,6 @@ import java.security.SignatureException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Vector;
 import java.util.stream.Collectors;
 
 @Slf4j(topic = "capsule")
@@ -129,6 +129,42 @@ public class BlockCapsule implements ProtoCapsule<Block> {
   public boolean generatedByMyself = false;
   private List<TransactionCapsule> transactions = new ArrayList<>();
 
+  // derived from the header or the transactions they were computed for, see precompute()
+  private volatile Signer signer;
+  private volatile MerkleLeaves merkleLeaves;
+
+  private static class Signer {
+
+    private final BlockHeader header;
+    private final byte[] address;
+
+    private Signer(BlockHeader header, byte[] address) {
+      this.header = header;
+      this.address = address;
+    }
+  }
+
+  private static class MerkleLeaves {
+
+    private final List<Transaction> transactions;
+    private final List<Sha256Hash> hashes;
+    // root of the hashes, set once computed
+    private volatile Sha256Hash root;
+
+    private MerkleLeaves(List<Transaction> transactions, List<Sha256Hash> hashes) {
+      this.transactions = transactions;
+      this.hashes = hashes;
+    }
+  }
+
+  /**
+   * Block assembly (block production): transactions are appended to one builder and the
+   * serialized size is tracked incrementally, the block is only rebuilt once by finishAssembly().
+   * While assembling, the header of getInstance() is up to date but its transactions are not.
+   */
+  private Block.Builder assembly;
+  private long assemblySize;
+
   public BlockCapsule(int version, long number, Sha256Hash hash, long when, ByteString witnessAddress) {
     BlockHeader.raw.Builder blockHeaderRawBuild = BlockHeader.raw.newBuilder();
     BlockHeader.raw blockHeaderRaw = blockHeaderRawBuild
@@ -196,10 +232,40 @@ public class BlockCapsule implements ProtoCapsule<Block> {
   }
 
   public void addTransaction(TransactionCapsule pendingUnx) {
-    this.block = this.block.toBuilder().addTransactions(pendingUnx.getInstance()).build();
+    if (isAssembling()) {
+      this.assembly.addTransactions(pendingUnx.getInstance());
+      this.assemblySize += CodedOutputStream.computeMessageSize(Block.TRANSACTIONS_FIELD_NUMBER, pendingUnx.getInstance());
+    } else {
+      this.block = this.block.toBuilder().addTransactions(pendingUnx.getInstance()).build();
+    }
     getTransactions().add(pendingUnx);
   }
 
+  public void startAssembly() {
+    if (!isAssembling()) {
+      this.assembly = this.block.toBuilder();
+      this.assemblySize = this.block.getSerializedSize();
+    }
+  }
+
+  public void finishAssembly() {
+    if (isAssembling()) {
+      this.block = this.assembly.build();
+      this.assembly = null;
+    }
+  }
+
+  public boolean isAssembling() {
+    return this.assembly != null;
+  }
+
+  /**
+   * Serialized size of the block, including the transactions appended while assembling.
+   */
+  public long getSerializedSize() {
+    return isAssembling() ? this.assemblySize : this.block.getSerializedSize();
+  }
+
   public List<TransactionCapsule> getTransactions() {
     return transactions;
   }
@@ -211,6 +277,7 @@ public class BlockCapsule implements ProtoCapsule<Block> {
   }
 
   public void sign(byte[] privateKey) {
+    finishAssembly();
     // TODO private_key == null
     ECKey ecKey = ECKey.fromPrivate(privateKey);
     ECDSASignature signature = ecKey.sign(getRawHash().getBytes());
@@ -226,9 +293,65 @@ public class BlockCapsule implements ProtoCapsule<Block> {
     return Sha256Hash.of(this.block.getBlockHeader().getRawData().toByteArray());
   }
 
+  /**
+   * @return address recovered from the witness signature, computed once per header
+   */
+  private byte[] getSignerAddress() throws SignatureException {
+    BlockHeader header = this.block.getBlockHeader();
+    Signer signer = this.signer;
+    if (signer == null || signer.header != header) {
+      byte[] address = ECKey.signatureToAddress(
+          Sha256Hash.of(header.getRawData().toByteArray()).getBytes(),
+          TransactionCapsule.getBase64FromByteString(header.getWitnessSignature()));
+      signer = new Signer(header, address);
+      this.signer = signer;
+    }
+    return signer.address;
+  }
+
+  /**
+   * @return merkle hashes of the transactions, computed once per transaction list
+   */
+  private List<Sha256Hash> getMerkleLeaves() {
+    return merkleLeaves().hashes;
+  }
+
+  private MerkleLeaves merkleLeaves() {
+    List<Transaction> transactionsList = this.block.getTransactionsList();
+    MerkleLeaves leaves = this.merkleLeaves;
+    if (leaves == null || leaves.transactions != transactionsList) {
+      List<Sha256Hash> hashes = transactionsList.stream()
+          .map(TransactionCapsule::new)
+          .map(TransactionCapsule::getMerkleHash)
+          .collect(Collectors.toList());
+      leaves = new MerkleLeaves(transactionsList, hashes);
+      this.merkleLeaves = leaves;
+    }
+    return leaves;
+  }
+
+  /**
+   * Compute ahead, on another thread than the one applying the block, what its validation derives
+   * from the block alone: the signer of the witness signature and the merkle root of the
+   * transactions. Nothing here reads the chain; failures are left to the validation.
+   */
+  public void precompute() {
+    if (isAssembling()) {
+      return;
+    }
+    try {
+      getSignerAddress();
+    } catch (SignatureException | RuntimeException e) {
+      logger.debug("Precompute signer of block {} failed: {}", getNum(), e.getMessage());
+    }
+    if (!this.block.getTransactionsList().isEmpty()) {
+      calcMerkleRoot();
+    }
+  }
+
   public boolean validateSignature(Manager dbManager) throws ValidateSignatureException {
     try {
-      byte[] sigAddress = ECKey.signatureToAddress(getRawHash().getBytes(), TransactionCapsule.getBase64FromByteString(block.getBlockHeader().getWitnessSignature()));
+      byte[] sigAddress = getSignerAddress();
       byte[] witnessAccountAddress = block.getBlockHeader().getRawData().getWitnessAddress().toByteArray();
 
       if (dbManager.getDynamicPropertiesStore().getAllowMultiSign() != 1) {
@@ -255,19 +378,41 @@ public class BlockCapsule implements ProtoCapsule<Block> {
     return block.getBlockHeader().getRawData().getVersion();
   }
 
+  /**
+   * @return merkle root of the transactions, computed once per transaction list
+   */
   public Sha256Hash calcMerkleRoot() {
+    finishAssembly();
     List<Transaction> transactionsList = this.block.getTransactionsList();
 
     if (CollectionUtils.isEmpty(transactionsList)) {
       return Sha256Hash.ZERO_HASH;
     }
 
-    Vector<Sha256Hash> ids = transactionsList.stream()
-        .map(TransactionCapsule::new)
-        .map(TransactionCapsule::getMerkleHash)
-        .collect(Collectors.toCollection(Vector::new));
+    MerkleLeaves leaves = merkleLeaves();
+    Sha256Hash root = leaves.root;
+    if (root == null) {
+      root = MerkleTree.root(leaves.hashes);
+      leaves.root = root;
+    }
+    return root;
+  }
+
+  /**
+   * @return merkle hash of the transaction at index, the leaf of its inclusion proof
+   */
+  public Sha256Hash getMerkleLeaf(int index) {
+    finishAssembly();
+    return getMerkleLeaves().get(index);
+  }
 
-    return MerkleTree.getInstance().createTree(ids).getRoot().getHash();
+  /**
+   * Inclusion proof of the transaction at index: the hashes leading from its merkle hash to the
+   * merkle root, to check with {@link MerkleTree#verify}.
+   */
+  public List<Sha256Hash> getMerkleBranch(int index) {
+    finishAssembly();
+    return MerkleTree.branch(getMerkleLeaves(), index);
   }
 
   public void setMerkleRoot() {
@@ -280,6 +425,7 @@ public class BlockCapsule implements ProtoCapsule<Block> {
   }
 
   public void setAccountStateRoot(byte[] root) {
+    finishAssembly();
     BlockHeader.raw blockHeaderRaw =
         this.block.getBlockHeader().getRawData().toBuilder()
             .setAccountStateRoot(ByteString.copyFrom(root)).build();
@@ -316,6 +462,7 @@ public class BlockCapsule implements ProtoCapsule<Block> {
 
   @Override
   public byte[] getData() {
+    finishAssembly();
     return this.block.toByteArray();
   }
 
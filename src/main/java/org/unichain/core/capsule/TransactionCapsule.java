@@ -29,10 +29,12 @@ import org.unichain.common.runtime.vm.program.Program.*;
 import org.unichain.common.utils.ByteArray;
 import org.unichain.common.utils.Sha256Hash;
 import org.unichain.core.Wallet;
+import org.unichain.core.capsule.utils.SignatureCache;
 import org.unichain.core.config.args.Args;
 import org.unichain.core.db.AccountStore;
 import org.unichain.core.db.Manager;
 import org.unichain.core.db.TransactionTrace;
+import org.unichain.core.db.common.TransactionPosition;
 import org.unichain.core.exception.*;
 import org.unichain.protos.Contract;
 import org.unichain.protos.Protocol.Key;
@@ -64,6 +66,10 @@ import static org.unichain.protos.Contract.*;
 public class TransactionCapsule implements ProtoCapsule<Transaction> {
 
   private Transaction transaction;
+  // computed once per instance, dropped when the instance changes
+  private volatile Sha256Hash rawHash;
+  private volatile Sha256Hash merkleHash;
+  private volatile byte[] data;
   @Setter
   private boolean isVerified = false;
 
@@ -71,6 +77,17 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
   @Getter
   private long blockNum = -1;
 
+  @Setter
+  @Getter
+  private TransactionPosition position;
+
+  /**
+   * Block invariant checks (version, tapos, size, expiration, dup) already passed for the block being processed.
+   */
+  @Setter
+  @Getter
+  private boolean prechecked = false;
+
   @Getter
   @Setter
   private TransactionTrace unxTrace;
@@ -81,7 +98,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
    * constructor TransactionCapsule.
    */
   public TransactionCapsule(Transaction unx) {
-    this.transaction = unx;
+    setInstance(unx);
   }
 
   /**
@@ -89,7 +106,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
    */
   public TransactionCapsule(byte[] data) throws BadItemException {
     try {
-      this.transaction = Transaction.parseFrom(Message.getCodedInputStream(data));
+      setInstance(Transaction.parseFrom(Message.getCodedInputStream(data)));
     } catch (Exception e) {
       throw new BadItemException("Transaction proto data parse exception");
     }
@@ -97,7 +114,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
 
   public TransactionCapsule(CodedInputStream codedInputStream) throws BadItemException {
     try {
-      this.transaction = Transaction.parseFrom(codedInputStream);
+      setInstance(Transaction.parseFrom(codedInputStream));
     } catch (IOException e) {
       throw new BadItemException("Transaction proto data parse exception");
     }
@@ -117,7 +134,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
         Transaction.Contract.newBuilder().setType(ContractType.TransferContract).setParameter(
             Any.pack(transferContract)).build());
     logger.info("Transaction create succeeded！");
-    transaction = Transaction.newBuilder().setRawData(transactionBuilder.build()).build();
+    setInstance(Transaction.newBuilder().setRawData(transactionBuilder.build()).build());
   }*/
 
   public TransactionCapsule(AccountCreateContract contract, AccountStore accountStore) {
@@ -161,19 +178,19 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
   }
 
   public TransactionCapsule(raw rawData, List<ByteString> signatureList) {
-    this.transaction = Transaction.newBuilder().setRawData(rawData).addAllSignature(signatureList)
-        .build();
+    setInstance(Transaction.newBuilder().setRawData(rawData).addAllSignature(signatureList)
+        .build());
   }
 
   public void resetResult() {
     if (this.getInstance().getRetCount() > 0) {
-      this.transaction = this.getInstance().toBuilder().clearRet().build();
+      setInstance(this.getInstance().toBuilder().clearRet().build());
     }
   }
 
   public void setResult(TransactionResultCapsule transactionResultCapsule) {
-    this.transaction = this.getInstance().toBuilder().addRet(transactionResultCapsule.getInstance())
-        .build();
+    setInstance(this.getInstance().toBuilder().addRet(transactionResultCapsule.getInstance())
+        .build());
   }
 
   public void setReference(long blockNum, byte[] blockHash) {
@@ -182,7 +199,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
         .setRefBlockHash(ByteString.copyFrom(ByteArray.subArray(blockHash, 8, 16)))
         .setRefBlockBytes(ByteString.copyFrom(ByteArray.subArray(refBlockNum, 6, 8)))
         .build();
-    this.transaction = this.transaction.toBuilder().setRawData(rawData).build();
+    setInstance(this.transaction.toBuilder().setRawData(rawData).build());
   }
 
   /**
@@ -191,7 +208,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
   public void setExpiration(long expiration) {
     Transaction.raw rawData = this.transaction.getRawData().toBuilder().setExpiration(expiration)
         .build();
-    this.transaction = this.transaction.toBuilder().setRawData(rawData).build();
+    setInstance(this.transaction.toBuilder().setRawData(rawData).build());
   }
 
   public long getExpiration() {
@@ -202,7 +219,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
     Transaction.raw rawData = this.transaction.getRawData().toBuilder()
         .setTimestamp(System.currentTimeMillis())
         .build();
-    this.transaction = this.transaction.toBuilder().setRawData(rawData).build();
+    setInstance(this.transaction.toBuilder().setRawData(rawData).build());
   }
 
   public long getTimestamp() {
@@ -218,7 +235,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
     Transaction.raw.Builder transactionBuilder = Transaction.raw.newBuilder().addContract(
         Transaction.Contract.newBuilder().setType(contractType).setParameter(
             Any.pack(message)).build());
-    transaction = Transaction.newBuilder().setRawData(transactionBuilder.build()).build();
+    setInstance(Transaction.newBuilder().setRawData(transactionBuilder.build()).build());
   }
 
   @Deprecated
@@ -226,23 +243,46 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
     Transaction.raw.Builder transactionBuilder = Transaction.raw.newBuilder().addContract(
         Transaction.Contract.newBuilder().setType(contractType).setParameter(
             Any.pack(message)).build());
-    transaction = Transaction.newBuilder().setRawData(transactionBuilder.build()).build();
+    setInstance(Transaction.newBuilder().setRawData(transactionBuilder.build()).build());
   }
 
   public Sha256Hash getMerkleHash() {
-    byte[] transBytes = this.transaction.toByteArray();
-    return Sha256Hash.of(transBytes);
+    Sha256Hash hash = merkleHash;
+    if (hash == null) {
+      hash = Sha256Hash.of(getData());
+      merkleHash = hash;
+    }
+    return hash;
   }
 
   private Sha256Hash getRawHash() {
-    return Sha256Hash.of(this.transaction.getRawData().toByteArray());
+    Sha256Hash hash = rawHash;
+    if (hash == null) {
+      hash = Sha256Hash.of(this.transaction.getRawData().toByteArray());
+      rawHash = hash;
+    }
+    return hash;
+  }
+
+  /**
+   * Replace the instance, dropping what was computed from the old one; the raw hash is kept if the
+   * raw data is the same message (signatures or results changed).
+   */
+  private void setInstance(Transaction transaction) {
+    Transaction old = this.transaction;
+    this.transaction = transaction;
+    if (old == null || transaction.getRawData() != old.getRawData()) {
+      this.rawHash = null;
+    }
+    this.merkleHash = null;
+    this.data = null;
   }
 
   public void sign(byte[] privateKey) {
     ECKey ecKey = ECKey.fromPrivate(privateKey);
     ECDSASignature signature = ecKey.sign(getRawHash().getBytes());
     ByteString sig = ByteString.copyFrom(signature.toByteArray());
-    this.transaction = this.transaction.toBuilder().addSignature(sig).build();
+    setInstance(this.transaction.toBuilder().addSignature(sig).build());
   }
 
   public static long getWeight(Permission permission, byte[] address) {
@@ -269,8 +309,9 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
       if (sig.size() < 65) {
         throw new SignatureFormatException("Signature size is " + sig.size());
       }
-      String base64 = TransactionCapsule.getBase64FromByteString(sig);
-      byte[] address = ECKey.signatureToAddress(hash, base64);
+      SignatureCache.Signer signer = SignatureCache.getInstance().recover(hash, sig);
+      String base64 = signer.getBase64();
+      byte[] address = signer.getAddress();
       long weight = getWeight(permission, address);
       if (weight == 0) {
         throw new PermissionException(
@@ -324,7 +365,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
     }
     ECDSASignature signature = ecKey.sign(getRawHash().getBytes());
     ByteString sig = ByteString.copyFrom(signature.toByteArray());
-    this.transaction = this.transaction.toBuilder().addSignature(sig).build();
+    setInstance(this.transaction.toBuilder().addSignature(sig).build());
   }
 
   /**
@@ -782,9 +823,17 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
     return getRawHash();
   }
 
+  /**
+   * @return serialized instance, encoded once and shared, not to be changed
+   */
   @Override
   public byte[] getData() {
-    return this.transaction.toByteArray();
+    byte[] bytes = data;
+    if (bytes == null) {
+      bytes = this.transaction.toByteArray();
+      data = bytes;
+    }
+    return bytes;
   }
 
   public long getSerializedSize() {
@@ -916,10 +965,10 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
     if (this.transaction.getRetCount() > 0) {
       ret = this.transaction.getRet(0).toBuilder().setContractRet(code).build();
 
-      this.transaction = transaction.toBuilder().setRet(0, ret).build();
+      setInstance(transaction.toBuilder().setRet(0, ret).build());
       return;
     }
-    this.transaction = transaction.toBuilder().addRet(ret).build();
+    setInstance(transaction.toBuilder().addRet(ret).build());
   }
 
   public contractResult getContractRet() {
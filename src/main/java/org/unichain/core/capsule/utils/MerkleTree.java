@@ -1,93 +1,146 @@
 package org.unichain.core.capsule.utils;
 
-import lombok.Getter;
 import org.unichain.common.utils.Sha256Hash;
 
+import java.security.DigestException;
+import java.security.MessageDigest;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
-@Getter
-public class MerkleTree {
+/**
+ * Merkle root of the transactions of a block, and inclusion proofs of single transactions.
+ *
+ * The leaves are the merkle hashes of the transactions. A parent is the hash of its two children
+ * concatenated, and the last node of a level with an odd count is carried up unchanged. A level is
+ * one flat array of 32-byte hashes. Nothing is kept between calls, so any thread can use it.
+ */
+public final class MerkleTree {
 
-  private static volatile MerkleTree instance;
-  private List<Sha256Hash> hashList;
-  private List<Leaf> leaves;
-  private Leaf root;
+  public static final int HASH_LENGTH = Sha256Hash.LENGTH;
 
-  public static MerkleTree getInstance() {
-    if (instance == null) {
-      synchronized (MerkleTree.class) {
-        if (instance == null) {
-          instance = new MerkleTree();
-        }
-      }
-    }
-    return instance;
-  }
+  // levels with fewer pairs are hashed on the calling thread
+  private static final int PARALLEL_PAIRS = 2048;
+  private static final int PAIRS_PER_TASK = 512;
 
-  public MerkleTree createTree(List<Sha256Hash> hashList) {
-    this.leaves = new ArrayList<>();
-    this.hashList = hashList;
-    List<Leaf> leaves = createLeaves(hashList);
+  private MerkleTree() {
+  }
 
-    while (leaves.size() > 1) {
-      leaves = createParentLeaves(leaves);
+  /**
+   * @param leaves at least one
+   */
+  public static Sha256Hash root(List<Sha256Hash> leaves) {
+    checkLeaves(leaves);
+    byte[] level = flatten(leaves);
+    int count = leaves.size();
+    while (count > 1) {
+      level = parents(level, count);
+      count = (count + 1) >>> 1;
     }
-
-    this.root = leaves.get(0);
-    return this;
+    return Sha256Hash.wrap(Arrays.copyOf(level, HASH_LENGTH));
   }
 
-  private List<Leaf> createParentLeaves(List<Leaf> leaves) {
-    int step = 2;
-    int len = leaves.size();
-    return IntStream.iterate(0, i -> i + step)
-        .limit(len)
-        .filter(i -> i < len)
-        .mapToObj(i -> {
-          Leaf right = i + 1 < len ? leaves.get(i + 1) : null;
-          return createLeaf(leaves.get(i), right);
-        }).collect(Collectors.toList());
+  /**
+   * Hashes of the siblings met from a leaf up to the root. A level where the node has no sibling
+   * adds nothing.
+   *
+   * @param leaves at least one
+   */
+  public static List<Sha256Hash> branch(List<Sha256Hash> leaves, int index) {
+    checkLeaves(leaves);
+    if (index < 0 || index >= leaves.size()) {
+      throw new IndexOutOfBoundsException("leaf " + index + " of " + leaves.size());
+    }
+    List<Sha256Hash> branch = new ArrayList<>();
+    byte[] level = flatten(leaves);
+    int count = leaves.size();
+    while (count > 1) {
+      int sibling = index ^ 1;
+      if (sibling < count) {
+        branch.add(Sha256Hash.wrap(Arrays.copyOfRange(level, sibling * HASH_LENGTH,
+            (sibling + 1) * HASH_LENGTH)));
+      }
+      level = parents(level, count);
+      count = (count + 1) >>> 1;
+      index >>>= 1;
+    }
+    return branch;
   }
 
-  private List<Leaf> createLeaves(List<Sha256Hash> hashList) {
-    int step = 2;
-    int len = hashList.size();
-    return IntStream.iterate(0, i -> i + step)
-        .limit(len)
-        .filter(i -> i < len)
-        .mapToObj(i -> {
-          Leaf right = i + 1 < len ? createLeaf(hashList.get(i + 1)) : null;
-          return createLeaf(createLeaf(hashList.get(i)), right);
-        }).collect(Collectors.toList());
+  /**
+   * @return true if the leaf at index, among count leaves, has the branch to the root
+   */
+  public static boolean verify(Sha256Hash root, Sha256Hash leaf, int index, int count,
+      List<Sha256Hash> branch) {
+    if (index < 0 || index >= count) {
+      return false;
+    }
+    MessageDigest digest = Sha256Hash.newDigest();
+    byte[] hash = leaf.getBytes();
+    int used = 0;
+    while (count > 1) {
+      if ((index ^ 1) < count) {
+        if (used == branch.size()) {
+          return false;
+        }
+        byte[] sibling = branch.get(used++).getBytes();
+        digest.update((index & 1) == 0 ? hash : sibling);
+        digest.update((index & 1) == 0 ? sibling : hash);
+        hash = digest.digest();
+      }
+      count = (count + 1) >>> 1;
+      index >>>= 1;
+    }
+    return used == branch.size() && Arrays.equals(hash, root.getBytes());
   }
 
-  private Leaf createLeaf(Leaf left, Leaf right) {
-    Leaf leaf = new Leaf();
-    leaf.hash = right == null ? left.hash : computeHash(left.hash, right.hash);
-    leaf.left = left;
-    leaf.right = right;
-    this.leaves.add(leaf);
-    return leaf;
+  private static void checkLeaves(List<Sha256Hash> leaves) {
+    if (leaves.isEmpty()) {
+      throw new IllegalArgumentException("no leaves");
+    }
   }
 
-  private Leaf createLeaf(Sha256Hash hash) {
-    Leaf leaf = new Leaf();
-    leaf.hash = hash;
-    this.leaves.add(leaf);
-    return leaf;
+  private static byte[] flatten(List<Sha256Hash> leaves) {
+    byte[] level = new byte[leaves.size() * HASH_LENGTH];
+    for (int i = 0; i < leaves.size(); i++) {
+      System.arraycopy(leaves.get(i).getBytes(), 0, level, i * HASH_LENGTH, HASH_LENGTH);
+    }
+    return level;
   }
 
-  private Sha256Hash computeHash(Sha256Hash leftHash, Sha256Hash rightHash) {
-    return Sha256Hash.of(leftHash.getByteString().concat(rightHash.getByteString()).toByteArray());
+  /**
+   * @return the level above, in the same array when hashed on the calling thread: parent i is
+   *     written after its children 2i and 2i + 1 are read, no later child is before it
+   */
+  private static byte[] parents(byte[] level, int count) {
+    int pairs = count >>> 1;
+    byte[] parents;
+    if (pairs < PARALLEL_PAIRS) {
+      parents = level;
+      hashPairs(level, parents, 0, pairs);
+    } else {
+      parents = new byte[((count + 1) >>> 1) * HASH_LENGTH];
+      int tasks = (pairs + PAIRS_PER_TASK - 1) / PAIRS_PER_TASK;
+      IntStream.range(0, tasks).parallel().forEach(task -> hashPairs(level, parents,
+          task * PAIRS_PER_TASK, Math.min(pairs, (task + 1) * PAIRS_PER_TASK)));
+    }
+    if ((count & 1) != 0) {
+      System.arraycopy(level, (count - 1) * HASH_LENGTH, parents, pairs * HASH_LENGTH,
+          HASH_LENGTH);
+    }
+    return parents;
   }
 
-  @Getter
-  public class Leaf {
-
-    private Sha256Hash hash;
-    private Leaf left, right;
+  private static void hashPairs(byte[] level, byte[] parents, int from, int to) {
+    MessageDigest digest = Sha256Hash.newDigest();
+    try {
+      for (int i = from; i < to; i++) {
+        digest.update(level, 2 * i * HASH_LENGTH, 2 * HASH_LENGTH);
+        digest.digest(parents, i * HASH_LENGTH, HASH_LENGTH);
+      }
+    } catch (DigestException e) {
+      throw new IllegalStateException(e);
+    }
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,122 @@
+package org.unichain.core.capsule.utils;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.protobuf.ByteString;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.unichain.common.crypto.ECKey;
+import org.unichain.core.capsule.TransactionCapsule;
+import org.unichain.core.config.args.Args;
+import org.unichain.core.db.common.WrappedByteArray;
+
+import java.security.SignatureException;
+
+/**
+ * Signers recovered from transaction signatures, shared by every path that checks them (pending
+ * transactions, blocks, wallet apis), so a transaction seen in the pool is not recovered again when
+ * it comes back in a block as a new capsule.
+ *
+ * An entry is keyed by the raw data hash and the signature bytes and only holds what the recovery
+ * gives: the normalized signature and the address. Permissions and weights are checked by the callers
+ * against the accounts every time. Failed recoveries are not cached.
+ */
+@Slf4j(topic = "capsule")
+public class SignatureCache {
+
+  private static final long STATS_INTERVAL_MS = 60_000;
+
+  private static volatile SignatureCache instance;
+
+  // null when disabled
+  private final Cache<WrappedByteArray, Signer> cache;
+  private volatile long statsTime = System.currentTimeMillis();
+
+  public static class Signer {
+
+    /**
+     * Signature in base64 with v in [27, 30], the same for any encoding of v.
+     */
+    @Getter
+    private final String base64;
+    private final byte[] address;
+
+    private Signer(String base64, byte[] address) {
+      this.base64 = base64;
+      this.address = address;
+    }
+
+    public byte[] getAddress() {
+      return address.clone();
+    }
+  }
+
+  private SignatureCache(int maxSize) {
+    this.cache = maxSize <= 0 ? null : CacheBuilder.newBuilder()
+        .maximumSize(maxSize)
+        .recordStats()
+        .build();
+  }
+
+  public static SignatureCache getInstance() {
+    if (instance == null) {
+      synchronized (SignatureCache.class) {
+        if (instance == null) {
+          instance = new SignatureCache(Args.getInstance().getSignatureCacheSize());
+        }
+      }
+    }
+    return instance;
+  }
+
+  /**
+   * @param hash raw data hash the signature is over
+   * @param sig signature of at least 65 bytes
+   */
+  public Signer recover(byte[] hash, ByteString sig) throws SignatureException {
+    if (cache == null) {
+      return compute(hash, sig);
+    }
+    long now = System.currentTimeMillis();
+    if (now - statsTime >= STATS_INTERVAL_MS) {
+      statsTime = now;
+      logStats();
+    }
+
+    byte[] key = new byte[hash.length + sig.size()];
+    System.arraycopy(hash, 0, key, 0, hash.length);
+    sig.copyTo(key, hash.length);
+    WrappedByteArray wrapped = WrappedByteArray.of(key);
+
+    Signer signer = cache.getIfPresent(wrapped);
+    if (signer == null) {
+      signer = compute(hash, sig);
+      cache.put(wrapped, signer);
+    }
+    return signer;
+  }
+
+  private static Signer compute(byte[] hash, ByteString sig) throws SignatureException {
+    String base64 = TransactionCapsule.getBase64FromByteString(sig);
+    return new Signer(base64, ECKey.signatureToAddress(hash, base64));
+  }
+
+  public boolean isEnabled() {
+    return cache != null;
+  }
+
+  public double hitRate() {
+    return cache == null ? 0 : cache.stats().hitRate();
+  }
+
+  public CacheStats stats() {
+    return cache == null ? new CacheStats(0, 0, 0, 0, 0, 0) : cache.stats();
+  }
+
+  private void logStats() {
+    CacheStats stats = cache.stats();
+    logger.info("signature cache, size:{}, hit rate:{}, requests:{}, evictions:{}", cache.size(),
+        String.format("%.3f", stats.hitRate()), stats.requestCount(), stats.evictionCount());
+  }
+}
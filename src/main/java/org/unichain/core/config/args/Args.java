@@ -276,6 +276,14 @@ public class Args {
   @Parameter(names = {"--solidity-thread"}, description = "Num of solidity thread")
   private int solidityThreads;
 
+  @Getter
+  @Setter
+  private boolean solidityStreamBlocks;
+
+  @Getter
+  @Setter
+  private int solidityPrefetchBlocks;
+
   @Getter
   @Setter
   private int maxConcurrentCallsPerConnection;
@@ -313,6 +321,22 @@ public class Args {
   @Parameter(names = {"--validate-sign-thread"}, description = "Num of validate thread")
   private int validateSignThreadNum;
 
+  @Getter
+  @Setter
+  private int signatureCacheSize;
+
+  @Getter
+  @Setter
+  private boolean parallelTransactionPrecheck;
+
+  @Getter
+  @Setter
+  private boolean batchTransactionAdmission;
+
+  @Getter
+  @Setter
+  private boolean apiReadView;
+
   @Getter
   @Setter
   private long maintenanceTimeInterval; // (ms)
@@ -418,6 +442,30 @@ public class Args {
   @Setter
   private boolean needToUpdateAsset;
 
+  @Getter
+  @Setter
+  private boolean needToIndexTransactionPosition;
+
+  @Getter
+  @Setter
+  private boolean needToIndexRewardVi;
+
+  @Getter
+  @Setter
+  private boolean needToIndexTokenName;
+
+  @Getter
+  @Setter
+  private boolean needToIndexFutureDeal;
+
+  @Getter
+  @Setter
+  private boolean addressHistoryIndex;
+
+  @Getter
+  @Setter
+  private boolean needToIndexAddressHistory;
+
   @Getter
   @Setter
   private String unxReferenceBlock;
@@ -526,6 +574,8 @@ public class Args {
     INSTANCE.p2pNodeId = "";
     INSTANCE.solidityNode = false;
     INSTANCE.trustNodeAddr = "";
+    INSTANCE.batchTransactionAdmission = false;
+    INSTANCE.apiReadView = false;
     INSTANCE.walletExtensionApi = false;
     INSTANCE.connectFactor = 0.3;
     INSTANCE.activeConnectFactor = 0.1;
@@ -690,6 +740,11 @@ public class Args {
         .map(Boolean::valueOf)
         .orElse(Storage.getDbVersionSyncFromConfig(config)));
 
+    INSTANCE.storage.setSnapshotAsyncFlush(Storage.getSnapshotAsyncFlushFromConfig(config));
+    INSTANCE.storage.setCapsuleCacheSizes(Storage.getCapsuleCacheSizesFromConfig(config));
+    INSTANCE.storage.setPropertiesMirror(Storage.getPropertiesMirrorFromConfig(config));
+    INSTANCE.storage.setTrieNodeCacheSize(Storage.getTrieNodeCacheSizeFromConfig(config));
+
     INSTANCE.storage.setContractParseSwitch(Optional.ofNullable(INSTANCE.contractParseEnable)
         .filter(StringUtils::isNotEmpty)
         .map(Boolean::valueOf)
@@ -800,6 +855,12 @@ public class Args {
         config.hasPath("node.solidity.threads") ? config.getInt("node.solidity.threads")
             : Runtime.getRuntime().availableProcessors();
 
+    INSTANCE.solidityStreamBlocks =
+        config.hasPath("node.solidity.streamBlocks") ? config.getBoolean("node.solidity.streamBlocks") : true;
+
+    INSTANCE.solidityPrefetchBlocks =
+        config.hasPath("node.solidity.prefetchBlocks") ? config.getInt("node.solidity.prefetchBlocks") : 100;
+
     INSTANCE.maxConcurrentCallsPerConnection =
         config.hasPath("node.rpc.maxConcurrentCallsPerConnection") ?
             config.getInt("node.rpc.maxConcurrentCallsPerConnection") : Integer.MAX_VALUE;
@@ -894,6 +955,18 @@ public class Args {
     INSTANCE.validateSignThreadNum = config.hasPath("node.validateSignThreadNum") ? config
         .getInt("node.validateSignThreadNum") : Runtime.getRuntime().availableProcessors() / 2;
 
+    INSTANCE.signatureCacheSize = config.hasPath("node.signatureCacheSize") ? config
+        .getInt("node.signatureCacheSize") : 50_000;
+
+    INSTANCE.parallelTransactionPrecheck =
+        config.hasPath("node.parallelTransactionPrecheck") && config.getBoolean("node.parallelTransactionPrecheck");
+
+    INSTANCE.batchTransactionAdmission =
+        config.hasPath("node.batchTransactionAdmission") && config.getBoolean("node.batchTransactionAdmission");
+
+    INSTANCE.apiReadView =
+        config.hasPath("node.apiReadView") && config.getBoolean("node.apiReadView");
+
     INSTANCE.walletExtensionApi =
         config.hasPath("node.walletExtensionApi") && config.getBoolean("node.walletExtensionApi");
 
@@ -915,6 +988,27 @@ public class Args {
         config.hasPath("storage.needToUpdateAsset") ? config
             .getBoolean("storage.needToUpdateAsset")
             : true;
+    INSTANCE.needToIndexTransactionPosition =
+        config.hasPath("storage.needToIndexTransactionPosition") && config
+            .getBoolean("storage.needToIndexTransactionPosition");
+    INSTANCE.needToIndexRewardVi =
+        config.hasPath("storage.needToIndexRewardVi") ? config
+            .getBoolean("storage.needToIndexRewardVi")
+            : true;
+    INSTANCE.needToIndexTokenName =
+        config.hasPath("storage.needToIndexTokenName") && config
+            .getBoolean("storage.needToIndexTokenName");
+    INSTANCE.needToIndexFutureDeal =
+        config.hasPath("storage.needToIndexFutureDeal") && config
+            .getBoolean("storage.needToIndexFutureDeal");
+
+    INSTANCE.addressHistoryIndex =
+        config.hasPath("storage.addressHistoryIndex") && config
+            .getBoolean("storage.addressHistoryIndex");
+
+    INSTANCE.needToIndexAddressHistory =
+        config.hasPath("storage.needToIndexAddressHistory") && config
+            .getBoolean("storage.needToIndexAddressHistory");
     INSTANCE.unxReferenceBlock = config.hasPath("unx.reference.block") ?
         config.getString("unx.reference.block") : "head";
 
@@ -25,6 +25,7 @@ import org.iq80.leveldb.Options;
 import org.unichain.common.utils.FileUtil;
 
 import java.io.File;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -49,6 +50,10 @@ public class Storage {
   private static final String INDEX_SWITCH_CONFIG_KEY = "storage.index.switch";
   private static final String TRANSACTIONHISTORY_SWITCH_CONFIG_KEY = "storage.transHistory.switch";
   private static final String PROPERTIES_CONFIG_KEY = "storage.properties";
+  private static final String SNAPSHOT_ASYNC_FLUSH_CONFIG_KEY = "storage.snapshot.asyncFlush";
+  private static final String CAPSULE_CACHE_CONFIG_KEY = "storage.capsuleCache";
+  private static final String PROPERTIES_MIRROR_CONFIG_KEY = "storage.propertiesMirror";
+  private static final String TRIE_NODE_CACHE_CONFIG_KEY = "storage.trieNodeCache";
   private static final String DEFAULT_TRANSACTIONHISTORY_SWITCH = "on";
 
   private static final String NAME_CONFIG_KEY = "name";
@@ -69,6 +74,9 @@ public class Storage {
   private static final int DEFAULT_DB_VERSION = 2;
   private static final String DEFAULT_DB_ENGINE = "LEVELDB";
   private static final boolean DEFAULT_DB_SYNC = false;
+  private static final boolean DEFAULT_SNAPSHOT_ASYNC_FLUSH = false;
+  private static final boolean DEFAULT_PROPERTIES_MIRROR = true;
+  private static final int DEFAULT_TRIE_NODE_CACHE_SIZE = 100_000;
   private static final boolean DEFAULT_EVENT_SUBSCRIB_CONTRACT_PARSE = true;
   private static final String DEFAULT_DB_DIRECTORY = "database";
   private static final String DEFAULT_INDEX_DIRECTORY = "index";
@@ -105,6 +113,34 @@ public class Storage {
   @Setter
   private boolean dbSync;
 
+  /**
+   * Write the snapshot checkpoint and merge the flushed snapshots into the databases in the background
+   */
+  @Getter
+  @Setter
+  private boolean snapshotAsyncFlush;
+
+  /**
+   * Max decoded capsules cached per store, by db name
+   */
+  @Getter
+  @Setter
+  private Map<String, Integer> capsuleCacheSizes = new HashMap<>();
+
+  /**
+   * Keep the decoded head values of the dynamic properties in memory
+   */
+  @Getter
+  @Setter
+  private boolean propertiesMirror = DEFAULT_PROPERTIES_MIRROR;
+
+  /**
+   * Max decoded nodes of the account state trie kept across blocks
+   */
+  @Getter
+  @Setter
+  private int trieNodeCacheSize = DEFAULT_TRIE_NODE_CACHE_SIZE;
+
   /**
    * Index storage directory: /path/to/{indexDirectory}
    */
@@ -156,6 +192,34 @@ public class Storage {
         config.getBoolean(DB_SYNC_CONFIG_KEY) : DEFAULT_DB_SYNC;
   }
 
+  public static boolean getSnapshotAsyncFlushFromConfig(final Config config) {
+    return config.hasPath(SNAPSHOT_ASYNC_FLUSH_CONFIG_KEY) ?
+        config.getBoolean(SNAPSHOT_ASYNC_FLUSH_CONFIG_KEY) : DEFAULT_SNAPSHOT_ASYNC_FLUSH;
+  }
+
+  public static Map<String, Integer> getCapsuleCacheSizesFromConfig(final Config config) {
+    Map<String, Integer> sizes = new HashMap<>();
+    if (config.hasPath(CAPSULE_CACHE_CONFIG_KEY)) {
+      config.getObject(CAPSULE_CACHE_CONFIG_KEY)
+          .forEach((name, value) -> sizes.put(name, ((Number) value.unwrapped()).intValue()));
+    }
+    return sizes;
+  }
+
+  public static boolean getPropertiesMirrorFromConfig(final Config config) {
+    return config.hasPath(PROPERTIES_MIRROR_CONFIG_KEY) ?
+        config.getBoolean(PROPERTIES_MIRROR_CONFIG_KEY) : DEFAULT_PROPERTIES_MIRROR;
+  }
+
+  public static int getTrieNodeCacheSizeFromConfig(final Config config) {
+    return config.hasPath(TRIE_NODE_CACHE_CONFIG_KEY) ?
+        config.getInt(TRIE_NODE_CACHE_CONFIG_KEY) : DEFAULT_TRIE_NODE_CACHE_SIZE;
+  }
+
+  public int getCapsuleCacheSize(String dbName) {
+    return capsuleCacheSizes.getOrDefault(dbName, 0);
+  }
+
   public static Boolean getContractParseSwitchFromConfig(final Config config) {
     return config.hasPath(EVENT_SUBSCRIB_CONTRACT_PARSE) ?
         config.getBoolean(EVENT_SUBSCRIB_CONTRACT_PARSE) : DEFAULT_EVENT_SUBSCRIB_CONTRACT_PARSE;
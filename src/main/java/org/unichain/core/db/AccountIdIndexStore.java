@@ -16,7 +16,7 @@ public class AccountIdIndexStore extends UnichainStoreWithRevoking<BytesCapsule>
 
   @Autowired
   public AccountIdIndexStore(@Value("accountid-index") String dbName) {
-    super(dbName);
+    super(dbName, BytesCapsule::new);
   }
 
   public void put(AccountCapsule accountCapsule) {
@@ -15,7 +15,7 @@ public class AccountIndexStore extends UnichainStoreWithRevoking<BytesCapsule> {
 
   @Autowired
   public AccountIndexStore(@Value("account-index") String dbName) {
-    super(dbName);
+    super(dbName, BytesCapsule::new);
   }
 
   public void put(AccountCapsule accountCapsule) {
@@ -10,6 +10,7 @@ import org.unichain.core.Wallet;
 import org.unichain.core.capsule.AccountCapsule;
 import org.unichain.core.db.accountstate.callback.AccountStateCallBack;
 import org.unichain.core.db.accountstate.storetrie.AccountStateStoreTrie;
+import org.unichain.protos.Protocol.Account;
 
 import java.util.HashMap;
 import java.util.List;
@@ -29,13 +30,14 @@ public class AccountStore extends UnichainStoreWithRevoking<AccountCapsule> {
 
   @Autowired
   private AccountStore(@Value("account") String dbName) {
-    super(dbName);
+    super(dbName, AccountCapsule::new);
+    enableCapsuleCache(Account.class, AccountCapsule::new);
   }
 
   @Override
   public AccountCapsule get(byte[] key) {
     byte[] value = revokingDB.getUnchecked(key);
-    return ArrayUtils.isEmpty(value) ? null : new AccountCapsule(value);
+    return ArrayUtils.isEmpty(value) ? null : ofUnchecked(key, value);
   }
 
   @Override
@@ -0,0 +1,172 @@
+package org.unichain.core.db;
+
+import com.google.common.primitives.Bytes;
+import com.google.common.primitives.Ints;
+import com.google.common.primitives.Longs;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.ArrayUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.unichain.common.utils.ByteArray;
+import org.unichain.core.capsule.BytesCapsule;
+import org.unichain.core.capsule.TransactionCapsule;
+import org.unichain.core.config.args.Args;
+import org.unichain.core.db.common.WrappedByteArray;
+import org.unichain.protos.Protocol.Transaction;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Transactions of an address in chain order, one entry per (address, direction, block number,
+ * index in the block) with the transaction id as value. Written while the blocks are applied, so
+ * entries of blocks popped on a fork switch are revoked with them.
+ *
+ * Pages are cut by key: a page starts after the position of the last entry of the previous one,
+ * whatever was indexed in between, and only the entries of the page are read.
+ */
+@Slf4j(topic = "DB")
+@Component
+public class AddressHistoryStore extends UnichainStoreWithRevoking<BytesCapsule> {
+
+  public static final byte FROM = 0;
+  public static final byte TO = 1;
+
+  // blockNum(8) + index(4)
+  public static final int CURSOR_LENGTH = 12;
+
+  // first block indexed, the blocks before were applied with the index disabled
+  private static final byte[] FIRST_BLOCK_KEY = {0};
+
+  @Getter
+  private final boolean enabled = Args.getInstance().isAddressHistoryIndex();
+
+  @Getter
+  public static class Entry {
+
+    private final long blockNum;
+    private final int index;
+    private final byte[] transactionId;
+
+    private Entry(long blockNum, int index, byte[] transactionId) {
+      this.blockNum = blockNum;
+      this.index = index;
+      this.transactionId = transactionId;
+    }
+
+    /**
+     * @return cursor of the pages after or before this entry
+     */
+    public byte[] getCursor() {
+      return cursor(blockNum, index);
+    }
+  }
+
+  @Autowired
+  protected AddressHistoryStore(@Value("address-history") String dbName) {
+    super(dbName, BytesCapsule::new);
+  }
+
+  @Override
+  public BytesCapsule get(byte[] key) {
+    byte[] value = revokingDB.getUnchecked(key);
+    return ArrayUtils.isEmpty(value) ? null : new BytesCapsule(value);
+  }
+
+  /**
+   * @return first block of the history, -1 if nothing was indexed
+   */
+  public long getFirstBlockNum() {
+    BytesCapsule bytesCapsule = get(FIRST_BLOCK_KEY);
+    return bytesCapsule == null ? -1 : ByteArray.toLong(bytesCapsule.getData());
+  }
+
+  public void saveFirstBlockNum(long blockNum) {
+    put(FIRST_BLOCK_KEY, new BytesCapsule(ByteArray.fromLong(blockNum)));
+  }
+
+  /**
+   * Index the owner and to addresses of the contracts of a transaction applied in a block.
+   */
+  public void index(long blockNum, int index, TransactionCapsule transaction) {
+    byte[] id = transaction.getTransactionId().getBytes();
+    Set<WrappedByteArray> indexed = new HashSet<>();
+    for (Transaction.Contract contract : transaction.getInstance().getRawData().getContractList()) {
+      put(indexed, TransactionCapsule.getOwner(contract), FROM, blockNum, index, id);
+      put(indexed, TransactionCapsule.getToAddress(contract), TO, blockNum, index, id);
+    }
+  }
+
+  private void put(Set<WrappedByteArray> indexed, byte[] address, byte direction, long blockNum,
+      int index, byte[] id) {
+    if (ArrayUtils.isEmpty(address) || address.length > Byte.MAX_VALUE) {
+      return;
+    }
+    byte[] key = Bytes.concat(prefix(address, direction), cursor(blockNum, index));
+    if (indexed.add(WrappedByteArray.of(key))) {
+      put(key, new BytesCapsule(id));
+    }
+  }
+
+  /**
+   * @param cursor position to start after, from the first (or last) entry if empty
+   * @param ascending oldest first, newest first otherwise
+   */
+  public List<Entry> getHistory(byte[] address, byte direction, byte[] cursor, int limit,
+      boolean ascending) {
+    if (ArrayUtils.isEmpty(address) || address.length > Byte.MAX_VALUE || limit <= 0) {
+      return new ArrayList<>();
+    }
+    byte[] prefix = prefix(address, direction);
+    boolean hasCursor = !ArrayUtils.isEmpty(cursor);
+    if (hasCursor && cursor.length != CURSOR_LENGTH) {
+      throw new IllegalArgumentException("cursor must be " + CURSOR_LENGTH + " bytes");
+    }
+    byte[] start;
+    if (hasCursor) {
+      start = Bytes.concat(prefix, cursor);
+    } else if (ascending) {
+      start = prefix;
+    } else {
+      start = Bytes.concat(prefix, cursor(-1L, -1));
+    }
+    // one more for the entry at the cursor, not part of the page
+    long window = hasCursor ? limit + 1L : limit;
+    List<Map.Entry<byte[], byte[]>> entries = ascending
+        ? revokingDB.getEntriesNext(start, window)
+        : revokingDB.getEntriesPrevious(start, window);
+
+    List<Entry> history = new ArrayList<>(limit);
+    for (Map.Entry<byte[], byte[]> e : entries) {
+      byte[] key = e.getKey();
+      if (key.length != prefix.length + CURSOR_LENGTH
+          || !Arrays.equals(Arrays.copyOf(key, prefix.length), prefix)) {
+        break;
+      }
+      if (hasCursor && Arrays.equals(key, start)) {
+        continue;
+      }
+      if (history.size() == limit) {
+        break;
+      }
+      ByteBuffer buffer = ByteBuffer.wrap(key, prefix.length, CURSOR_LENGTH);
+      history.add(new Entry(buffer.getLong(), buffer.getInt(), e.getValue()));
+    }
+    return history;
+  }
+
+  public static byte[] cursor(long blockNum, int index) {
+    return Bytes.concat(Longs.toByteArray(blockNum), Ints.toByteArray(index));
+  }
+
+  private static byte[] prefix(byte[] address, byte direction) {
+    return Bytes.concat(new byte[]{(byte) address.length}, address, new byte[]{direction});
+  }
+}
@@ -18,7 +18,7 @@ public class BlockIndexStore extends UnichainStoreWithRevoking<BytesCapsule> {
 
   @Autowired
   public BlockIndexStore(@Value("block-index") String dbName) {
-    super(dbName);
+    super(dbName, BytesCapsule::new);
 
   }
 
@@ -35,7 +35,14 @@ public class BlockStore extends UnichainStoreWithRevoking<BlockCapsule> {
 
   @Autowired
   private BlockStore(@Value("block") String dbName) {
-    super(dbName);
+    super(dbName, BlockCapsule::new);
+  }
+
+  /**
+   * Serialized block as stored, without decoding it.
+   */
+  public byte[] getBytes(byte[] blockId) {
+    return revokingDB.getUnchecked(blockId);
   }
 
   public List<BlockCapsule> getLimitNumber(long startNumber, long limit) {
@@ -0,0 +1,114 @@
+package org.unichain.core.db;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.unichain.core.db.common.WrappedByteArray;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Decoded values of a store by key, so a hot value read again is not parsed again.
+ *
+ * Only the protobuf message is kept, it is immutable; every read gets a new capsule around it, the
+ * capsules handed out are changed by their callers. An entry keeps the bytes it was decoded from and is
+ * only used for a read of the same bytes, so writes through the snapshots and reverts of them never
+ * serve a stale value, whichever path wrote them.
+ */
+@Slf4j(topic = "DB")
+class CapsuleCache<T> {
+
+  private static final long STATS_INTERVAL_MS = 60_000;
+
+  private final String dbName;
+  private final Function<Object, T> wrap;
+  private final Cache<WrappedByteArray, Entry> cache;
+  // entries found for other bytes, counted as hits by the cache
+  private final LongAdder staleCount = new LongAdder();
+  private volatile long statsTime = System.currentTimeMillis();
+
+  private static class Entry {
+
+    private final byte[] data;
+    private final Object instance;
+
+    private Entry(byte[] data, Object instance) {
+      this.data = data;
+      this.instance = instance;
+    }
+  }
+
+  /**
+   * @param wrap new capsule of a decoded message
+   */
+  CapsuleCache(String dbName, int maxSize, Function<Object, T> wrap) {
+    this.dbName = dbName;
+    this.wrap = wrap;
+    this.cache = CacheBuilder.newBuilder()
+        .maximumSize(maxSize)
+        .recordStats()
+        .build();
+  }
+
+  /**
+   * @return capsule of the value, null if the value is not the one cached
+   */
+  T get(byte[] key, byte[] data) {
+    long now = System.currentTimeMillis();
+    if (now - statsTime >= STATS_INTERVAL_MS) {
+      statsTime = now;
+      logStats();
+    }
+    Entry entry = cache.getIfPresent(WrappedByteArray.of(key));
+    if (entry == null) {
+      return null;
+    }
+    if (!Arrays.equals(entry.data, data)) {
+      staleCount.increment();
+      return null;
+    }
+    return wrap.apply(entry.instance);
+  }
+
+  /**
+   * @param data stored bytes, not changed afterwards
+   */
+  void put(byte[] key, byte[] data, Object instance) {
+    if (data == null || instance == null) {
+      invalidate(key);
+      return;
+    }
+    cache.put(WrappedByteArray.copyOf(key), new Entry(data, instance));
+  }
+
+  void invalidate(byte[] key) {
+    cache.invalidate(WrappedByteArray.of(key));
+  }
+
+  CacheStats stats() {
+    return cache.stats();
+  }
+
+  /**
+   * Reads served from the cache, entries found for other bytes are misses.
+   */
+  double hitRate() {
+    CacheStats stats = cache.stats();
+    long requests = stats.requestCount();
+    return requests == 0 ? 1.0 : (double) (stats.hitCount() - staleCount.sum()) / requests;
+  }
+
+  long staleCount() {
+    return staleCount.sum();
+  }
+
+  void logStats() {
+    CacheStats stats = cache.stats();
+    logger.info("capsule cache of {}, size:{}, hit rate:{}, requests:{}, stale:{}, evictions:{}",
+        dbName, cache.size(), String.format("%.3f", hitRate()), stats.requestCount(),
+        staleCount.sum(), stats.evictionCount());
+  }
+}
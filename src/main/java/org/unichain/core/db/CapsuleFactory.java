@@ -0,0 +1,12 @@
+package org.unichain.core.db;
+
+import org.unichain.core.exception.BadItemException;
+
+/**
+ * Decodes the stored bytes of a store into its capsule, usually the byte[] constructor of the capsule.
+ */
+@FunctionalInterface
+public interface CapsuleFactory<T> {
+
+  T create(byte[] data) throws BadItemException;
+}
@@ -13,7 +13,7 @@ public class CodeStore extends UnichainStoreWithRevoking<CodeCapsule> {
 
   @Autowired
   private CodeStore(@Value("code") String dbName) {
-    super(dbName);
+    super(dbName, CodeCapsule::new);
   }
 
   @Override
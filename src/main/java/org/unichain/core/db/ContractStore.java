@@ -15,7 +15,7 @@ public class ContractStore extends UnichainStoreWithRevoking<ContractCapsule> {
 
   @Autowired
   private ContractStore(@Value("contract") String dbName) {
-    super(dbName);
+    super(dbName, ContractCapsule::new);
   }
 
   @Override
@@ -12,7 +12,7 @@ public class DelegatedResourceAccountIndexStore extends
 
   @Autowired
   public DelegatedResourceAccountIndexStore(@Value("DelegatedResourceAccountIndex") String dbName) {
-    super(dbName);
+    super(dbName, DelegatedResourceAccountIndexCapsule::new);
   }
 
   @Override
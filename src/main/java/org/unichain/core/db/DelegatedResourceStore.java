@@ -15,7 +15,7 @@ public class DelegatedResourceStore extends UnichainStoreWithRevoking<DelegatedR
 
   @Autowired
   public DelegatedResourceStore(@Value("DelegatedResource") String dbName) {
-    super(dbName);
+    super(dbName, DelegatedResourceCapsule::new);
   }
 
   @Override
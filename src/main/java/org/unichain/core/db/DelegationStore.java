@@ -9,15 +9,18 @@ import org.unichain.common.utils.ByteArray;
 import org.unichain.core.capsule.AccountCapsule;
 import org.unichain.core.capsule.BytesCapsule;
 
+import java.math.BigInteger;
+
 @Component
 public class DelegationStore extends UnichainStoreWithRevoking<BytesCapsule> {
 
   public static final long REMARK = -1L;
   public static final int DEFAULT_BROKERAGE = 40;
+  public static final BigInteger DECIMAL_OF_VI_REWARD = BigInteger.valueOf(10).pow(18);
 
   @Autowired
   public DelegationStore(@Value("delegation") String dbName) {
-    super(dbName);
+    super(dbName, BytesCapsule::new);
   }
 
   @Override
@@ -46,6 +49,36 @@ public class DelegationStore extends UnichainStoreWithRevoking<BytesCapsule> {
     }
   }
 
+  /**
+   * Accumulated reward per vote of a witness over cycles [0, cycle], scaled by DECIMAL_OF_VI_REWARD:
+   * the reward of a vote over cycles [begin, end) is vote * (vi(end - 1) - vi(begin - 1)).
+   */
+  public void setWitnessVi(long cycle, byte[] address, BigInteger value) {
+    put(buildViKey(cycle, address), new BytesCapsule(value.toByteArray()));
+  }
+
+  public BigInteger getWitnessVi(long cycle, byte[] address) {
+    BytesCapsule bytesCapsule = get(buildViKey(cycle, address));
+    if (bytesCapsule == null) {
+      return BigInteger.ZERO;
+    } else {
+      return new BigInteger(bytesCapsule.getData());
+    }
+  }
+
+  /**
+   * Close the vi of a witness for a finished cycle, its reward and vote are final.
+   */
+  public void accumulateWitnessVi(long cycle, byte[] address) {
+    BigInteger vi = getWitnessVi(cycle - 1, address);
+    long totalVote = getWitnessVote(cycle, address);
+    if (totalVote != REMARK && totalVote != 0) {
+      vi = vi.add(BigInteger.valueOf(getReward(cycle, address)).multiply(DECIMAL_OF_VI_REWARD)
+          .divide(BigInteger.valueOf(totalVote)));
+    }
+    setWitnessVi(cycle, address, vi);
+  }
+
   public void setBeginCycle(byte[] address, long number) {
     put(address, new BytesCapsule(ByteArray.fromLong(number)));
   }
@@ -119,6 +152,10 @@ public class DelegationStore extends UnichainStoreWithRevoking<BytesCapsule> {
     return (cycle + "-" + Hex.toHexString(address) + "-reward").getBytes();
   }
 
+  private byte[] buildViKey(long cycle, byte[] address) {
+    return (cycle + "-" + Hex.toHexString(address) + "-vi").getBytes();
+  }
+
   private byte[] buildAccountVoteKey(long cycle, byte[] address) {
     return (cycle + "-" + Hex.toHexString(address) + "-account-vote").getBytes();
   }
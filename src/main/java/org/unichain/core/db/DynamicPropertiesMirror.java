@@ -0,0 +1,120 @@
+package org.unichain.core.db;
+
+import org.unichain.common.utils.ByteArray;
+import org.unichain.core.db.common.WrappedByteArray;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Decoded head values of the dynamic properties, one slot per property key, so a getter is a map probe
+ * by identity and a field load instead of a walk of the snapshots, a capsule and a decode.
+ *
+ * A value is valid for the revision of the revoking db it was read at: the revision changes when layers
+ * of the head are dropped (revoke of a failed transaction, pop of a fork switch) or the db is reset.
+ * Writes through the store replace the value of their slot, reads fill a slot only if no write raced them.
+ */
+class DynamicPropertiesMirror {
+
+  static final class Entry {
+
+    private final long revision;
+    private final byte[] data;
+    private final long value;
+
+    private Entry(long revision, byte[] data) {
+      this.revision = revision;
+      this.data = data;
+      this.value = data == null || data.length > Long.BYTES ? 0 : ByteArray.toLong(data);
+    }
+
+    boolean isPresent() {
+      return data != null;
+    }
+
+    /**
+     * @return the stored bytes, not to be changed
+     */
+    byte[] getData() {
+      return data;
+    }
+
+    long getLong() {
+      return data.length > Long.BYTES ? ByteArray.toLong(data) : value;
+    }
+  }
+
+  // filled once, only the slots change afterwards
+  private final Map<byte[], AtomicReference<Entry>> slots = new IdentityHashMap<>();
+  // same slots by content, for writes made with a copy of a key (vm deposits)
+  private final Map<WrappedByteArray, AtomicReference<Entry>> slotsByContent = new HashMap<>();
+
+  /**
+   * @param holders classes declaring the property keys as static final byte[] fields
+   */
+  DynamicPropertiesMirror(Class<?>... holders) {
+    for (Class<?> holder : holders) {
+      for (Field field : holder.getDeclaredFields()) {
+        int modifiers = field.getModifiers();
+        if (!Modifier.isStatic(modifiers) || !Modifier.isFinal(modifiers) || field.getType() != byte[].class) {
+          continue;
+        }
+        try {
+          field.setAccessible(true);
+          byte[] key = (byte[]) field.get(null);
+          AtomicReference<Entry> slot = slotsByContent.computeIfAbsent(WrappedByteArray.of(key),
+              k -> new AtomicReference<>());
+          slots.put(key, slot);
+        } catch (IllegalAccessException e) {
+          throw new IllegalStateException("can not read property key " + field.getName(), e);
+        }
+      }
+    }
+  }
+
+  /**
+   * @return slot of a property key constant, null for any other key
+   */
+  AtomicReference<Entry> slot(byte[] key) {
+    return slots.get(key);
+  }
+
+  /**
+   * @return slot of any array holding a property key, null for any other key
+   */
+  AtomicReference<Entry> slotOf(byte[] key) {
+    AtomicReference<Entry> slot = slots.get(key);
+    return slot != null ? slot : slotsByContent.get(WrappedByteArray.of(key));
+  }
+
+  /**
+   * @return entry of the slot if read at this revision, null otherwise
+   */
+  static Entry get(AtomicReference<Entry> slot, long revision) {
+    Entry entry = slot.get();
+    return entry != null && entry.revision == revision ? entry : null;
+  }
+
+  /**
+   * Fill the slot with a value read from the db, unless it changed since {@code expected} was seen.
+   *
+   * @param revision revision of the db seen before the value was read
+   */
+  static Entry fill(AtomicReference<Entry> slot, Entry expected, long revision, byte[] data) {
+    Entry entry = new Entry(revision, data);
+    slot.compareAndSet(expected, entry);
+    return entry;
+  }
+
+  static void write(AtomicReference<Entry> slot, long revision, byte[] data) {
+    slot.set(new Entry(revision, data));
+  }
+
+  void clear() {
+    slotsByContent.values().forEach(slot -> slot.set(null));
+  }
+}
@@ -12,9 +12,14 @@ import org.unichain.core.capsule.BytesCapsule;
 import org.unichain.core.config.Parameter;
 import org.unichain.core.config.Parameter.ChainConstant;
 import org.unichain.core.config.args.Args;
+import org.unichain.core.db.DynamicPropertiesMirror.Entry;
+import org.unichain.core.db2.core.RevokingDBWithCachingNewValue;
 
 import java.util.Arrays;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 import java.util.stream.IntStream;
 
 @Slf4j(topic = "DB")
@@ -155,6 +160,18 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   //Used only for token updates, once，value is {0,1}
   private static final byte[] TOKEN_UPDATE_DONE = "TOKEN_UPDATE_DONE".getBytes();
 
+  //Used only for backfilling the trans position index, once, value is {0,1}
+  private static final byte[] TRANSACTION_POSITION_INDEX_DONE = "TRANSACTION_POSITION_INDEX_DONE".getBytes();
+
+  //Used only for backfilling the witness reward vi of past cycles, once, value is {0,1}
+  private static final byte[] REWARD_VI_INDEX_DONE = "REWARD_VI_INDEX_DONE".getBytes();
+
+  //Used only for backfilling the token name index of the token pool, once, value is {0,1}
+  private static final byte[] TOKEN_NAME_INDEX_DONE = "TOKEN_NAME_INDEX_DONE".getBytes();
+
+  //Used only for backfilling the positional index of the future deal chains, once, value is {0,1}
+  private static final byte[] FUTURE_DEAL_INDEX_DONE = "FUTURE_DEAL_INDEX_DONE".getBytes();
+
   //This value is only allowed to be 0, 1, -1
   private static final byte[] ALLOW_TVM_TRANSFER_UNC = "ALLOW_TVM_TRANSFER_UNC".getBytes();
   private static final byte[] ALLOW_TVM_CONSTANTINOPLE = "ALLOW_TVM_CONSTANTINOPLE".getBytes();
@@ -172,14 +189,28 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
 
   private static final byte[] CURRENT_CYCLE_NUMBER = "CURRENT_CYCLE_NUMBER".getBytes();
   private static final byte[] CHANGE_DELEGATION = "CHANGE_DELEGATION".getBytes();
+  //first cycle whose delegation reward is computed from the witness vi
+  private static final byte[] NEW_REWARD_ALGORITHM_EFFECTIVE_CYCLE = "NEW_REWARD_ALGORITHM_EFFECTIVE_CYCLE".getBytes();
 
   //Future transfer unw/token
   private static final byte[] MAX_FUTURE_TRANSFER_TIME_RANGE_UNW = "MAX_FUTURE_TRANSFER_TIME_RANGE_UNW".getBytes();
   private static final byte[] MAX_FUTURE_TRANSFER_TIME_RANGE_TOKEN = "MAX_FUTURE_TRANSFER_TIME_RANGE_TOKEN".getBytes();
 
+  // decoded head values of the property keys above, null with the old revoking db or when turned off
+  private final DynamicPropertiesMirror mirror;
+  private final RevokingDBWithCachingNewValue headDb;
+
   @Autowired
   private DynamicPropertiesStore(@Value("properties") String dbName) {
-    super(dbName);
+    super(dbName, BytesCapsule::new);
+    if (Args.getInstance().getStorage().isPropertiesMirror()
+        && revokingDB instanceof RevokingDBWithCachingNewValue) {
+      this.headDb = (RevokingDBWithCachingNewValue) revokingDB;
+      this.mirror = new DynamicPropertiesMirror(DynamicPropertiesStore.class, DynamicResourceProperties.class);
+    } else {
+      this.headDb = null;
+      this.mirror = null;
+    }
 
     try {
       this.getTotalSignNum();
@@ -253,6 +284,30 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
       this.saveTokenUpdateDone(0);
     }
 
+    try {
+      this.getTransactionPositionIndexDone();
+    } catch (IllegalArgumentException e) {
+      this.saveTransactionPositionIndexDone(0);
+    }
+
+    try {
+      this.getRewardViIndexDone();
+    } catch (IllegalArgumentException e) {
+      this.saveRewardViIndexDone(0);
+    }
+
+    try {
+      this.getTokenNameIndexDone();
+    } catch (IllegalArgumentException e) {
+      this.saveTokenNameIndexDone(0);
+    }
+
+    try {
+      this.getFutureDealIndexDone();
+    } catch (IllegalArgumentException e) {
+      this.saveFutureDealIndexDone(0);
+    }
+
     try {
       this.getMaxFrozenTime();
     } catch (IllegalArgumentException e) {
@@ -644,6 +699,115 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
     return result;
   }
 
+  @Override
+  public void put(byte[] key, BytesCapsule item) {
+    if (Objects.isNull(key) || Objects.isNull(item)) {
+      return;
+    }
+    super.put(key, item);
+    AtomicReference<Entry> slot = writtenSlot(key);
+    if (slot != null) {
+      byte[] data = item.getData();
+      DynamicPropertiesMirror.write(slot, headDb.getRevision(), data == null ? null : data.clone());
+    }
+  }
+
+  @Override
+  public void delete(byte[] key) {
+    super.delete(key);
+    AtomicReference<Entry> slot = writtenSlot(key);
+    if (slot != null) {
+      DynamicPropertiesMirror.write(slot, headDb.getRevision(), null);
+    }
+  }
+
+  @Override
+  public BytesCapsule getUnchecked(byte[] key) {
+    Entry entry = mirrored(key);
+    if (entry == null) {
+      return super.getUnchecked(key);
+    }
+    return new BytesCapsule(entry.isPresent() ? entry.getData().clone() : null);
+  }
+
+  @Override
+  public void reset() {
+    super.reset();
+    if (mirror != null) {
+      mirror.clear();
+    }
+  }
+
+  /**
+   * @return slot of a property key if the calling thread reads and writes the head
+   */
+  private AtomicReference<Entry> headSlot(byte[] key) {
+    if (mirror == null || !RevokingDBWithCachingNewValue.isHeadRead()) {
+      return null;
+    }
+    return mirror.slot(key);
+  }
+
+  private AtomicReference<Entry> writtenSlot(byte[] key) {
+    if (mirror == null) {
+      return null;
+    }
+    AtomicReference<Entry> slot = mirror.slotOf(key);
+    if (slot != null && !RevokingDBWithCachingNewValue.isHeadRead()) {
+      // written under the head, the revision of the db changed already
+      slot.set(null);
+      return null;
+    }
+    return slot;
+  }
+
+  /**
+   * @return head value of a property key from the mirror, filled on a miss; null if not mirrored
+   */
+  private Entry mirrored(byte[] key) {
+    AtomicReference<Entry> slot = headSlot(key);
+    if (slot == null) {
+      return null;
+    }
+    Entry expected = slot.get();
+    // the revision is read before the value, a value read across a revert is never used
+    long revision = headDb.getRevision();
+    Entry entry = DynamicPropertiesMirror.get(slot, revision);
+    if (entry != null) {
+      return entry;
+    }
+    return DynamicPropertiesMirror.fill(slot, expected, revision, revokingDB.getUnchecked(key));
+  }
+
+  private long getLong(byte[] key, Supplier<IllegalArgumentException> notFound) {
+    Entry entry = mirrored(key);
+    if (entry == null) {
+      return Optional.ofNullable(super.getUnchecked(key))
+          .map(BytesCapsule::getData)
+          .map(ByteArray::toLong)
+          .orElseThrow(notFound);
+    }
+    if (!entry.isPresent()) {
+      throw notFound.get();
+    }
+    return entry.getLong();
+  }
+
+  private long getLong(byte[] key, long defaultValue) {
+    Entry entry = mirrored(key);
+    if (entry == null) {
+      return Optional.ofNullable(super.getUnchecked(key))
+          .map(BytesCapsule::getData)
+          .map(ByteArray::toLong)
+          .orElse(defaultValue);
+    }
+    return entry.isPresent() ? entry.getLong() : defaultValue;
+  }
+
+  private int getInt(byte[] key, Supplier<IllegalArgumentException> notFound) {
+    return (int) getLong(key, notFound);
+  }
+
 
   public void saveTokenIdNum(long num) {
     this.put(TOKEN_ID_NUM,
@@ -651,11 +815,7 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getTokenIdNum() {
-    return Optional.ofNullable(getUnchecked(TOKEN_ID_NUM))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found TOKEN_ID_NUM"));
+    return getLong(TOKEN_ID_NUM, () -> new IllegalArgumentException("not found TOKEN_ID_NUM"));
   }
 
   public void saveTokenUpdateDone(long num) {
@@ -664,11 +824,48 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getTokenUpdateDone() {
-    return Optional.ofNullable(getUnchecked(TOKEN_UPDATE_DONE))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found TOKEN_UPDATE_DONE"));
+    return getLong(TOKEN_UPDATE_DONE,
+        () -> new IllegalArgumentException("not found TOKEN_UPDATE_DONE"));
+  }
+
+  public void saveTransactionPositionIndexDone(long num) {
+    this.put(TRANSACTION_POSITION_INDEX_DONE,
+        new BytesCapsule(ByteArray.fromLong(num)));
+  }
+
+  public long getTransactionPositionIndexDone() {
+    return getLong(TRANSACTION_POSITION_INDEX_DONE,
+        () -> new IllegalArgumentException("not found TRANSACTION_POSITION_INDEX_DONE"));
+  }
+
+  public void saveRewardViIndexDone(long num) {
+    this.put(REWARD_VI_INDEX_DONE,
+        new BytesCapsule(ByteArray.fromLong(num)));
+  }
+
+  public long getRewardViIndexDone() {
+    return getLong(REWARD_VI_INDEX_DONE,
+        () -> new IllegalArgumentException("not found REWARD_VI_INDEX_DONE"));
+  }
+
+  public void saveTokenNameIndexDone(long num) {
+    this.put(TOKEN_NAME_INDEX_DONE,
+        new BytesCapsule(ByteArray.fromLong(num)));
+  }
+
+  public long getTokenNameIndexDone() {
+    return getLong(TOKEN_NAME_INDEX_DONE,
+        () -> new IllegalArgumentException("not found TOKEN_NAME_INDEX_DONE"));
+  }
+
+  public void saveFutureDealIndexDone(long num) {
+    this.put(FUTURE_DEAL_INDEX_DONE,
+        new BytesCapsule(ByteArray.fromLong(num)));
+  }
+
+  public long getFutureDealIndexDone() {
+    return getLong(FUTURE_DEAL_INDEX_DONE,
+        () -> new IllegalArgumentException("not found FUTURE_DEAL_INDEX_DONE"));
   }
 
 
@@ -679,11 +876,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public int getBlockFilledSlotsIndex() {
-    return Optional.ofNullable(getUnchecked(BLOCK_FILLED_SLOTS_INDEX))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toInt)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found BLOCK_FILLED_SLOTS_INDEX"));
+    return getInt(BLOCK_FILLED_SLOTS_INDEX,
+        () -> new IllegalArgumentException("not found BLOCK_FILLED_SLOTS_INDEX"));
   }
 
   public void saveMaxFrozenTime(int maxFrozenTime) {
@@ -693,11 +887,7 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public int getMaxFrozenTime() {
-    return Optional.ofNullable(getUnchecked(MAX_FROZEN_TIME))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toInt)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found MAX_FROZEN_TIME"));
+    return getInt(MAX_FROZEN_TIME, () -> new IllegalArgumentException("not found MAX_FROZEN_TIME"));
   }
 
   public void saveMinFrozenTime(int minFrozenTime) {
@@ -707,11 +897,7 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public int getMinFrozenTime() {
-    return Optional.ofNullable(getUnchecked(MIN_FROZEN_TIME))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toInt)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found MIN_FROZEN_TIME"));
+    return getInt(MIN_FROZEN_TIME, () -> new IllegalArgumentException("not found MIN_FROZEN_TIME"));
   }
 
   public void saveMaxFrozenSupplyNumber(int maxFrozenSupplyNumber) {
@@ -721,11 +907,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public int getMaxFrozenSupplyNumber() {
-    return Optional.ofNullable(getUnchecked(MAX_FROZEN_SUPPLY_NUMBER))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toInt)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found MAX_FROZEN_SUPPLY_NUMBER"));
+    return getInt(MAX_FROZEN_SUPPLY_NUMBER,
+        () -> new IllegalArgumentException("not found MAX_FROZEN_SUPPLY_NUMBER"));
   }
 
   public void saveMaxFrozenSupplyTime(int maxFrozenSupplyTime) {
@@ -735,11 +918,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public int getMaxFrozenSupplyTime() {
-    return Optional.ofNullable(getUnchecked(MAX_FROZEN_SUPPLY_TIME))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toInt)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found MAX_FROZEN_SUPPLY_TIME"));
+    return getInt(MAX_FROZEN_SUPPLY_TIME,
+        () -> new IllegalArgumentException("not found MAX_FROZEN_SUPPLY_TIME"));
   }
 
   public void saveMinFrozenSupplyTime(int minFrozenSupplyTime) {
@@ -749,11 +929,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public int getMinFrozenSupplyTime() {
-    return Optional.ofNullable(getUnchecked(MIN_FROZEN_SUPPLY_TIME))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toInt)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found MIN_FROZEN_SUPPLY_TIME"));
+    return getInt(MIN_FROZEN_SUPPLY_TIME,
+        () -> new IllegalArgumentException("not found MIN_FROZEN_SUPPLY_TIME"));
   }
 
   public void saveWitnessAllowanceFrozenTime(int witnessAllowanceFrozenTime) {
@@ -763,11 +940,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public int getWitnessAllowanceFrozenTime() {
-    return Optional.ofNullable(getUnchecked(WITNESS_ALLOWANCE_FROZEN_TIME))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toInt)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found WITNESS_ALLOWANCE_FROZEN_TIME"));
+    return getInt(WITNESS_ALLOWANCE_FROZEN_TIME,
+        () -> new IllegalArgumentException("not found WITNESS_ALLOWANCE_FROZEN_TIME"));
   }
 
   public void saveMaintenanceTimeInterval(long timeInterval) {
@@ -777,11 +951,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getMaintenanceTimeInterval() {
-    return Optional.ofNullable(getUnchecked(MAINTENANCE_TIME_INTERVAL))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found MAINTENANCE_TIME_INTERVAL"));
+    return getLong(MAINTENANCE_TIME_INTERVAL,
+        () -> new IllegalArgumentException("not found MAINTENANCE_TIME_INTERVAL"));
   }
 
   public void saveAccountUpgradeCost(long accountUpgradeCost) {
@@ -791,11 +962,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getAccountUpgradeCost() {
-    return Optional.ofNullable(getUnchecked(ACCOUNT_UPGRADE_COST))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found ACCOUNT_UPGRADE_COST"));
+    return getLong(ACCOUNT_UPGRADE_COST,
+        () -> new IllegalArgumentException("not found ACCOUNT_UPGRADE_COST"));
   }
 
   public void saveWitnessPayPerBlock(long pay) {
@@ -805,11 +973,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getWitnessPayPerBlock() {
-    return Optional.ofNullable(getUnchecked(WITNESS_PAY_PER_BLOCK))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found WITNESS_PAY_PER_BLOCK"));
+    return getLong(WITNESS_PAY_PER_BLOCK,
+        () -> new IllegalArgumentException("not found WITNESS_PAY_PER_BLOCK"));
   }
 
   public void saveWitness55PayPerBlock(long pay) {
@@ -819,10 +984,7 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getWitness55PayPerBlock() {
-    return Optional.ofNullable(getUnchecked(WITNESS_55_PAY_PER_BLOCK))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElse(1000000L);
+    return getLong(WITNESS_55_PAY_PER_BLOCK, 1000000L);
   }
 
   public void saveWitnessStandbyAllowance(long allowance) {
@@ -832,11 +994,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getWitnessStandbyAllowance() {
-    return Optional.ofNullable(getUnchecked(WITNESS_STANDBY_ALLOWANCE))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found WITNESS_STANDBY_ALLOWANCE"));
+    return getLong(WITNESS_STANDBY_ALLOWANCE,
+        () -> new IllegalArgumentException("not found WITNESS_STANDBY_ALLOWANCE"));
   }
 
   public void saveHardForkVersion(long blockVersion) {
@@ -871,11 +1030,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getOneDayNetLimit() {
-    return Optional.ofNullable(getUnchecked(DynamicResourceProperties.ONE_DAY_NET_LIMIT))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found ONE_DAY_NET_LIMIT"));
+    return getLong(DynamicResourceProperties.ONE_DAY_NET_LIMIT,
+        () -> new IllegalArgumentException("not found ONE_DAY_NET_LIMIT"));
   }
 
   public void savePublicNetUsage(long publicNetUsage) {
@@ -884,11 +1040,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getPublicNetUsage() {
-    return Optional.ofNullable(getUnchecked(DynamicResourceProperties.PUBLIC_NET_USAGE))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found PUBLIC_NET_USAGE"));
+    return getLong(DynamicResourceProperties.PUBLIC_NET_USAGE,
+        () -> new IllegalArgumentException("not found PUBLIC_NET_USAGE"));
   }
 
   public void savePublicNetLimit(long publicNetLimit) {
@@ -897,11 +1050,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getPublicNetLimit() {
-    return Optional.ofNullable(getUnchecked(DynamicResourceProperties.PUBLIC_NET_LIMIT))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found PUBLIC_NET_LIMIT"));
+    return getLong(DynamicResourceProperties.PUBLIC_NET_LIMIT,
+        () -> new IllegalArgumentException("not found PUBLIC_NET_LIMIT"));
   }
 
   public void savePublicNetTime(long publicNetTime) {
@@ -910,11 +1060,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getPublicNetTime() {
-    return Optional.ofNullable(getUnchecked(DynamicResourceProperties.PUBLIC_NET_TIME))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found PUBLIC_NET_TIME"));
+    return getLong(DynamicResourceProperties.PUBLIC_NET_TIME,
+        () -> new IllegalArgumentException("not found PUBLIC_NET_TIME"));
   }
 
   public void saveFreeNetLimit(long freeNetLimit) {
@@ -923,11 +1070,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getFreeNetLimit() {
-    return Optional.ofNullable(getUnchecked(DynamicResourceProperties.FREE_NET_LIMIT))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found FREE_NET_LIMIT"));
+    return getLong(DynamicResourceProperties.FREE_NET_LIMIT,
+        () -> new IllegalArgumentException("not found FREE_NET_LIMIT"));
   }
 
   public void saveTotalNetWeight(long totalNetWeight) {
@@ -936,11 +1080,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getTotalNetWeight() {
-    return Optional.ofNullable(getUnchecked(DynamicResourceProperties.TOTAL_NET_WEIGHT))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found TOTAL_NET_WEIGHT"));
+    return getLong(DynamicResourceProperties.TOTAL_NET_WEIGHT,
+        () -> new IllegalArgumentException("not found TOTAL_NET_WEIGHT"));
   }
 
   public void saveTotalEnergyWeight(long totalEnergyWeight) {
@@ -949,11 +1090,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getTotalEnergyWeight() {
-    return Optional.ofNullable(getUnchecked(DynamicResourceProperties.TOTAL_ENERGY_WEIGHT))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found TOTAL_ENERGY_WEIGHT"));
+    return getLong(DynamicResourceProperties.TOTAL_ENERGY_WEIGHT,
+        () -> new IllegalArgumentException("not found TOTAL_ENERGY_WEIGHT"));
   }
 
 
@@ -963,11 +1101,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getTotalNetLimit() {
-    return Optional.ofNullable(getUnchecked(DynamicResourceProperties.TOTAL_NET_LIMIT))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found TOTAL_NET_LIMIT"));
+    return getLong(DynamicResourceProperties.TOTAL_NET_LIMIT,
+        () -> new IllegalArgumentException("not found TOTAL_NET_LIMIT"));
   }
 
   @Deprecated
@@ -991,11 +1126,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getTotalEnergyLimit() {
-    return Optional.ofNullable(getUnchecked(DynamicResourceProperties.TOTAL_ENERGY_LIMIT))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found TOTAL_ENERGY_LIMIT"));
+    return getLong(DynamicResourceProperties.TOTAL_ENERGY_LIMIT,
+        () -> new IllegalArgumentException("not found TOTAL_ENERGY_LIMIT"));
   }
 
   public void saveTotalEnergyCurrentLimit(long totalEnergyCurrentLimit) {
@@ -1004,11 +1136,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getTotalEnergyCurrentLimit() {
-    return Optional.ofNullable(getUnchecked(DynamicResourceProperties.TOTAL_ENERGY_CURRENT_LIMIT))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found TOTAL_ENERGY_CURRENT_LIMIT"));
+    return getLong(DynamicResourceProperties.TOTAL_ENERGY_CURRENT_LIMIT,
+        () -> new IllegalArgumentException("not found TOTAL_ENERGY_CURRENT_LIMIT"));
   }
 
   public void saveTotalEnergyTargetLimit(long targetTotalEnergyLimit) {
@@ -1017,11 +1146,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getTotalEnergyTargetLimit() {
-    return Optional.ofNullable(getUnchecked(DynamicResourceProperties.TOTAL_ENERGY_TARGET_LIMIT))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found TOTAL_ENERGY_TARGET_LIMIT"));
+    return getLong(DynamicResourceProperties.TOTAL_ENERGY_TARGET_LIMIT,
+        () -> new IllegalArgumentException("not found TOTAL_ENERGY_TARGET_LIMIT"));
   }
 
   public void saveTotalEnergyAverageUsage(long totalEnergyAverageUsage) {
@@ -1030,11 +1156,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getTotalEnergyAverageUsage() {
-    return Optional.ofNullable(getUnchecked(DynamicResourceProperties.TOTAL_ENERGY_AVERAGE_USAGE))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found TOTAL_ENERGY_AVERAGE_USAGE"));
+    return getLong(DynamicResourceProperties.TOTAL_ENERGY_AVERAGE_USAGE,
+        () -> new IllegalArgumentException("not found TOTAL_ENERGY_AVERAGE_USAGE"));
   }
 
   public void saveAdaptiveResourceLimitMultiplier(long adaptiveResourceLimitMultiplier) {
@@ -1043,11 +1166,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getAdaptiveResourceLimitMultiplier() {
-    return Optional.ofNullable(getUnchecked(DynamicResourceProperties.ADAPTIVE_RESOURCE_LIMIT_MULTIPLIER))
-            .map(BytesCapsule::getData)
-            .map(ByteArray::toLong)
-            .orElseThrow(
-                    () -> new IllegalArgumentException("not found ADAPTIVE_RESOURCE_LIMIT_MULTIPLIER"));
+    return getLong(DynamicResourceProperties.ADAPTIVE_RESOURCE_LIMIT_MULTIPLIER,
+        () -> new IllegalArgumentException("not found ADAPTIVE_RESOURCE_LIMIT_MULTIPLIER"));
   }
 
   public void saveAdaptiveResourceLimitTargetRatio(long adaptiveResourceLimitTargetRatio) {
@@ -1056,11 +1176,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getAdaptiveResourceLimitTargetRatio() {
-    return Optional.ofNullable(getUnchecked(DynamicResourceProperties.ADAPTIVE_RESOURCE_LIMIT_TARGET_RATIO))
-            .map(BytesCapsule::getData)
-            .map(ByteArray::toLong)
-            .orElseThrow(
-                    () -> new IllegalArgumentException("not found ADAPTIVE_RESOURCE_LIMIT_TARGET_RATIO"));
+    return getLong(DynamicResourceProperties.ADAPTIVE_RESOURCE_LIMIT_TARGET_RATIO,
+        () -> new IllegalArgumentException("not found ADAPTIVE_RESOURCE_LIMIT_TARGET_RATIO"));
   }
 
 
@@ -1072,11 +1189,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getTotalEnergyAverageTime() {
-    return Optional.ofNullable(getUnchecked(DynamicResourceProperties.TOTAL_ENERGY_AVERAGE_TIME))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found TOTAL_NET_AVERAGE_TIME"));
+    return getLong(DynamicResourceProperties.TOTAL_ENERGY_AVERAGE_TIME,
+        () -> new IllegalArgumentException("not found TOTAL_NET_AVERAGE_TIME"));
   }
 
   public void saveBlockEnergyUsage(long blockEnergyUsage) {
@@ -1085,11 +1199,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getBlockEnergyUsage() {
-    return Optional.ofNullable(getUnchecked(DynamicResourceProperties.BLOCK_ENERGY_USAGE))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found BLOCK_ENERGY_USAGE"));
+    return getLong(DynamicResourceProperties.BLOCK_ENERGY_USAGE,
+        () -> new IllegalArgumentException("not found BLOCK_ENERGY_USAGE"));
   }
 
   public void saveEnergyFee(long totalEnergyFee) {
@@ -1098,11 +1209,7 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getEnergyFee() {
-    return Optional.ofNullable(getUnchecked(ENERGY_FEE))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found ENERGY_FEE"));
+    return getLong(ENERGY_FEE, () -> new IllegalArgumentException("not found ENERGY_FEE"));
   }
 
   public void saveMaxCpuTimeOfOneTx(long time) {
@@ -1111,11 +1218,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getMaxCpuTimeOfOneTx() {
-    return Optional.ofNullable(getUnchecked(MAX_CPU_TIME_OF_ONE_TX))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found MAX_CPU_TIME_OF_ONE_TX"));
+    return getLong(MAX_CPU_TIME_OF_ONE_TX,
+        () -> new IllegalArgumentException("not found MAX_CPU_TIME_OF_ONE_TX"));
   }
 
   public void saveCreateAccountFee(long fee) {
@@ -1124,11 +1228,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getCreateAccountFee() {
-    return Optional.ofNullable(getUnchecked(CREATE_ACCOUNT_FEE))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found CREATE_ACCOUNT_FEE"));
+    return getLong(CREATE_ACCOUNT_FEE,
+        () -> new IllegalArgumentException("not found CREATE_ACCOUNT_FEE"));
   }
 
 
@@ -1138,12 +1239,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getCreateNewAccountFeeInSystemContract() {
-    return Optional.ofNullable(getUnchecked(CREATE_NEW_ACCOUNT_FEE_IN_SYSTEM_CONTRACT))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException(
-                "not found CREATE_NEW_ACCOUNT_FEE_IN_SYSTEM_CONTRACT"));
+    return getLong(CREATE_NEW_ACCOUNT_FEE_IN_SYSTEM_CONTRACT,
+        () -> new IllegalArgumentException("not found CREATE_NEW_ACCOUNT_FEE_IN_SYSTEM_CONTRACT"));
   }
 
   public void saveCreateNewAccountBandwidthRate(long rate) {
@@ -1152,12 +1249,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getCreateNewAccountBandwidthRate() {
-    return Optional.ofNullable(getUnchecked(CREATE_NEW_ACCOUNT_BANDWIDTH_RATE))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException(
-                "not found CREATE_NsEW_ACCOUNT_BANDWIDTH_RATE2"));
+    return getLong(CREATE_NEW_ACCOUNT_BANDWIDTH_RATE,
+        () -> new IllegalArgumentException("not found CREATE_NsEW_ACCOUNT_BANDWIDTH_RATE2"));
   }
 
   public void saveTransactionFee(long fee) {
@@ -1166,11 +1259,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getTransactionFee() {
-    return Optional.ofNullable(getUnchecked(TRANSACTION_FEE))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found TRANSACTION_FEE"));
+    return getLong(TRANSACTION_FEE,
+        () -> new IllegalArgumentException("not found TRANSACTION_FEE"));
   }
 
   public void saveAssetIssueFee(long fee) {
@@ -1195,35 +1285,22 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
 
 
   public long getAssetIssueFee() {
-    return Optional.ofNullable(getUnchecked(ASSET_ISSUE_FEE))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found ASSET_ISSUE_FEE"));
+    return getLong(ASSET_ISSUE_FEE,
+        () -> new IllegalArgumentException("not found ASSET_ISSUE_FEE"));
   }
 
   public long getAssetUpdateFee() {
-    return Optional.ofNullable(getUnchecked(ASSET_UPDATE_FEE))
-            .map(BytesCapsule::getData)
-            .map(ByteArray::toLong)
-            .orElseThrow(
-                    () -> new IllegalArgumentException("not found ASSET_UPDATE_FEE"));
+    return getLong(ASSET_UPDATE_FEE,
+        () -> new IllegalArgumentException("not found ASSET_UPDATE_FEE"));
   }
 
   public long getUpdateAccountPermissionFee() {
-    return Optional.ofNullable(getUnchecked(UPDATE_ACCOUNT_PERMISSION_FEE))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found UPDATE_ACCOUNT_PERMISSION_FEE"));
+    return getLong(UPDATE_ACCOUNT_PERMISSION_FEE,
+        () -> new IllegalArgumentException("not found UPDATE_ACCOUNT_PERMISSION_FEE"));
   }
 
   public long getMultiSignFee() {
-    return Optional.ofNullable(getUnchecked(MULTI_SIGN_FEE))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found MULTI_SIGN_FEE"));
+    return getLong(MULTI_SIGN_FEE, () -> new IllegalArgumentException("not found MULTI_SIGN_FEE"));
   }
 
 
@@ -1233,11 +1310,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getExchangeCreateFee() {
-    return Optional.ofNullable(getUnchecked(EXCHANGE_CREATE_FEE))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found EXCHANGE_CREATE_FEE"));
+    return getLong(EXCHANGE_CREATE_FEE,
+        () -> new IllegalArgumentException("not found EXCHANGE_CREATE_FEE"));
   }
 
   public void saveExchangeBalanceLimit(long limit) {
@@ -1246,11 +1320,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getExchangeBalanceLimit() {
-    return Optional.ofNullable(getUnchecked(EXCHANGE_BALANCE_LIMIT))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found EXCHANGE_BALANCE_LIMIT"));
+    return getLong(EXCHANGE_BALANCE_LIMIT,
+        () -> new IllegalArgumentException("not found EXCHANGE_BALANCE_LIMIT"));
   }
 
   public void saveTotalTransactionCost(long value) {
@@ -1259,11 +1330,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getTotalTransactionCost() {
-    return Optional.ofNullable(getUnchecked(TOTAL_TRANSACTION_COST))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found TOTAL_TRANSACTION_COST"));
+    return getLong(TOTAL_TRANSACTION_COST,
+        () -> new IllegalArgumentException("not found TOTAL_TRANSACTION_COST"));
   }
 
   public void saveTotalCreateAccountFee(long value) {
@@ -1272,11 +1340,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getTotalCreateAccountCost() {
-    return Optional.ofNullable(getUnchecked(TOTAL_CREATE_ACCOUNT_COST))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found TOTAL_CREATE_ACCOUNT_COST"));
+    return getLong(TOTAL_CREATE_ACCOUNT_COST,
+        () -> new IllegalArgumentException("not found TOTAL_CREATE_ACCOUNT_COST"));
   }
 
   public void saveTotalCreateWitnessFee(long value) {
@@ -1285,11 +1350,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getTotalCreateWitnessCost() {
-    return Optional.ofNullable(getUnchecked(TOTAL_CREATE_WITNESS_COST))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found TOTAL_CREATE_WITNESS_COST"));
+    return getLong(TOTAL_CREATE_WITNESS_COST,
+        () -> new IllegalArgumentException("not found TOTAL_CREATE_WITNESS_COST"));
   }
 
   public void saveTotalStoragePool(long unx) {
@@ -1298,11 +1360,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getTotalStoragePool() {
-    return Optional.ofNullable(getUnchecked(TOTAL_STORAGE_POOL))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found TOTAL_STORAGE_POOL"));
+    return getLong(TOTAL_STORAGE_POOL,
+        () -> new IllegalArgumentException("not found TOTAL_STORAGE_POOL"));
   }
 
   public void saveTotalStorageTax(long unx) {
@@ -1311,11 +1370,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getTotalStorageTax() {
-    return Optional.ofNullable(getUnchecked(TOTAL_STORAGE_TAX))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found TOTAL_STORAGE_TAX"));
+    return getLong(TOTAL_STORAGE_TAX,
+        () -> new IllegalArgumentException("not found TOTAL_STORAGE_TAX"));
   }
 
   public void saveTotalStorageReserved(long bytes) {
@@ -1324,11 +1380,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getTotalStorageReserved() {
-    return Optional.ofNullable(getUnchecked(TOTAL_STORAGE_RESERVED))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found TOTAL_STORAGE_RESERVED"));
+    return getLong(TOTAL_STORAGE_RESERVED,
+        () -> new IllegalArgumentException("not found TOTAL_STORAGE_RESERVED"));
   }
 
   public void saveStorageExchangeTaxRate(long rate) {
@@ -1337,11 +1390,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getStorageExchangeTaxRate() {
-    return Optional.ofNullable(getUnchecked(STORAGE_EXCHANGE_TAX_RATE))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found STORAGE_EXCHANGE_TAX_RATE"));
+    return getLong(STORAGE_EXCHANGE_TAX_RATE,
+        () -> new IllegalArgumentException("not found STORAGE_EXCHANGE_TAX_RATE"));
   }
 
   public void saveRemoveThePowerOfTheGr(long rate) {
@@ -1350,11 +1400,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getRemoveThePowerOfTheGr() {
-    return Optional.ofNullable(getUnchecked(REMOVE_THE_POWER_OF_THE_GR))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found REMOVE_THE_POWER_OF_THE_GR"));
+    return getLong(REMOVE_THE_POWER_OF_THE_GR,
+        () -> new IllegalArgumentException("not found REMOVE_THE_POWER_OF_THE_GR"));
   }
 
   public void saveAllowDelegateResource(long value) {
@@ -1363,11 +1410,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getAllowDelegateResource() {
-    return Optional.ofNullable(getUnchecked(ALLOW_DELEGATE_RESOURCE))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found ALLOW_DELEGATE_RESOURCE"));
+    return getLong(ALLOW_DELEGATE_RESOURCE,
+        () -> new IllegalArgumentException("not found ALLOW_DELEGATE_RESOURCE"));
   }
 
   public void saveAllowAdaptiveEnergy(long value) {
@@ -1376,11 +1420,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getAllowAdaptiveEnergy() {
-    return Optional.ofNullable(getUnchecked(ALLOW_ADAPTIVE_ENERGY))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found ALLOW_ADAPTIVE_ENERGY"));
+    return getLong(ALLOW_ADAPTIVE_ENERGY,
+        () -> new IllegalArgumentException("not found ALLOW_ADAPTIVE_ENERGY"));
   }
 
   public void saveAllowTvmTransferUnc(long value) {
@@ -1389,11 +1430,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getAllowTvmTransferUnc() {
-    return Optional.ofNullable(getUnchecked(ALLOW_TVM_TRANSFER_UNC))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found ALLOW_TVM_TRANSFER_UNC"));
+    return getLong(ALLOW_TVM_TRANSFER_UNC,
+        () -> new IllegalArgumentException("not found ALLOW_TVM_TRANSFER_UNC"));
   }
 
   public void saveAllowTvmConstantinople(long value) {
@@ -1402,11 +1440,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getAllowTvmConstantinople() {
-    return Optional.ofNullable(getUnchecked(ALLOW_TVM_CONSTANTINOPLE))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found ALLOW_TVM_CONSTANTINOPLE"));
+    return getLong(ALLOW_TVM_CONSTANTINOPLE,
+        () -> new IllegalArgumentException("not found ALLOW_TVM_CONSTANTINOPLE"));
   }
 
 
@@ -1416,10 +1451,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getAllowUvmSolidity059() {
-    return Optional.ofNullable(getUnchecked(ALLOW_TVM_SOLIDITY_059))
-            .map(BytesCapsule::getData)
-            .map(ByteArray::toLong)
-            .orElseThrow(() -> new IllegalArgumentException("not found ALLOW_TVM_SOLIDITY_059"));
+    return getLong(ALLOW_TVM_SOLIDITY_059,
+        () -> new IllegalArgumentException("not found ALLOW_TVM_SOLIDITY_059"));
   }
 
 
@@ -1478,11 +1511,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getAllowUpdateAccountName() {
-    return Optional.ofNullable(getUnchecked(ALLOW_UPDATE_ACCOUNT_NAME))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found ALLOW_UPDATE_ACCOUNT_NAME"));
+    return getLong(ALLOW_UPDATE_ACCOUNT_NAME,
+        () -> new IllegalArgumentException("not found ALLOW_UPDATE_ACCOUNT_NAME"));
   }
 
   public void saveAllowSameTokenName(long rate) {
@@ -1491,11 +1521,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getAllowSameTokenName() {
-    return Optional.ofNullable(getUnchecked(ALLOW_SAME_TOKEN_NAME))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found ALLOW_SAME_TOKEN_NAME"));
+    return getLong(ALLOW_SAME_TOKEN_NAME,
+        () -> new IllegalArgumentException("not found ALLOW_SAME_TOKEN_NAME"));
   }
 
   public void saveAllowCreationOfContracts(long allowCreationOfContracts) {
@@ -1509,11 +1536,7 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public int getTotalSignNum() {
-    return Optional.ofNullable(getUnchecked(TOTAL_SIGN_NUM))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toInt)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found TOTAL_SIGN_NUM"));
+    return getInt(TOTAL_SIGN_NUM, () -> new IllegalArgumentException("not found TOTAL_SIGN_NUM"));
   }
 
   public void saveAllowMultiSign(long allowMultiSing) {
@@ -1522,19 +1545,13 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getAllowMultiSign() {
-    return Optional.ofNullable(getUnchecked(ALLOW_MULTI_SIGN))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found ALLOW_MULTI_SIGN"));
+    return getLong(ALLOW_MULTI_SIGN,
+        () -> new IllegalArgumentException("not found ALLOW_MULTI_SIGN"));
   }
 
   public long getAllowCreationOfContracts() {
-    return Optional.ofNullable(getUnchecked(ALLOW_CREATION_OF_CONTRACTS))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found ALLOW_CREATION_OF_CONTRACTS"));
+    return getLong(ALLOW_CREATION_OF_CONTRACTS,
+        () -> new IllegalArgumentException("not found ALLOW_CREATION_OF_CONTRACTS"));
   }
 
   public boolean supportVM() {
@@ -1580,11 +1597,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
 
 
   public long getLatestSolidifiedBlockNum() {
-    return Optional.ofNullable(getUnchecked(LATEST_SOLIDIFIED_BLOCK_NUM))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found latest SOLIDIFIED_BLOCK_NUM"));
+    return getLong(LATEST_SOLIDIFIED_BLOCK_NUM,
+        () -> new IllegalArgumentException("not found latest SOLIDIFIED_BLOCK_NUM"));
   }
 
   public void saveLatestProposalNum(long number) {
@@ -1592,11 +1606,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getLatestProposalNum() {
-    return Optional.ofNullable(getUnchecked(LATEST_PROPOSAL_NUM))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found latest PROPOSAL_NUM"));
+    return getLong(LATEST_PROPOSAL_NUM,
+        () -> new IllegalArgumentException("not found latest PROPOSAL_NUM"));
   }
 
   public void saveLatestExchangeNum(long number) {
@@ -1604,53 +1615,35 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getLatestExchangeNum() {
-    return Optional.ofNullable(getUnchecked(LATEST_EXCHANGE_NUM))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found latest EXCHANGE_NUM"));
+    return getLong(LATEST_EXCHANGE_NUM,
+        () -> new IllegalArgumentException("not found latest EXCHANGE_NUM"));
   }
 
   /**
    * get timestamp of creating global latest block.
    */
   public long getLatestBlockHeaderTimestamp() {
-    return Optional.ofNullable(getUnchecked(LATEST_BLOCK_HEADER_TIMESTAMP))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found latest block header timestamp"));
+    return getLong(LATEST_BLOCK_HEADER_TIMESTAMP,
+        () -> new IllegalArgumentException("not found latest block header timestamp"));
   }
 
   /**
    * get timestamp of creating global latest block.
    */
   public long getMaxFutureTransferTimeRangeUnw() {
-    return Optional.ofNullable(getUnchecked(MAX_FUTURE_TRANSFER_TIME_RANGE_UNW))
-            .map(BytesCapsule::getData)
-            .map(ByteArray::toLong)
-            .orElse(Parameter.ChainConstant.UNW_MAX_FUTURE_TRANSFER_TIME_RANGE);
+    return getLong(MAX_FUTURE_TRANSFER_TIME_RANGE_UNW, Parameter.ChainConstant.UNW_MAX_FUTURE_TRANSFER_TIME_RANGE);
   }
 
   public long getMaxFutureTransferTimeRangeUnwV3() {
-    return Optional.ofNullable(getUnchecked(MAX_FUTURE_TRANSFER_TIME_RANGE_UNW))
-            .map(BytesCapsule::getData)
-            .map(ByteArray::toLong)
-            .orElse(ChainConstant.UNW_MAX_FUTURE_TRANSFER_TIME_RANGE_V3);
+    return getLong(MAX_FUTURE_TRANSFER_TIME_RANGE_UNW, ChainConstant.UNW_MAX_FUTURE_TRANSFER_TIME_RANGE_V3);
   }
 
   public long getMaxFutureTransferTimeRangeToken() {
-    return Optional.ofNullable(getUnchecked(MAX_FUTURE_TRANSFER_TIME_RANGE_TOKEN))
-            .map(BytesCapsule::getData)
-            .map(ByteArray::toLong)
-            .orElse(Parameter.ChainConstant.URC30_MAX_FUTURE_TRANSFER_TIME_RANGE);
+    return getLong(MAX_FUTURE_TRANSFER_TIME_RANGE_TOKEN, Parameter.ChainConstant.URC30_MAX_FUTURE_TRANSFER_TIME_RANGE);
   }
 
   public long getMaxFutureTransferTimeRangeTokenV3() {
-    return Optional.ofNullable(getUnchecked(MAX_FUTURE_TRANSFER_TIME_RANGE_TOKEN))
-            .map(BytesCapsule::getData)
-            .map(ByteArray::toLong)
-            .orElse(ChainConstant.URC30_MAX_FUTURE_TRANSFER_TIME_RANGE_V3);
+    return getLong(MAX_FUTURE_TRANSFER_TIME_RANGE_TOKEN, ChainConstant.URC30_MAX_FUTURE_TRANSFER_TIME_RANGE_V3);
   }
 
 
@@ -1658,18 +1651,12 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
    * get number of global latest block.
    */
   public long getLatestBlockHeaderNumber() {
-    return Optional.ofNullable(getUnchecked(LATEST_BLOCK_HEADER_NUMBER))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found latest block header number"));
+    return getLong(LATEST_BLOCK_HEADER_NUMBER,
+        () -> new IllegalArgumentException("not found latest block header number"));
   }
 
   public int getStateFlag() {
-    return Optional.ofNullable(getUnchecked(STATE_FLAG))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toInt)
-        .orElseThrow(() -> new IllegalArgumentException("not found maintenance flag"));
+    return getInt(STATE_FLAG, () -> new IllegalArgumentException("not found maintenance flag"));
   }
 
   /**
@@ -1714,11 +1701,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
 
 
   public long getNextMaintenanceTime() {
-    return Optional.ofNullable(getUnchecked(NEXT_MAINTENANCE_TIME))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found NEXT_MAINTENANCE_TIME"));
+    return getLong(NEXT_MAINTENANCE_TIME,
+        () -> new IllegalArgumentException("not found NEXT_MAINTENANCE_TIME"));
   }
 
   public long getMaintenanceSkipSlots() {
@@ -1798,10 +1782,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
    * get allow protobuf number.
    */
   public long getAllowProtoFilterNum() {
-    return Optional.ofNullable(getUnchecked(ALLOW_PROTO_FILTER_NUM))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(() -> new IllegalArgumentException("not found allow protobuf number"));
+    return getLong(ALLOW_PROTO_FILTER_NUM,
+        () -> new IllegalArgumentException("not found allow protobuf number"));
   }
 
   /**
@@ -1818,11 +1800,8 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getAllowAccountStateRoot() {
-    return Optional.ofNullable(getUnchecked(ALLOW_ACCOUNT_STATE_ROOT))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElseThrow(
-            () -> new IllegalArgumentException("not found ALLOW_ACCOUNT_STATE_ROOT"));
+    return getLong(ALLOW_ACCOUNT_STATE_ROOT,
+        () -> new IllegalArgumentException("not found ALLOW_ACCOUNT_STATE_ROOT"));
   }
 
   public boolean allowAccountStateRoot() {
@@ -1830,10 +1809,7 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getCurrentCycleNumber() {
-    return Optional.ofNullable(getUnchecked(CURRENT_CYCLE_NUMBER))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElse(0L);
+    return getLong(CURRENT_CYCLE_NUMBER, 0L);
   }
 
   public void saveCurrentCycleNumber(long number) {
@@ -1846,14 +1822,24 @@ public class DynamicPropertiesStore extends UnichainStoreWithRevoking<BytesCapsu
   }
 
   public long getChangeDelegation() {
-    return Optional.ofNullable(getUnchecked(CHANGE_DELEGATION))
-        .map(BytesCapsule::getData)
-        .map(ByteArray::toLong)
-        .orElse(1L);
+    return getLong(CHANGE_DELEGATION, 1L);
   }
 
   public boolean allowChangeDelegation() {
     return getChangeDelegation() == 1;
   }
 
+  public void saveNewRewardAlgorithmEffectiveCycle(long cycle) {
+    this.put(NEW_REWARD_ALGORITHM_EFFECTIVE_CYCLE,
+        new BytesCapsule(ByteArray.fromLong(cycle)));
+  }
+
+  public long getNewRewardAlgorithmEffectiveCycle() {
+    return getLong(NEW_REWARD_ALGORITHM_EFFECTIVE_CYCLE, Long.MAX_VALUE);
+  }
+
+  public boolean useNewRewardAlgorithm() {
+    return getNewRewardAlgorithmEffectiveCycle() != Long.MAX_VALUE;
+  }
+
 }
@@ -0,0 +1,183 @@
+package org.unichain.core.db;
+
+import com.google.common.primitives.Bytes;
+import com.google.common.primitives.Longs;
+import com.google.protobuf.ByteString;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.unichain.common.utils.ByteArray;
+import org.unichain.core.capsule.BytesCapsule;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Positional index of the future deal chains (doubly linked ticks of future-transfer and token-future).
+ *
+ * A chain only grows at its head or tail and is withdrawn from its head, so its deals are numbered by a
+ * sequence kept in [low, high]: the i-th deal is entry low + i and paging no longer walks the chain.
+ * A chain is identified by the owner address (unw) or owner address + token key (token).
+ * Entries are written through the revoking layer, so they roll back together with the chains. An index
+ * that does not match the account summary is ignored: the chains built before this index are indexed
+ * once at startup by FutureDealIndexHelper, the actuators only keep a synced index in step.
+ */
+@Slf4j(topic = "DB")
+@Component
+public class FutureDealIndexStore extends UnichainStoreWithRevoking<BytesCapsule> {
+
+  private static final byte BOUNDS_PREFIX = 0;
+  private static final byte ENTRY_PREFIX = 1;
+
+  @Autowired
+  protected FutureDealIndexStore(@Value("future-deal-index") String dbName) {
+    super(dbName, BytesCapsule::new);
+  }
+
+  public static byte[] tokenChain(byte[] ownerAddress, byte[] tokenKey) {
+    return Bytes.concat(ownerAddress, tokenKey);
+  }
+
+  @Override
+  public BytesCapsule get(byte[] key) {
+    byte[] value = revokingDB.getUnchecked(key);
+    return value == null ? null : new BytesCapsule(value);
+  }
+
+  /**
+   * @return tick key of the deal at this position of the chain, null if out of the index
+   */
+  public byte[] getTick(byte[] chain, long position) {
+    long[] bounds = getBounds(chain);
+    if (bounds == null || position < 0 || position > bounds[1] - bounds[0]) {
+      return null;
+    }
+    return revokingDB.getUnchecked(entryKey(chain, bounds[0] + position));
+  }
+
+  /**
+   * Whether the index describes the chain of this summary.
+   */
+  public boolean isSynced(byte[] chain, long totalDeal, ByteString lowerTick, ByteString upperTick) {
+    long[] bounds = getBounds(chain);
+    if (bounds == null || bounds[1] - bounds[0] + 1 != totalDeal) {
+      return false;
+    }
+    return Arrays.equals(revokingDB.getUnchecked(entryKey(chain, bounds[0])), lowerTick.toByteArray())
+        && Arrays.equals(revokingDB.getUnchecked(entryKey(chain, bounds[1])), upperTick.toByteArray());
+  }
+
+  /**
+   * Rebuild the index of a chain that is not synced, walking it once from its head. Linear in the
+   * chain, for the backfill only.
+   *
+   * @param nextTick next tick key of a tick, null or empty at the tail
+   */
+  public void sync(byte[] chain, long totalDeal, ByteString lowerTick, ByteString upperTick,
+      Function<byte[], ByteString> nextTick) {
+    if (isSynced(chain, totalDeal, lowerTick, upperTick)) {
+      return;
+    }
+
+    clear(chain);
+    long seq = 0;
+    ByteString tickKey = lowerTick;
+    while (Objects.nonNull(tickKey) && !tickKey.isEmpty() && seq < totalDeal) {
+      put(entryKey(chain, seq), new BytesCapsule(tickKey.toByteArray()));
+      tickKey = nextTick.apply(tickKey.toByteArray());
+      seq++;
+    }
+    if (seq > 0) {
+      putBounds(chain, 0, seq - 1);
+    }
+    logger.debug("rebuild future deal index, chain: {}, deals: {}", ByteArray.toHexString(chain), seq);
+  }
+
+  /**
+   * Start the index of a new chain with its first tick.
+   */
+  public void reset(byte[] chain, byte[] tickKey) {
+    clear(chain);
+    put(entryKey(chain, 0), new BytesCapsule(tickKey));
+    putBounds(chain, 0, 0);
+  }
+
+  public void addFirst(byte[] chain, byte[] tickKey) {
+    long[] bounds = getBounds(chain);
+    if (bounds == null) {
+      return;
+    }
+    put(entryKey(chain, bounds[0] - 1), new BytesCapsule(tickKey));
+    putBounds(chain, bounds[0] - 1, bounds[1]);
+  }
+
+  public void addLast(byte[] chain, byte[] tickKey) {
+    long[] bounds = getBounds(chain);
+    if (bounds == null) {
+      return;
+    }
+    put(entryKey(chain, bounds[1] + 1), new BytesCapsule(tickKey));
+    putBounds(chain, bounds[0], bounds[1] + 1);
+  }
+
+  /**
+   * Drop the first deals of the chain, after they are withdrawn.
+   */
+  public void removeFirst(byte[] chain, long count) {
+    long[] bounds = getBounds(chain);
+    if (bounds == null) {
+      return;
+    }
+    long low = bounds[0];
+    for (long i = 0; i < count && low <= bounds[1]; i++, low++) {
+      delete(entryKey(chain, low));
+    }
+    if (low > bounds[1]) {
+      delete(boundsKey(chain));
+    } else {
+      putBounds(chain, low, bounds[1]);
+    }
+  }
+
+  /**
+   * Drop the index of the chain without visiting its entries, which are left unreachable.
+   */
+  public void invalidate(byte[] chain) {
+    delete(boundsKey(chain));
+  }
+
+  public void clear(byte[] chain) {
+    long[] bounds = getBounds(chain);
+    if (bounds == null) {
+      return;
+    }
+    for (long seq = bounds[0]; seq <= bounds[1]; seq++) {
+      delete(entryKey(chain, seq));
+    }
+    delete(boundsKey(chain));
+  }
+
+  private long[] getBounds(byte[] chain) {
+    byte[] value = revokingDB.getUnchecked(boundsKey(chain));
+    if (value == null || value.length != 2 * Long.BYTES) {
+      return null;
+    }
+    return new long[]{Longs.fromByteArray(Arrays.copyOfRange(value, 0, Long.BYTES)),
+        Longs.fromByteArray(Arrays.copyOfRange(value, Long.BYTES, 2 * Long.BYTES))};
+  }
+
+  private void putBounds(byte[] chain, long low, long high) {
+    put(boundsKey(chain), new BytesCapsule(Bytes.concat(Longs.toByteArray(low), Longs.toByteArray(high))));
+  }
+
+  private static byte[] boundsKey(byte[] chain) {
+    return Bytes.concat(new byte[]{BOUNDS_PREFIX}, chain);
+  }
+
+  // fixed length sequence before the chain keeps entry keys of different chains apart
+  private static byte[] entryKey(byte[] chain, long seq) {
+    return Bytes.concat(new byte[]{ENTRY_PREFIX}, Longs.toByteArray(seq), chain);
+  }
+}
@@ -18,7 +18,7 @@ public class FutureTokenStore extends UnichainStoreWithRevoking<FutureTokenCapsu
 
   @Autowired
   protected FutureTokenStore(@Value("token-future") String dbName) {
-    super(dbName);
+    super(dbName, FutureTokenCapsule::new);
   }
 
   @Override
@@ -18,7 +18,7 @@ public class FutureTransferStore extends UnichainStoreWithRevoking<FutureTransfe
 
   @Autowired
   protected FutureTransferStore(@Value("future-transfer") String dbName) {
-    super(dbName);
+    super(dbName, FutureTransferCapsule::new);
   }
 
   @Override
@@ -16,7 +16,6 @@ import org.unichain.core.exception.UnLinkedBlockException;
 import java.lang.ref.Reference;
 import java.lang.ref.WeakReference;
 import java.util.*;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 @Component
@@ -37,6 +36,8 @@ public class KhaosDatabase extends UnichainDatabase {
     @Getter
     private BlockCapsule blk;
     private Reference<KhaosBlock> parent = new WeakReference<>(null);
+    // ancestor at skipNum(num), null when it is not linked
+    private Reference<KhaosBlock> skip = new WeakReference<>(null);
     private BlockId id;
     private Boolean invalid;
     private long num;
@@ -47,6 +48,53 @@ public class KhaosDatabase extends UnichainDatabase {
 
     public void setParent(KhaosBlock parent) {
       this.parent = new WeakReference<>(parent);
+      this.skip = new WeakReference<>(parent == null ? null : parent.getAncestor(skipNum(num)));
+    }
+
+    private KhaosBlock getSkip() {
+      return skip.get();
+    }
+
+    /**
+     * Ancestor with the number, following the skip pointers: O(log distance) when they are all
+     * there, a missing one (pruned, or never linked) costs a step through the parent.
+     *
+     * @return null if it is not linked to this block any more
+     */
+    public KhaosBlock getAncestor(long target) {
+      if (target > num || target < 0) {
+        return null;
+      }
+      KhaosBlock walk = this;
+      while (walk != null && walk.num > target) {
+        long skipNum = skipNum(walk.num);
+        long prevSkipNum = skipNum(walk.num - 1);
+        KhaosBlock skipBlock = walk.getSkip();
+        // same choice as the skip list of bitcoin's CBlockIndex::GetAncestor: take the skip unless
+        // the parent's skip gets there in fewer steps
+        if (skipBlock != null && (skipNum == target || (skipNum > target
+            && !(prevSkipNum < skipNum - 2 && prevSkipNum >= target)))) {
+          walk = skipBlock;
+        } else {
+          walk = walk.getParent();
+        }
+      }
+      return walk;
+    }
+
+    /**
+     * Number the skip pointer of a block goes back to, the lowest set bit cleared (twice for an odd
+     * number), so any ancestor is a logarithmic number of skips away.
+     */
+    static long skipNum(long num) {
+      if (num < 2) {
+        return 0;
+      }
+      return (num & 1) == 0 ? clearLowestBit(num) : clearLowestBit(clearLowestBit(num - 1)) + 1;
+    }
+
+    private static long clearLowestBit(long n) {
+      return n & (n - 1);
     }
 
     @Override
@@ -68,47 +116,77 @@ public class KhaosDatabase extends UnichainDatabase {
     }
   }
 
+  /**
+   * Blocks by id and by number. The numbers held are tracked as a range [minNum, maxNum]: blocks
+   * fall out from the low end as the head moves up, one number at a time, so an insert costs the
+   * numbers the head moved past instead of a scan of the store. Numbers in the range may have no
+   * block (unlinked blocks can come with any number).
+   */
   public class KhaosStore {
 
     private HashMap<BlockId, KhaosBlock> hashKblkMap = new HashMap<>();
-    // private HashMap<Sha256Hash, KhaosBlock> parentHashKblkMap = new HashMap<>();
+    private HashMap<Long, ArrayList<KhaosBlock>> numKblkMap = new HashMap<>();
+    // no block below minNum or above maxNum, empty range when the store is empty
+    private long minNum = Long.MAX_VALUE;
+    private long maxNum = Long.MIN_VALUE;
     private int maxCapcity = 1024;
 
-    @Getter
-    private LinkedHashMap<Long, ArrayList<KhaosBlock>> numKblkMap =
-        new LinkedHashMap<Long, ArrayList<KhaosBlock>>() {
-
-          @Override
-          protected boolean removeEldestEntry(Map.Entry<Long, ArrayList<KhaosBlock>> entry) {
-            long minNum = Long.max(0L, head.num - maxCapcity);
-            Map<Long, ArrayList<KhaosBlock>> minNumMap = numKblkMap.entrySet().stream()
-                .filter(e -> e.getKey() < minNum)
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-
-            minNumMap.forEach((k, v) -> {
-              numKblkMap.remove(k);
-              v.forEach(b -> hashKblkMap.remove(b.id));
-            });
-
-            return false;
-          }
-        };
-
     public void setMaxCapcity(int maxCapcity) {
       this.maxCapcity = maxCapcity;
     }
 
     public void insert(KhaosBlock block) {
       hashKblkMap.put(block.id, block);
-      numKblkMap.computeIfAbsent(block.num, listBlk -> new ArrayList<>()).add(block);
+      ArrayList<KhaosBlock> listBlk = numKblkMap.get(block.num);
+      if (listBlk == null) {
+        listBlk = new ArrayList<>();
+        numKblkMap.put(block.num, listBlk);
+        listBlk.add(block);
+        minNum = Long.min(minNum, block.num);
+        maxNum = Long.max(maxNum, block.num);
+        prune();
+      } else {
+        listBlk.add(block);
+      }
+    }
+
+    /**
+     * Drop the blocks more than maxCapcity below the head, when a new number comes in.
+     */
+    private void prune() {
+      if (head == null) {
+        return;
+      }
+      long bound = Long.max(0L, head.num - maxCapcity);
+      if (minNum >= bound) {
+        return;
+      }
+      if (bound - minNum > numKblkMap.size()) {
+        // a gap wider than the store, cheaper to look at the numbers held
+        Iterator<Map.Entry<Long, ArrayList<KhaosBlock>>> it = numKblkMap.entrySet().iterator();
+        while (it.hasNext()) {
+          Map.Entry<Long, ArrayList<KhaosBlock>> entry = it.next();
+          if (entry.getKey() < bound) {
+            entry.getValue().forEach(b -> hashKblkMap.remove(b.id));
+            it.remove();
+          }
+        }
+      } else {
+        for (long num = minNum; num < bound; num++) {
+          ArrayList<KhaosBlock> listBlk = numKblkMap.remove(num);
+          if (listBlk != null) {
+            listBlk.forEach(b -> hashKblkMap.remove(b.id));
+          }
+        }
+      }
+      minNum = bound;
+      resetIfEmpty();
     }
 
     public boolean remove(Sha256Hash hash) {
       KhaosBlock block = this.hashKblkMap.get(hash);
-      // Sha256Hash parentHash = Sha256Hash.ZERO_HASH;
       if (block != null) {
         long num = block.num;
-        // parentHash = block.getParentHash();
         ArrayList<KhaosBlock> listBlk = numKblkMap.get(num);
         if (listBlk != null) {
           listBlk.removeIf(b -> b.id.equals(hash));
@@ -119,11 +197,36 @@ public class KhaosDatabase extends UnichainDatabase {
         }
 
         this.hashKblkMap.remove(hash);
+        resetIfEmpty();
         return true;
       }
       return false;
     }
 
+    private void resetIfEmpty() {
+      if (numKblkMap.isEmpty()) {
+        minNum = Long.MAX_VALUE;
+        maxNum = Long.MIN_VALUE;
+      }
+    }
+
+    /**
+     * @return a block with the highest number, null if the store is empty
+     */
+    public KhaosBlock getHighest() {
+      if (numKblkMap.isEmpty()) {
+        return null;
+      }
+      if (maxNum - minNum > numKblkMap.size()) {
+        maxNum = Collections.max(numKblkMap.keySet());
+      } else {
+        while (!numKblkMap.containsKey(maxNum)) {
+          maxNum--;
+        }
+      }
+      return numKblkMap.get(maxNum).get(0);
+    }
+
     public List<KhaosBlock> getBlockByNum(Long num) {
       return numKblkMap.get(num);
     }
@@ -183,11 +286,10 @@ public class KhaosDatabase extends UnichainDatabase {
       miniUnlinkedStore.remove(hash);
     }
 
-    head = miniStore.numKblkMap.entrySet().stream()
-        .max(Comparator.comparingLong(Map.Entry::getKey))
-        .map(Map.Entry::getValue)
-        .map(list -> list.get(0))
-        .orElseThrow(() -> new RuntimeException("khaosDB head should not be null."));
+    head = miniStore.getHighest();
+    if (head == null) {
+      throw new RuntimeException("khaosDB head should not be null.");
+    }
   }
 
   /**
@@ -272,39 +374,57 @@ public class KhaosDatabase extends UnichainDatabase {
   public Pair<LinkedList<KhaosBlock>, LinkedList<KhaosBlock>> getBranch(Sha256Hash block1,
       Sha256Hash block2)
       throws NonCommonBlockException {
-    LinkedList<KhaosBlock> list1 = new LinkedList<>();
-    LinkedList<KhaosBlock> list2 = new LinkedList<>();
     KhaosBlock kblk1 = miniStore.getByHash(block1);
     checkNull(kblk1);
     KhaosBlock kblk2 = miniStore.getByHash(block2);
     checkNull(kblk2);
 
-    while (kblk1.num > kblk2.num) {
-      list1.add(kblk1);
-      kblk1 = kblk1.getParent();
-      checkNull(kblk1);
-      checkNull(miniStore.getByHash(kblk1.id));
-    }
+    // found through the skip pointers first, so a fork without common block fails before any walk
+    KhaosBlock ancestor = getCommonAncestor(kblk1, kblk2);
+    checkNull(ancestor);
+    checkNull(miniStore.getByHash(ancestor.id));
 
-    while (kblk2.num > kblk1.num) {
-      list2.add(kblk2);
-      kblk2 = kblk2.getParent();
-      checkNull(kblk2);
-      checkNull(miniStore.getByHash(kblk2.id));
-    }
+    return new Pair<>(getPath(kblk1, ancestor), getPath(kblk2, ancestor));
+  }
 
-    while (!Objects.equals(kblk1, kblk2)) {
-      list1.add(kblk1);
-      list2.add(kblk2);
-      kblk1 = kblk1.getParent();
-      checkNull(kblk1);
-      checkNull(miniStore.getByHash(kblk1.id));
-      kblk2 = kblk2.getParent();
-      checkNull(kblk2);
-      checkNull(miniStore.getByHash(kblk2.id));
+  private static KhaosBlock getCommonAncestor(KhaosBlock kblk1, KhaosBlock kblk2) {
+    if (kblk1.num > kblk2.num) {
+      kblk1 = kblk1.getAncestor(kblk2.num);
+    } else if (kblk2.num > kblk1.num) {
+      kblk2 = kblk2.getAncestor(kblk1.num);
     }
+    while (kblk1 != null && kblk2 != null && !Objects.equals(kblk1, kblk2)) {
+      // same number, so the skips go to the same number: different blocks there, the common
+      // ancestor is below them
+      KhaosBlock skip1 = kblk1.getSkip();
+      KhaosBlock skip2 = kblk2.getSkip();
+      if (skip1 != null && skip2 != null && !Objects.equals(skip1, skip2)) {
+        kblk1 = skip1;
+        kblk2 = skip2;
+      } else {
+        kblk1 = kblk1.getParent();
+        kblk2 = kblk2.getParent();
+      }
+    }
+    return kblk1 == null || kblk2 == null ? null : kblk1;
+  }
 
-    return new Pair<>(list1, list2);
+  /**
+   * @return the blocks from the block down to the ancestor, the ancestor excluded
+   */
+  private LinkedList<KhaosBlock> getPath(KhaosBlock kblk, KhaosBlock ancestor)
+      throws NonCommonBlockException {
+    LinkedList<KhaosBlock> list = new LinkedList<>();
+    while (kblk.num > ancestor.num) {
+      list.add(kblk);
+      kblk = kblk.getParent();
+      checkNull(kblk);
+      checkNull(miniStore.getByHash(kblk.id));
+    }
+    if (!Objects.equals(kblk, ancestor)) {
+      throw new NonCommonBlockException();
+    }
+    return list;
   }
 
   private void checkNull(Object o) throws NonCommonBlockException {
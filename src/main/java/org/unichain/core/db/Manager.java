@@ -3,8 +3,6 @@ package org.unichain.core.db;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
-import com.google.common.primitives.Longs;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
@@ -37,15 +35,23 @@ import org.unichain.core.Constant;
 import org.unichain.core.capsule.*;
 import org.unichain.core.capsule.BlockCapsule.BlockId;
 import org.unichain.core.capsule.utils.BlockUtil;
+import org.unichain.core.capsule.utils.SignatureCache;
 import org.unichain.core.config.Parameter.ChainConstant;
 import org.unichain.core.config.args.Args;
 import org.unichain.core.config.args.GenesisBlock;
 import org.unichain.core.db.KhaosDatabase.KhaosBlock;
 import org.unichain.core.db.accountstate.TrieService;
 import org.unichain.core.db.accountstate.callback.AccountStateCallBack;
+import org.unichain.core.db.api.AddressHistoryHelper;
 import org.unichain.core.db.api.AssetUpdateHelper;
+import org.unichain.core.db.api.FutureDealIndexHelper;
+import org.unichain.core.db.api.RewardViHelper;
+import org.unichain.core.db.api.TokenNameIndexHelper;
+import org.unichain.core.db.api.TransactionPositionHelper;
+import org.unichain.core.db.common.TransactionPosition;
 import org.unichain.core.db2.core.ISession;
 import org.unichain.core.db2.core.IUnichainChainBase;
+import org.unichain.core.db2.core.ReadView;
 import org.unichain.core.db2.core.SnapshotManager;
 import org.unichain.core.exception.*;
 import org.unichain.core.net.UnichainNetService;
@@ -99,6 +105,15 @@ public class Manager {
   @Autowired
   private FutureTransferStore futureTransferStore;
 
+  @Autowired
+  private FutureDealIndexStore futureDealIndexStore;
+
+  @Autowired
+  private TokenNameIndexStore tokenNameIndexStore;
+
+  @Autowired
+  private AddressHistoryStore addressHistoryStore;
+
   @Autowired
   private AssetIssueV2Store assetIssueV2Store;
   @Autowired
@@ -191,6 +206,12 @@ public class Manager {
 
   private BlockingQueue<TransactionCapsule> pushTransactionQueue = new LinkedBlockingQueue<>();
 
+  @Getter
+  private TransactionAdmission transactionAdmission;
+
+  // longest hold of the lock by one admission batch before it is given back
+  private static final long ADMISSION_LOCK_SLICE_MS = 50;
+
   @Getter
   private Cache<Sha256Hash, Boolean> transactionIdCache = CacheBuilder.newBuilder().maximumSize(100_000).recordStats().build();
 
@@ -216,6 +237,22 @@ public class Manager {
     return getDynamicPropertiesStore().getTokenUpdateDone() == 0L;
   }
 
+  public boolean needToIndexTransactionPosition() {
+    return getDynamicPropertiesStore().getTransactionPositionIndexDone() == 0L;
+  }
+
+  public boolean needToIndexRewardVi() {
+    return getDynamicPropertiesStore().getRewardViIndexDone() == 0L;
+  }
+
+  public boolean needToIndexTokenName() {
+    return getDynamicPropertiesStore().getTokenNameIndexDone() == 0L;
+  }
+
+  public boolean needToIndexFutureDeal() {
+    return getDynamicPropertiesStore().getFutureDealIndexDone() == 0L;
+  }
+
   public DynamicPropertiesStore getDynamicPropertiesStore() {
     return this.dynamicPropertiesStore;
   }
@@ -431,6 +468,7 @@ public class Manager {
     accountStateCallBack.setManager(this);
     trieService.setManager(this);
     revokingStore.disable();
+    ReadView.setWriterLock(this);
     revokingStore.check();
     this.setWitnessController(WitnessController.createInstance(this));
     this.setProposalController(ProposalController.createInstance(this));
@@ -464,12 +502,46 @@ public class Manager {
       new AssetUpdateHelper(this).doWork();
     }
 
+    if (Args.getInstance().isNeedToIndexTransactionPosition() && needToIndexTransactionPosition()) {
+      new TransactionPositionHelper(this).doWork();
+    }
+
+    if (needToIndexRewardVi()) {
+      if (Args.getInstance().isNeedToIndexRewardVi()) {
+        new RewardViHelper(this).doWork();
+      } else {
+        logger.warn("Reward vi of the past cycles is not computed, set storage.needToIndexRewardVi"
+            + " before ALLOW_NEW_REWARD_ALGORITHM takes effect");
+      }
+    }
+
+    if (Args.getInstance().isNeedToIndexTokenName() && needToIndexTokenName()) {
+      new TokenNameIndexHelper(this).doWork();
+    }
+
+    if (Args.getInstance().isNeedToIndexFutureDeal() && needToIndexFutureDeal()) {
+      new FutureDealIndexHelper(this).doWork();
+    }
+
+    if (addressHistoryStore.isEnabled()) {
+      if (addressHistoryStore.getFirstBlockNum() < 0) {
+        addressHistoryStore.saveFirstBlockNum(getHeadBlockNum() + 1);
+      }
+      if (Args.getInstance().isNeedToIndexAddressHistory() && addressHistoryStore.getFirstBlockNum() > 1) {
+        new AddressHistoryHelper(this).doWork();
+      }
+      logger.info("Address history indexed from block {}", addressHistoryStore.getFirstBlockNum());
+    }
+
     //for test only
     dynamicPropertiesStore.updateDynamicStoreByConfig();
 
     initCacheTxs();
     revokingStore.enable();
     validateSignService = Executors.newFixedThreadPool(Args.getInstance().getValidateSignThreadNum());
+    if (Args.getInstance().isBatchTransactionAdmission()) {
+      transactionAdmission = new TransactionAdmission(this);
+    }
     Thread repushThread = new Thread(repushLoop);
     repushThread.start();
     // add contract event listener for subscribing
@@ -597,10 +669,9 @@ public class Manager {
             if (blockCapsule.getTransactions().isEmpty()) {
               emptyBlockCount.incrementAndGet();
             }
-            blockCapsule.getTransactions().stream()
+            transactionCache.putBlock(blockNum, blockCapsule.getTransactions().stream()
                 .map(tc -> tc.getTransactionId().getBytes())
-                .map(bytes -> Maps.immutableEntry(bytes, Longs.toByteArray(blockNum)))
-                .forEach(e -> transactionCache.put(e.getKey(), new BytesCapsule(e.getValue())));
+                .collect(Collectors.toList()));
           } catch (ItemNotFoundException | BadItemException e) {
             logger.info("Init txs cache error.");
             throw new IllegalStateException("Init txs cache error.");
@@ -749,10 +820,16 @@ public class Manager {
       TooBigTransactionException, TransactionExpirationException,
       ReceiptCheckErrException, VMIllegalException, TooBigTransactionResultException {
 
-    synchronized (pushTransactionQueue) {
-      pushTransactionQueue.add(tx);
+    if (transactionAdmission != null) {
+      Exception e = transactionAdmission.admit(tx);
+      if (e != null) {
+        throwPushFailure(e);
+      }
+      return true;
     }
-    
+
+    addPushingTransaction(tx);
+
     try {
       if (!tx.validateSignature(this)) {
         throw new ValidateSignatureException("trans sig validate failed");
@@ -779,6 +856,108 @@ public class Manager {
     return true;
   }
 
+  void addPushingTransaction(TransactionCapsule tx) {
+    synchronized (pushTransactionQueue) {
+      pushTransactionQueue.add(tx);
+    }
+  }
+
+  void removePushingTransaction(TransactionCapsule tx) {
+    pushTransactionQueue.remove(tx);
+  }
+
+  /**
+   * Checks of a transaction to push that do not depend on the pending state, they are done again
+   * when it is processed.
+   */
+  void precheckPendingTransaction(TransactionCapsule tx) throws ValidateSignatureException,
+      ContractValidateException, TaposException, TransactionExpirationException,
+      TooBigTransactionException, DupTransactionException {
+    if (!tx.validateSignature(this)) {
+      throw new ValidateSignatureException("trans sig validate failed");
+    }
+    validateTxAgainBlockVersion(tx, null);
+    validateTapos(tx);
+    validateCommon(tx);
+    if (tx.getInstance().getRawData().getContractList().size() != 1) {
+      throw new ContractSizeNotEqualToOneException("act size should be exactly 1, this is extend feature");
+    }
+    validateDup(tx);
+  }
+
+  /**
+   * Push a batch of transactions into pending under one lock, each one in its own nested session so
+   * a failed transaction is rolled back alone. The lock is given back once it has been held for
+   * ADMISSION_LOCK_SLICE_MS or a block is to be generated, the transactions left are not processed.
+   *
+   * @return failure of each processed transaction, null if it is pending; shorter than the batch when
+   *     the lock was given back before its end
+   */
+  List<Exception> pushAdmittedTransactions(List<TransactionCapsule> txs) {
+    List<Exception> results = new ArrayList<>(txs.size());
+    try {
+      synchronized (this) {
+        if (!session.valid()) {
+          session.setValue(revokingStore.buildSession());
+        }
+
+        long deadline = System.currentTimeMillis() + ADMISSION_LOCK_SLICE_MS;
+        for (TransactionCapsule tx : txs) {
+          if (!results.isEmpty()
+              && (isGeneratingBlock() || System.currentTimeMillis() >= deadline)) {
+            break;
+          }
+          try (ISession tmpSession = revokingStore.buildSession()) {
+            processTransaction(tx, null);
+            pendingTransactions.add(tx);
+            tmpSession.merge();
+            results.add(null);
+          } catch (Exception e) {
+            results.add(e);
+          }
+        }
+      }
+    } catch (RuntimeException e) {
+      txs.forEach(pushTransactionQueue::remove);
+      throw e;
+    }
+    txs.subList(0, results.size()).forEach(pushTransactionQueue::remove);
+    return results;
+  }
+
+  private static void throwPushFailure(Exception e) throws ValidateSignatureException,
+      ContractValidateException, ContractExeException, AccountResourceInsufficientException,
+      DupTransactionException, TaposException, TooBigTransactionException,
+      TransactionExpirationException, ReceiptCheckErrException, VMIllegalException,
+      TooBigTransactionResultException {
+    if (e instanceof ValidateSignatureException) {
+      throw (ValidateSignatureException) e;
+    } else if (e instanceof ContractValidateException) {
+      throw (ContractValidateException) e;
+    } else if (e instanceof ContractExeException) {
+      throw (ContractExeException) e;
+    } else if (e instanceof AccountResourceInsufficientException) {
+      throw (AccountResourceInsufficientException) e;
+    } else if (e instanceof DupTransactionException) {
+      throw (DupTransactionException) e;
+    } else if (e instanceof TaposException) {
+      throw (TaposException) e;
+    } else if (e instanceof TooBigTransactionException) {
+      throw (TooBigTransactionException) e;
+    } else if (e instanceof TransactionExpirationException) {
+      throw (TransactionExpirationException) e;
+    } else if (e instanceof ReceiptCheckErrException) {
+      throw (ReceiptCheckErrException) e;
+    } else if (e instanceof VMIllegalException) {
+      throw (VMIllegalException) e;
+    } else if (e instanceof TooBigTransactionResultException) {
+      throw (TooBigTransactionResultException) e;
+    } else if (e instanceof RuntimeException) {
+      throw (RuntimeException) e;
+    }
+    throw new ContractExeException(e.getMessage());
+  }
+
   public void consumeMultiSignFee(TransactionCapsule unx, TransactionTrace trace, BlockCapsule block) throws AccountResourceInsufficientException, ContractExeException {
     val blockVersion = findBlockVersion(block);
     switch (blockVersion){
@@ -1278,15 +1457,17 @@ public class Manager {
       return null;
     }
 
-    validateTxAgainBlockVersion(txCap, block);
-    validateTapos(txCap);
-    validateCommon(txCap);
+    if (!txCap.isPrechecked()) {
+      validateTxAgainBlockVersion(txCap, block);
+      validateTapos(txCap);
+      validateCommon(txCap);
 
-    if (txCap.getInstance().getRawData().getContractList().size() != 1) {
-      throw new ContractSizeNotEqualToOneException("act size should be exactly 1, this is extend feature");
-    }
+      if (txCap.getInstance().getRawData().getContractList().size() != 1) {
+        throw new ContractSizeNotEqualToOneException("act size should be exactly 1, this is extend feature");
+      }
 
-    validateDup(txCap);
+      validateDup(txCap);
+    }
 
     if (!txCap.validateSignature(this)) {
       throw new ValidateSignatureException("trans sig validate failed");
@@ -1397,6 +1578,7 @@ public class Manager {
     val blockVersion = this.dynamicPropertiesStore.getBlockVersion();
     val blockCapsule = new BlockCapsule(blockVersion, number + 1, preHash, when, witnessCapsule.getAddress());
     blockCapsule.generatedByMyself = true;
+    blockCapsule.startAssembly();
     /**
      *  - revoke/drop current tmp snapshot, get back to stable point
      *  - create new snapshot to apply all block's tx
@@ -1429,7 +1611,7 @@ public class Manager {
         break;
       }
 
-      if ((blockCapsule.getInstance().getSerializedSize() + tx.getSerializedSize() + 3) > ChainConstant.BLOCK_SIZE) {
+      if ((blockCapsule.getSerializedSize() + tx.getSerializedSize() + 3) > ChainConstant.BLOCK_SIZE) {
         postponedUnxCount++;
         continue;
       }
@@ -1501,6 +1683,7 @@ public class Manager {
       }
     }
 
+    blockCapsule.finishAssembly();
     accountStateCallBack.executeGenerateFinish();
 
     /**
@@ -1612,12 +1795,24 @@ public class Manager {
       }
     }
 
+    if (Args.getInstance().isParallelTransactionPrecheck()) {
+      try {
+        preValidateTransactionCommon(block);
+      } catch (InterruptedException e) {
+        logger.error("parallel precheck interrupted exception! block info: {}", block, e);
+        Thread.currentThread().interrupt();
+      }
+    }
+
     TransactionRetCapsule transactionRetCapsule = new TransactionRetCapsule(block);
 
     try {
       accountStateCallBack.preExecute(block);
+      TransactionPosition[] positions = TransactionPosition.of(block.getNum(), block.getInstance());
+      int index = 0;
       for (TransactionCapsule transactionCapsule : block.getTransactions()) {
         transactionCapsule.setBlockNum(block.getNum());
+        transactionCapsule.setPosition(positions[index]);
         if (block.generatedByMyself) {
           transactionCapsule.setVerified(true);
         }
@@ -1627,10 +1822,16 @@ public class Manager {
         if (Objects.nonNull(result)) {
           transactionRetCapsule.addTransactionInfo(result);
         }
+        if (addressHistoryStore.isEnabled()) {
+          addressHistoryStore.index(block.getNum(), index, transactionCapsule);
+        }
+        index++;
       }
       accountStateCallBack.executePushFinish();
     } finally {
       accountStateCallBack.exceptionFinish();
+      // only valid for this block, popped transactions go back to pending
+      block.getTransactions().forEach(tx -> tx.setPrechecked(false));
     }
 
     block.setResult(transactionRetCapsule);
@@ -1820,6 +2021,18 @@ public class Manager {
     return futureTransferStore;
   }
 
+  public FutureDealIndexStore getFutureDealIndexStore() {
+    return futureDealIndexStore;
+  }
+
+  public TokenNameIndexStore getTokenNameIndexStore() {
+    return tokenNameIndexStore;
+  }
+
+  public AddressHistoryStore getAddressHistoryStore() {
+    return addressHistoryStore;
+  }
+
   public AssetIssueV2Store getAssetIssueV2Store() {
     return assetIssueV2Store;
   }
@@ -1861,6 +2074,9 @@ public class Manager {
   }
 
   public void closeAllStore() {
+    if (transactionAdmission != null) {
+      transactionAdmission.close();
+    }
     logger.warn("******** begin to close db ********");
     closeOneStore(accountStore);
     closeOneStore(blockStore);
@@ -1889,6 +2105,9 @@ public class Manager {
     closeOneStore(tokenPoolStore);
     closeOneStore(futureTokenStore);
     closeOneStore(futureTransferStore);
+    closeOneStore(futureDealIndexStore);
+    closeOneStore(tokenNameIndexStore);
+    closeOneStore(addressHistoryStore);
     logger.info("******** end to close db ********");
   }
 
@@ -1944,6 +2163,7 @@ public class Manager {
     if (transSize <= 0) {
       return;
     }
+    long start = System.nanoTime();
     CountDownLatch countDownLatch = new CountDownLatch(transSize);
     List<Future<Boolean>> futures = new ArrayList<>(transSize);
 
@@ -1960,6 +2180,60 @@ public class Manager {
         throw new ValidateSignatureException(e.getCause().getMessage());
       }
     }
+    logger.info("PreValidate Transaction Sign done, block num:{}, cost:{}ms, signature cache hit rate:{}",
+        block.getNum(), (System.nanoTime() - start) / 1_000_000,
+        String.format("%.3f", SignatureCache.getInstance().hitRate()));
+  }
+
+  /**
+   * Run the checks of processTransaction whose inputs do not change while a block is applied
+   * (block version, tapos, size, expiration and dup against the chain) on the validate sign threads.
+   * Passed transactions are marked prechecked, a failed one stays unmarked and fails again at its own
+   * position in the serial loop, so the block outcome is the same as without precheck.
+   */
+  public void preValidateTransactionCommon(BlockCapsule block) throws InterruptedException {
+    List<TransactionCapsule> transactions = block.getTransactions();
+    if (transactions.isEmpty()) {
+      return;
+    }
+
+    List<Future<Sha256Hash>> futures = new ArrayList<>(transactions.size());
+    for (TransactionCapsule transaction : transactions) {
+      futures.add(validateSignService.submit(() -> precheckTransaction(transaction, block)));
+    }
+
+    Set<Sha256Hash> ids = new HashSet<>();
+    for (int i = 0; i < transactions.size(); i++) {
+      Sha256Hash id;
+      try {
+        id = futures.get(i).get();
+      } catch (ExecutionException e) {
+        logger.warn("precheck transaction failed, block num: {}, index: {}", block.getNum(), i, e.getCause());
+        id = null;
+      }
+      // the second copy of a transaction in the same block is a dup only once the first one is applied
+      transactions.get(i).setPrechecked(id != null && ids.add(id));
+    }
+  }
+
+  /**
+   * @return transaction id if all block invariant checks passed, null otherwise
+   */
+  private Sha256Hash precheckTransaction(TransactionCapsule txCap, BlockCapsule block) {
+    try {
+      validateTxAgainBlockVersion(txCap, block);
+      validateTapos(txCap);
+      validateCommon(txCap);
+      if (txCap.getInstance().getRawData().getContractList().size() != 1) {
+        return null;
+      }
+      validateDup(txCap);
+      return txCap.getTransactionId();
+    } catch (ContractValidateException | TaposException | TransactionExpirationException
+        | TooBigTransactionException | DupTransactionException e) {
+      logger.debug("precheck transaction failed: {}", e.getMessage());
+      return null;
+    }
   }
 
   public void rePush(TransactionCapsule tx) {
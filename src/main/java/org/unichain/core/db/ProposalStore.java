@@ -16,7 +16,7 @@ public class ProposalStore extends UnichainStoreWithRevoking<ProposalCapsule> {
 
   @Autowired
   public ProposalStore(@Value("proposal") String dbName) {
-    super(dbName);
+    super(dbName, ProposalCapsule::new);
   }
 
   @Override
@@ -11,7 +11,7 @@ public class RecentBlockStore extends UnichainStoreWithRevoking<BytesCapsule> {
 
   @Autowired
   private RecentBlockStore(@Value("recent-block") String dbName) {
-    super(dbName);
+    super(dbName, BytesCapsule::new);
   }
 
   @Override
@@ -12,7 +12,7 @@ public class StorageRowStore extends UnichainStoreWithRevoking<StorageRowCapsule
 
   @Autowired
   private StorageRowStore(@Value("storage-row") String dbName) {
-    super(dbName);
+    super(dbName, StorageRowCapsule::new);
   }
 
   @Override
@@ -0,0 +1,74 @@
+package org.unichain.core.db;
+
+import com.google.common.primitives.Bytes;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.ArrayUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.unichain.common.utils.ByteArray;
+import org.unichain.core.capsule.BytesCapsule;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Names of the token pools in name order with their count, so token pages are cut without reading
+ * and decoding every pool. Maintained by TokenPoolStore through the revoking layer.
+ */
+@Slf4j(topic = "DB")
+@Component
+public class TokenNameIndexStore extends UnichainStoreWithRevoking<BytesCapsule> {
+
+  private static final byte[] COUNT_KEY = {0};
+  private static final byte[] NAME_PREFIX = {1};
+  private static final byte[] EMPTY = {0};
+
+  @Autowired
+  protected TokenNameIndexStore(@Value("token-name-index") String dbName) {
+    super(dbName, BytesCapsule::new);
+  }
+
+  @Override
+  public BytesCapsule get(byte[] key) {
+    byte[] value = revokingDB.getUnchecked(key);
+    return ArrayUtils.isEmpty(value) ? null : new BytesCapsule(value);
+  }
+
+  public void add(byte[] name) {
+    byte[] key = Bytes.concat(NAME_PREFIX, name);
+    if (has(key)) {
+      return;
+    }
+    put(key, new BytesCapsule(EMPTY));
+    saveCount(getCount() + 1);
+  }
+
+  public void remove(byte[] name) {
+    byte[] key = Bytes.concat(NAME_PREFIX, name);
+    if (!has(key)) {
+      return;
+    }
+    delete(key);
+    saveCount(getCount() - 1);
+  }
+
+  public long getCount() {
+    BytesCapsule bytesCapsule = get(COUNT_KEY);
+    return bytesCapsule == null ? 0 : ByteArray.toLong(bytesCapsule.getData());
+  }
+
+  /**
+   * Names from fromName (inclusive) in name order.
+   */
+  public List<byte[]> getNames(byte[] fromName, int limit) {
+    return revokingDB.getEntriesNext(Bytes.concat(NAME_PREFIX, fromName), limit).stream()
+        .map(e -> Arrays.copyOfRange(e.getKey(), NAME_PREFIX.length, e.getKey().length))
+        .collect(Collectors.toList());
+  }
+
+  private void saveCount(long count) {
+    put(COUNT_KEY, new BytesCapsule(ByteArray.fromLong(count)));
+  }
+}
@@ -8,11 +8,14 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
 import org.unichain.common.utils.Utils;
 import org.unichain.core.capsule.TokenPoolCapsule;
+import org.unichain.core.db.common.DataPage;
 import org.unichain.protos.Contract;
 import org.unichain.protos.Protocol;
 
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
@@ -22,9 +25,17 @@ import static org.unichain.core.services.http.utils.Util.*;
 @Component
 public class TokenPoolStore extends UnichainStoreWithRevoking<TokenPoolCapsule> {
 
+  private static final int NAME_SCAN_BATCH = 1000;
+
+  @Autowired
+  private TokenNameIndexStore tokenNameIndexStore;
+
+  @Autowired
+  private DynamicPropertiesStore dynamicPropertiesStore;
+
   @Autowired
   protected TokenPoolStore(@Value("token-pool") String dbName) {
-    super(dbName);
+    super(dbName, TokenPoolCapsule::new);
   }
 
   @Override
@@ -32,11 +43,33 @@ public class TokenPoolStore extends UnichainStoreWithRevoking<TokenPoolCapsule>
     return super.getUnchecked(key);
   }
 
+  @Override
+  public void put(byte[] key, TokenPoolCapsule item) {
+    if (Objects.nonNull(key) && Objects.nonNull(item)) {
+      tokenNameIndexStore.add(key);
+    }
+    super.put(key, item);
+  }
+
+  @Override
+  public void delete(byte[] key) {
+    tokenNameIndexStore.remove(key);
+    super.delete(key);
+  }
+
   public Contract.TokenPage query(Protocol.TokenPoolQuery query){
     int pageSize = query.hasField(TOKEN_QUERY_FIELD_PAGE_SIZE) ? query.getPageSize() : DEFAULT_PAGE_SIZE;
     int pageIndex = query.hasField(TOKEN_QUERY_FIELD_PAGE_INDEX) ? query.getPageIndex() : DEFAULT_PAGE_INDEX;
     Assert.isTrue(pageSize > 0 && pageIndex >= 0 && pageSize <= MAX_PAGE_SIZE, "Invalid paging info");
 
+    if (query.hasField(TOKEN_QUERY_FIELD_CURSOR)) {
+      return queryAfter(query, pageSize);
+    }
+
+    if (dynamicPropertiesStore.getTokenNameIndexDone() == 1) {
+      return queryByNameIndex(query, pageSize, pageIndex);
+    }
+
     List<Contract.CreateTokenContract> sorted;
     if(query.hasField(TOKEN_QUERY_FIELD_TOKEN_NAME))
     {
@@ -62,4 +95,108 @@ public class TokenPoolStore extends UnichainStoreWithRevoking<TokenPoolCapsule>
             .addAllTokens(Utils.paging(sorted, pageIndex, pageSize))
             .build();
   }
+
+  /**
+   * Pool keys are the upper case token names, so the name index gives the name order: only the names
+   * are scanned and only the tokens of the page are read.
+   */
+  private Contract.TokenPage queryByNameIndex(Protocol.TokenPoolQuery query, int pageSize, int pageIndex) {
+    long start = (long) pageIndex * pageSize;
+    long end = start + pageSize;
+    List<byte[]> pageNames = new ArrayList<>();
+    long total;
+
+    if (query.hasField(TOKEN_QUERY_FIELD_TOKEN_NAME)) {
+      total = 0;
+      byte[] cursor = new byte[0];
+      while (true) {
+        List<byte[]> names = tokenNameIndexStore.getNames(cursor, NAME_SCAN_BATCH);
+        for (byte[] name : names) {
+          if (StringUtils.containsIgnoreCase(new String(name), query.getTokenName())) {
+            if (total >= start && total < end) {
+              pageNames.add(name);
+            }
+            total++;
+          }
+        }
+        if (names.size() < NAME_SCAN_BATCH) {
+          break;
+        }
+        cursor = nextCursor(names.get(names.size() - 1));
+      }
+    } else {
+      total = tokenNameIndexStore.getCount();
+      if (start < total) {
+        pageNames = tokenNameIndexStore.getNames(new byte[0], (int) end).stream()
+                .skip(start)
+                .collect(Collectors.toList());
+      }
+    }
+
+    List<Contract.CreateTokenContract> tokens = pageNames.stream()
+            .map(this::get)
+            .filter(Objects::nonNull)
+            .map(TokenPoolCapsule::getInstance)
+            .collect(Collectors.toList());
+
+    Contract.TokenPage.Builder page = Contract.TokenPage.newBuilder()
+            .setPageSize(pageSize)
+            .setPageIndex(pageIndex)
+            .setTotal(total)
+            .addAllTokens(tokens);
+    if (end < total && !pageNames.isEmpty()) {
+      page.setNextCursor(new String(pageNames.get(pageNames.size() - 1)));
+    }
+    return page.build();
+  }
+
+  /**
+   * Page after the cursor in key (upper case name) order: the pools before the cursor are not read,
+   * and only the matching pools of the scanned names are decoded. The total is the maintained name
+   * count for pages without name filter, it is not set for filtered pages.
+   */
+  private Contract.TokenPage queryAfter(Protocol.TokenPoolQuery query, int pageSize) {
+    byte[] cursor = query.getCursor().getBytes();
+    boolean indexed = dynamicPropertiesStore.getTokenNameIndexDone() == 1;
+    Contract.TokenPage.Builder page = Contract.TokenPage.newBuilder().setPageSize(pageSize);
+    byte[] nextCursor = null;
+
+    if (!query.hasField(TOKEN_QUERY_FIELD_TOKEN_NAME)) {
+      DataPage<TokenPoolCapsule> dataPage = getDataPage(cursor, pageSize);
+      dataPage.content.forEach(token -> page.addTokens(token.getInstance()));
+      nextCursor = dataPage.nextCursor;
+      if (indexed) {
+        page.setTotal(tokenNameIndexStore.getCount());
+      }
+    } else {
+      byte[] last = cursor;
+      boolean more = true;
+      while (more && nextCursor == null) {
+        List<byte[]> names = indexed
+            ? tokenNameIndexStore.getNames(nextCursor(last), NAME_SCAN_BATCH)
+            : revokingDB.getEntriesNext(nextCursor(last), NAME_SCAN_BATCH).stream()
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        for (byte[] name : names) {
+          last = name;
+          if (StringUtils.containsIgnoreCase(new String(name), query.getTokenName())) {
+            TokenPoolCapsule token = get(name);
+            if (token != null) {
+              page.addTokens(token.getInstance());
+            }
+            if (page.getTokensCount() == pageSize) {
+              nextCursor = name;
+              break;
+            }
+          }
+        }
+        more = names.size() == NAME_SCAN_BATCH;
+      }
+    }
+
+    if (nextCursor != null) {
+      page.setNextCursor(new String(nextCursor));
+    }
+    return page.build();
+  }
 }
@@ -0,0 +1,241 @@
+package org.unichain.core.db;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.unichain.core.capsule.TransactionCapsule;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Admission of transactions into pending, in three stages:
+ * <ol>
+ *   <li>checks that do not need the pending state (signature, tapos, dup...) run on the caller threads,</li>
+ *   <li>one executor thread drains the admitted transactions in batches and pushes each batch under the
+ *   lock of the manager, every transaction in its own nested session so a failure only rolls it back;
+ *   the lock is given back in slices and while a block is generated,</li>
+ *   <li>callbacks of the network and api layers run on their own thread, off the executor.</li>
+ * </ol>
+ */
+@Slf4j(topic = "DB")
+public class TransactionAdmission {
+
+  private static final int MAX_BATCH_SIZE = 500;
+  private static final long POLL_TIMEOUT_MS = 100;
+  private static final long WAIT_BLOCK_MS = 10;
+  private static final long STATS_INTERVAL_MS = 60_000;
+
+  private final Manager manager;
+
+  private final BlockingQueue<Admission> queue = new LinkedBlockingQueue<>();
+
+  private final ExecutorService executor = Executors.newSingleThreadExecutor(
+      new ThreadFactoryBuilder().setNameFormat("unx-admission").build());
+
+  private final ExecutorService callbackExecutor = Executors.newSingleThreadExecutor(
+      new ThreadFactoryBuilder().setNameFormat("unx-admission-callback").build());
+
+  private volatile boolean running = true;
+
+  // metrics
+  @Getter
+  private volatile int lastBatchSize;
+  private final AtomicLong admittedCount = new AtomicLong();
+  private final AtomicLong rejectedCount = new AtomicLong();
+  private final AtomicLong batchCount = new AtomicLong();
+  private final AtomicLong batchedCount = new AtomicLong();
+  private final AtomicLong latencySum = new AtomicLong();
+  private long statsTime = System.currentTimeMillis();
+
+  private static class Admission {
+
+    private final TransactionCapsule tx;
+    private final long time = System.currentTimeMillis();
+    private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+    private Admission(TransactionCapsule tx) {
+      this.tx = tx;
+    }
+  }
+
+  public TransactionAdmission(Manager manager) {
+    this.manager = manager;
+    executor.submit(this::process);
+  }
+
+  /**
+   * Run the first stage on the calling thread and queue the transaction.
+   *
+   * @return completed once the transaction is pending, exceptionally with the reason it is not
+   */
+  public CompletableFuture<Void> submit(TransactionCapsule tx) {
+    Admission admission = new Admission(tx);
+    if (!running) {
+      admission.future.completeExceptionally(closed());
+      return admission.future;
+    }
+    try {
+      manager.precheckPendingTransaction(tx);
+    } catch (Exception e) {
+      rejectedCount.incrementAndGet();
+      admission.future.completeExceptionally(e);
+      return admission.future;
+    }
+
+    manager.addPushingTransaction(tx);
+    queue.offer(admission);
+    if (!running) {
+      // closed meanwhile, nothing may drain the queue any more
+      failQueued();
+    }
+    return admission.future;
+  }
+
+  /**
+   * @param callback gets null once the transaction is pending, the failure otherwise
+   */
+  public void submit(TransactionCapsule tx, Consumer<Exception> callback) {
+    submit(tx).whenCompleteAsync((v, e) -> callback.accept(unwrap(e)), callbackExecutor);
+  }
+
+  /**
+   * Wait until the transaction is admitted.
+   *
+   * @return null once the transaction is pending, the failure otherwise
+   */
+  public Exception admit(TransactionCapsule tx) {
+    try {
+      Uninterruptibles.getUninterruptibly(submit(tx));
+      return null;
+    } catch (ExecutionException e) {
+      return unwrap(e.getCause());
+    }
+  }
+
+  public int getQueueDepth() {
+    return queue.size();
+  }
+
+  public double getAverageBatchSize() {
+    long batches = batchCount.get();
+    return batches == 0 ? 0 : (double) batchedCount.get() / batches;
+  }
+
+  /**
+   * Average time from submit to the end of the batch, in milliseconds.
+   */
+  public double getAverageLatency() {
+    long count = batchedCount.get();
+    return count == 0 ? 0 : (double) latencySum.get() / count;
+  }
+
+  /**
+   * Stop admitting, the transactions still queued fail and later submits are rejected.
+   */
+  public void close() {
+    running = false;
+    executor.shutdown();
+    failQueued();
+    callbackExecutor.shutdown();
+  }
+
+  private void failQueued() {
+    Admission admission;
+    while ((admission = queue.poll()) != null) {
+      manager.removePushingTransaction(admission.tx);
+      admission.future.completeExceptionally(closed());
+    }
+  }
+
+  private static IllegalStateException closed() {
+    return new IllegalStateException("transaction admission is closed");
+  }
+
+  private void process() {
+    List<Admission> batch = new ArrayList<>(MAX_BATCH_SIZE);
+    List<TransactionCapsule> txs = new ArrayList<>(MAX_BATCH_SIZE);
+    List<Exception> results = new ArrayList<>(MAX_BATCH_SIZE);
+    while (running) {
+      try {
+        Admission first = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+        batch.forEach(admission -> txs.add(admission.tx));
+
+        while (results.size() < txs.size()) {
+          // the manager gives its lock back within the batch, let the block through
+          while (manager.isGeneratingBlock()) {
+            TimeUnit.MILLISECONDS.sleep(WAIT_BLOCK_MS);
+          }
+          results.addAll(manager.pushAdmittedTransactions(txs.subList(results.size(), txs.size())));
+        }
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < batch.size(); i++) {
+          Admission admission = batch.get(i);
+          latencySum.addAndGet(now - admission.time);
+          if (results.get(i) == null) {
+            admittedCount.incrementAndGet();
+            admission.future.complete(null);
+          } else {
+            rejectedCount.incrementAndGet();
+            admission.future.completeExceptionally(results.get(i));
+          }
+        }
+        lastBatchSize = batch.size();
+        batchCount.incrementAndGet();
+        batchedCount.addAndGet(batch.size());
+        logStats(now);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        // the transactions already processed are pending, the others are dropped
+        for (int i = results.size(); i < batch.size(); i++) {
+          manager.removePushingTransaction(batch.get(i).tx);
+          results.add(closed());
+        }
+        for (int i = 0; i < batch.size(); i++) {
+          if (results.get(i) == null) {
+            batch.get(i).future.complete(null);
+          } else {
+            batch.get(i).future.completeExceptionally(results.get(i));
+          }
+        }
+        break;
+      } catch (Exception e) {
+        logger.error("admit transactions failed", e);
+        batch.forEach(admission -> admission.future.completeExceptionally(e));
+      } finally {
+        batch.clear();
+        txs.clear();
+        results.clear();
+      }
+    }
+  }
+
+  private void logStats(long now) {
+    if (now - statsTime < STATS_INTERVAL_MS) {
+      return;
+    }
+    statsTime = now;
+    logger.info("unx admission, queue depth:{}, last batch:{}, avg batch:{}, avg latency:{} ms, admitted:{}, rejected:{}",
+        getQueueDepth(), lastBatchSize, String.format("%.1f", getAverageBatchSize()),
+        String.format("%.1f", getAverageLatency()), admittedCount.get(), rejectedCount.get());
+  }
+
+  private static Exception unwrap(Throwable e) {
+    while (e instanceof CompletionException || e instanceof ExecutionException) {
+      e = e.getCause();
+    }
+    if (e == null || e instanceof Exception) {
+      return (Exception) e;
+    }
+    return new ExecutionException(e);
+  }
+}
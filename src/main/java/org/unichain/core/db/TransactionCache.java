@@ -3,14 +3,34 @@ package org.unichain.core.db;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.unichain.common.utils.ByteArray;
 import org.unichain.core.capsule.BytesCapsule;
 import org.unichain.core.db2.common.TxCacheDB;
+import org.unichain.core.db2.core.RevokingDBWithCachingNewValue;
+import org.unichain.core.db2.core.Snapshot;
+import org.unichain.core.db2.core.SnapshotRoot;
+
+import java.util.List;
 
 @Slf4j
 public class TransactionCache extends UnichainStoreWithRevoking<BytesCapsule> {
 
   @Autowired
   public TransactionCache(@Value("trans-cache") String dbName) {
-    super(dbName, TxCacheDB.class);
+    super(dbName, TxCacheDB.class, BytesCapsule::new);
+  }
+
+  /**
+   * Bulk load the ids of one block, straight into the cache when no snapshot is pending (startup).
+   */
+  public void putBlock(long blockNum, List<byte[]> transactionIds) {
+    Snapshot head = ((RevokingDBWithCachingNewValue) revokingDB).getHead();
+    if (Snapshot.isRoot(head)) {
+      ((TxCacheDB) ((SnapshotRoot) head).getDb()).putAll(blockNum, transactionIds);
+      return;
+    }
+
+    BytesCapsule value = new BytesCapsule(ByteArray.fromLong(blockNum));
+    transactionIds.forEach(id -> put(id, value));
   }
 }
@@ -14,7 +14,7 @@ public class TransactionHistoryStore extends UnichainStoreWithRevoking<Transacti
 
   @Autowired
   public TransactionHistoryStore(@Value("transactionHistoryStore") String dbName) {
-    super(dbName);
+    super(dbName, TransactionInfoCapsule::new);
   }
 
   @Override
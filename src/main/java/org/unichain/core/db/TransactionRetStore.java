@@ -24,7 +24,7 @@ public class TransactionRetStore extends UnichainStoreWithRevoking<TransactionRe
 
   @Autowired
   public TransactionRetStore(@Value("transactionRetStore") String dbName) {
-    super(dbName);
+    super(dbName, TransactionRetCapsule::new);
   }
 
   @Override
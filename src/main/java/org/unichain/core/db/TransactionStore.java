@@ -1,5 +1,6 @@
 package org.unichain.core.db;
 
+import com.google.protobuf.CodedInputStream;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.ArrayUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,10 +9,12 @@ import org.springframework.stereotype.Component;
 import org.unichain.common.utils.ByteArray;
 import org.unichain.common.utils.Sha256Hash;
 import org.unichain.core.capsule.BlockCapsule;
+import org.unichain.core.capsule.BlockCapsule.BlockId;
 import org.unichain.core.capsule.TransactionCapsule;
 import org.unichain.core.db.KhaosDatabase.KhaosBlock;
+import org.unichain.core.db.common.TransactionPosition;
 import org.unichain.core.exception.BadItemException;
-import org.unichain.core.exception.StoreException;
+import org.unichain.core.exception.ItemNotFoundException;
 
 import java.util.List;
 import java.util.Objects;
@@ -23,25 +26,26 @@ public class TransactionStore extends UnichainStoreWithRevoking<TransactionCapsu
   @Autowired
   private BlockStore blockStore;
 
+  @Autowired
+  private BlockIndexStore blockIndexStore;
+
   @Autowired
   private KhaosDatabase khaosDatabase;
 
   @Autowired
   private TransactionStore(@Value("trans") String dbName) {
-    super(dbName);
+    super(dbName, TransactionCapsule::new);
   }
 
   @Override
   public void put(byte[] key, TransactionCapsule item) {
     if (Objects.isNull(item) || item.getBlockNum() == -1) {
       super.put(key, item);
+    } else if (Objects.nonNull(item.getPosition())) {
+      revokingDB.put(key, item.getPosition().encode());
     } else {
       revokingDB.put(key, ByteArray.fromLong(item.getBlockNum()));
     }
-
-    if (Objects.nonNull(indexHelper)) {
-      indexHelper.update(item.getInstance());
-    }
   }
 
   private TransactionCapsule getTransactionFromBlockStore(byte[] key, long blockNum) {
@@ -56,6 +60,43 @@ public class TransactionStore extends UnichainStoreWithRevoking<TransactionCapsu
     return null;
   }
 
+  /**
+   * Parse only the bytes of the indexed transaction out of the stored block.
+   */
+  private TransactionCapsule getTransactionFromBlockStore(byte[] key, TransactionPosition position) {
+    try {
+      BlockId blockId = blockIndexStore.get(position.getBlockNum());
+      byte[] blockBytes = blockStore.getBytes(blockId.getBytes());
+      if (!position.fitsIn(blockBytes)) {
+        return null;
+      }
+      TransactionCapsule transactionCapsule = new TransactionCapsule(
+          CodedInputStream.newInstance(blockBytes, position.getOffset(), position.getLength()));
+      if (transactionCapsule.getTransactionId().equals(Sha256Hash.wrap(key))) {
+        return transactionCapsule;
+      }
+      logger.warn("transaction position mismatch, id:{}, block:{}, index:{}",
+          ByteArray.toHexString(key), position.getBlockNum(), position.getIndex());
+    } catch (ItemNotFoundException | BadItemException e) {
+      logger.debug(e.getMessage(), e);
+    }
+    return null;
+  }
+
+  private TransactionCapsule getTransactionFromKhaosDatabase(byte[] key, TransactionPosition position) {
+    List<KhaosBlock> khaosBlocks = khaosDatabase.getMiniStore().getBlockByNum(position.getBlockNum());
+    for (KhaosBlock bl : khaosBlocks) {
+      List<TransactionCapsule> transactions = bl.getBlk().getTransactions();
+      if (position.getIndex() < transactions.size()) {
+        TransactionCapsule e = transactions.get(position.getIndex());
+        if (e.getTransactionId().equals(Sha256Hash.wrap(key))) {
+          return e;
+        }
+      }
+    }
+    return getTransactionFromKhaosDatabase(key, position.getBlockNum());
+  }
+
   private TransactionCapsule getTransactionFromKhaosDatabase(byte[] key, long high) {
     List<KhaosBlock> khaosBlocks = khaosDatabase.getMiniStore().getBlockByNum(high);
     for (KhaosBlock bl : khaosBlocks) {
@@ -68,6 +109,18 @@ public class TransactionStore extends UnichainStoreWithRevoking<TransactionCapsu
     return null;
   }
 
+  /**
+   * Replace a legacy entry holding only the block number by the transaction position.
+   */
+  public boolean updatePosition(byte[] key, TransactionPosition position) {
+    byte[] value = revokingDB.getUnchecked(key);
+    if (ArrayUtils.isEmpty(value) || value.length != 8 || ByteArray.toLong(value) != position.getBlockNum()) {
+      return false;
+    }
+    revokingDB.put(key, position.encode());
+    return true;
+  }
+
   public long getBlockNumber(byte[] key) throws BadItemException {
     byte[] value = revokingDB.getUnchecked(key);
     if (ArrayUtils.isEmpty(value)) {
@@ -77,6 +130,9 @@ public class TransactionStore extends UnichainStoreWithRevoking<TransactionCapsu
     if (value.length == 8) {
       return ByteArray.toLong(value);
     }
+    if (TransactionPosition.isPosition(value)) {
+      return TransactionPosition.decode(value).getBlockNum();
+    }
     TransactionCapsule transactionCapsule = new TransactionCapsule(value);
     return transactionCapsule.getBlockNum();
   }
@@ -94,6 +150,15 @@ public class TransactionStore extends UnichainStoreWithRevoking<TransactionCapsu
       if (transactionCapsule == null) {
         transactionCapsule = getTransactionFromKhaosDatabase(key, blockHigh);
       }
+    } else if (TransactionPosition.isPosition(value)) {
+      TransactionPosition position = TransactionPosition.decode(value);
+      transactionCapsule = getTransactionFromBlockStore(key, position);
+      if (transactionCapsule == null) {
+        transactionCapsule = getTransactionFromKhaosDatabase(key, position);
+      }
+      if (transactionCapsule == null) {
+        transactionCapsule = getTransactionFromBlockStore(key, position.getBlockNum());
+      }
     }
 
     return transactionCapsule == null ? new TransactionCapsule(value) : transactionCapsule;
@@ -115,24 +180,4 @@ public class TransactionStore extends UnichainStoreWithRevoking<TransactionCapsu
   public long getTotalTransactions() {
     return 0; //Streams.stream(iterator()).count();
   }
-
-  @Override
-  public void delete(byte[] key) {
-    deleteIndex(key);
-    super.delete(key);
-  }
-
-  private void deleteIndex(byte[] key) {
-    if (Objects.nonNull(indexHelper)) {
-      TransactionCapsule item;
-      try {
-        item = get(key);
-        if (Objects.nonNull(item)) {
-          indexHelper.remove(item.getInstance());
-        }
-      } catch (StoreException e) {
-        logger.error("deleteIndex: ", e);
-      }
-    }
-  }
 }
@@ -1,14 +1,13 @@
 package org.unichain.core.db;
 
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Streams;
 import com.google.common.reflect.TypeToken;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
-import lombok.var;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.unichain.common.utils.Utils;
 import org.unichain.core.capsule.ProtoCapsule;
 import org.unichain.core.capsule.TokenPoolCapsule;
 import org.unichain.core.config.args.Args;
@@ -28,10 +27,12 @@ import org.unichain.core.services.http.utils.Util;
 import javax.annotation.PostConstruct;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j(topic = "DB")
@@ -50,8 +51,20 @@ public abstract class UnichainStoreWithRevoking<T extends ProtoCapsule> implemen
   @Getter
   private String dbName;
 
+  private CapsuleFactory<T> factory;
+  private CapsuleCache<T> capsuleCache;
+
   protected UnichainStoreWithRevoking(String dbName) {
+    this(dbName, (CapsuleFactory<T>) null);
+  }
+
+  /**
+   * @param factory decoder of the stored bytes, the byte[] constructor of the capsule found by reflection
+   * if null
+   */
+  protected UnichainStoreWithRevoking(String dbName, CapsuleFactory<T> factory) {
     this.dbName = dbName;
+    this.factory = factory == null ? reflectiveFactory() : factory;
     int dbVersion = Args.getInstance().getStorage().getDbVersion();
     String dbEngine = Args.getInstance().getStorage().getDbEngine();
     if (dbVersion == 1) {
@@ -68,7 +81,12 @@ public abstract class UnichainStoreWithRevoking<T extends ProtoCapsule> implemen
   }
 
   protected UnichainStoreWithRevoking(String dbName, Class<? extends DB> clz) {
+    this(dbName, clz, null);
+  }
+
+  protected UnichainStoreWithRevoking(String dbName, Class<? extends DB> clz, CapsuleFactory<T> factory) {
     this.dbName = dbName;
+    this.factory = factory == null ? reflectiveFactory() : factory;
     int dbVersion = Args.getInstance().getStorage().getDbVersion();
     if (dbVersion == 2) {
       this.revokingDB = new RevokingDBWithCachingNewValue(dbName, clz);
@@ -77,6 +95,20 @@ public abstract class UnichainStoreWithRevoking<T extends ProtoCapsule> implemen
     }
   }
 
+  /**
+   * Keep the decoded values of hot keys, if a cache size is configured for this db.
+   *
+   * @param type protobuf message of the capsule
+   * @param wrap new capsule of a decoded message
+   */
+  protected <P> void enableCapsuleCache(Class<P> type, Function<P, T> wrap) {
+    int size = Args.getInstance().getStorage().getCapsuleCacheSize(dbName);
+    if (size > 0) {
+      capsuleCache = new CapsuleCache<>(dbName, size, instance -> wrap.apply(type.cast(instance)));
+      logger.info("capsule cache of {} enabled, size:{}", dbName, size);
+    }
+  }
+
   @PostConstruct
   private void init() {
     revokingDatabase.add(revokingDB);
@@ -84,6 +116,7 @@ public abstract class UnichainStoreWithRevoking<T extends ProtoCapsule> implemen
 
   // only for test
   protected UnichainStoreWithRevoking(String dbName, RevokingDatabase revokingDatabase) {
+    this.factory = reflectiveFactory();
     this.revokingDB = new RevokingDBWithCachingOldValue(dbName,
         (AbstractRevokingStore) revokingDatabase);
   }
@@ -94,39 +127,94 @@ public abstract class UnichainStoreWithRevoking<T extends ProtoCapsule> implemen
       return;
     }
 
-    revokingDB.put(key, item.getData());
+    byte[] data = item.getData();
+    revokingDB.put(key, data);
+    if (capsuleCache != null) {
+      capsuleCache.put(key, data, item.getInstance());
+    }
   }
 
   @Override
   public void delete(byte[] key) {
     revokingDB.delete(key);
+    if (capsuleCache != null) {
+      capsuleCache.invalidate(key);
+    }
   }
 
   @Override
   public T get(byte[] key) throws ItemNotFoundException, BadItemException {
-    return of(revokingDB.get(key));
+    return of(key, revokingDB.get(key));
   }
 
   @Override
   public T getUnchecked(byte[] key) {
-    byte[] value = revokingDB.getUnchecked(key);
+    return ofUnchecked(key, revokingDB.getUnchecked(key));
+  }
 
-    try {
+  public T of(byte[] value) throws BadItemException {
+    return factory.create(value);
+  }
+
+  /**
+   * Capsule of the value read at this key, from the capsule cache when it holds this value.
+   */
+  protected T of(byte[] key, byte[] value) throws BadItemException {
+    if (capsuleCache == null || value == null) {
       return of(value);
+    }
+
+    T capsule = capsuleCache.get(key, value);
+    if (capsule == null) {
+      capsule = of(value);
+      if (capsule != null) {
+        capsuleCache.put(key, value, capsule.getInstance());
+      }
+    }
+    return capsule;
+  }
+
+  protected T ofUnchecked(byte[] key, byte[] value) {
+    try {
+      return of(key, value);
     } catch (BadItemException e) {
       return null;
     }
   }
 
-  public T of(byte[] value) throws BadItemException {
+  /**
+   * @return stats of the capsule cache, null if the cache is off
+   */
+  public CacheStats getCapsuleCacheStats() {
+    return capsuleCache == null ? null : capsuleCache.stats();
+  }
+
+  /**
+   * @return share of the reads served from the capsule cache, NaN if the cache is off
+   */
+  public double getCapsuleCacheHitRate() {
+    return capsuleCache == null ? Double.NaN : capsuleCache.hitRate();
+  }
+
+  private CapsuleFactory<T> reflectiveFactory() {
+    Constructor<?> constructor;
     try {
-      Constructor constructor = token.getRawType().getConstructor(byte[].class);
-      @SuppressWarnings("unchecked")
-      T t = (T) constructor.newInstance((Object) value);
-      return t;
-    } catch (NoSuchMethodException | IllegalAccessException | InstantiationException | InvocationTargetException e) {
-      throw new BadItemException(e.getMessage());
+      constructor = token.getRawType().getConstructor(byte[].class);
+    } catch (NoSuchMethodException e) {
+      return value -> {
+        throw new BadItemException(e.getMessage());
+      };
     }
+
+    return value -> {
+      try {
+        @SuppressWarnings("unchecked")
+        T t = (T) constructor.newInstance((Object) value);
+        return t;
+      } catch (IllegalAccessException | InstantiationException | InvocationTargetException e) {
+        throw new BadItemException(e.getMessage());
+      }
+    };
   }
 
   @Override
@@ -141,6 +229,9 @@ public abstract class UnichainStoreWithRevoking<T extends ProtoCapsule> implemen
 
   @Override
   public void close() {
+    if (capsuleCache != null) {
+      capsuleCache.logStats();
+    }
     revokingDB.close();
   }
 
@@ -174,8 +265,32 @@ public abstract class UnichainStoreWithRevoking<T extends ProtoCapsule> implemen
             .collect(Collectors.toList());
   }
 
-  public DataPage<T> getDataPage(int pageSize, int pageIndex){
-    var all = getAll();
-    return new DataPage<>(pageIndex, pageSize, all.size(), Utils.paging(all, pageIndex, pageSize));
+  /**
+   * @return the smallest key after this one, where the page after an entry with this key starts
+   */
+  public static byte[] nextCursor(byte[] key) {
+    return Arrays.copyOf(key, key.length + 1);
+  }
+
+  /**
+   * Page of the entries after the cursor in key order: only the entries of the page are read and
+   * decoded, whatever the position of the page in the store.
+   *
+   * @param cursor key of the last entry of the previous page, empty for the first page
+   */
+  public DataPage<T> getDataPage(byte[] cursor, int pageSize) {
+    byte[] from = cursor == null || cursor.length == 0 ? new byte[0] : nextCursor(cursor);
+    List<Map.Entry<byte[], byte[]>> entries = revokingDB.getEntriesNext(from, pageSize);
+    List<T> content = entries.stream()
+        .map(e -> {
+          try {
+            return of(e.getKey(), e.getValue());
+          } catch (BadItemException e1) {
+            throw new RuntimeException(e1);
+          }
+        })
+        .collect(Collectors.toList());
+    byte[] nextCursor = entries.size() < pageSize ? null : entries.get(entries.size() - 1).getKey();
+    return new DataPage<>(pageSize, content, nextCursor);
   }
 }
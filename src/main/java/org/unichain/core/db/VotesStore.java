@@ -11,7 +11,7 @@ public class VotesStore extends UnichainStoreWithRevoking<VotesCapsule> {
 
   @Autowired
   public VotesStore(@Value("votes") String dbName) {
-    super(dbName);
+    super(dbName, VotesCapsule::new);
   }
 
   @Override
@@ -23,7 +23,7 @@ public class WitnessScheduleStore extends UnichainStoreWithRevoking<BytesCapsule
 
   @Autowired
   private WitnessScheduleStore(@Value("witness_schedule") String dbName) {
-    super(dbName);
+    super(dbName, BytesCapsule::new);
   }
 
   private void saveData(byte[] species, List<ByteString> witnessesAddressList) {
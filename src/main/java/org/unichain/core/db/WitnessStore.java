@@ -7,6 +7,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.unichain.core.capsule.WitnessCapsule;
+import org.unichain.protos.Protocol.Witness;
 
 import java.util.List;
 import java.util.Map.Entry;
@@ -18,7 +19,8 @@ public class WitnessStore extends UnichainStoreWithRevoking<WitnessCapsule> {
 
   @Autowired
   protected WitnessStore(@Value("witness") String dbName) {
-    super(dbName);
+    super(dbName, WitnessCapsule::new);
+    enableCapsuleCache(Witness.class, WitnessCapsule::new);
   }
 
   /**
@@ -33,6 +35,6 @@ public class WitnessStore extends UnichainStoreWithRevoking<WitnessCapsule> {
   @Override
   public WitnessCapsule get(byte[] key) {
     byte[] value = revokingDB.getUnchecked(key);
-    return ArrayUtils.isEmpty(value) ? null : new WitnessCapsule(value);
+    return ArrayUtils.isEmpty(value) ? null : ofUnchecked(key, value);
   }
 }
@@ -117,7 +117,7 @@ public class AccountStateCallBack {
     if (Arrays.equals(Internal.EMPTY_BYTE_ARRAY, rootHash)) {
       rootHash = Hash.EMPTY_TRIE_HASH;
     }
-    trie = new TrieImpl(db, rootHash);
+    trie = db.newTrie(rootHash);
   }
 
   public void executePushFinish() throws BadBlockException {
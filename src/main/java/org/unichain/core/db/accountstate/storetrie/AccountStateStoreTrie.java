@@ -7,11 +7,13 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.unichain.core.capsule.BytesCapsule;
 import org.unichain.core.capsule.utils.RLP;
+import org.unichain.core.config.args.Args;
 import org.unichain.core.db.UnichainStoreWithRevoking;
 import org.unichain.core.db.accountstate.AccountStateEntity;
 import org.unichain.core.db.accountstate.TrieService;
 import org.unichain.core.db2.common.DB;
 import org.unichain.core.trie.TrieImpl;
+import org.unichain.core.trie.TrieNodeCache;
 
 import javax.annotation.PostConstruct;
 
@@ -23,9 +25,14 @@ public class AccountStateStoreTrie extends UnichainStoreWithRevoking<BytesCapsul
   @Autowired
   private TrieService trieService;
 
+  // null when disabled
+  private final TrieNodeCache nodeCache;
+
   @Autowired
   private AccountStateStoreTrie(@Value("accountTrie") String dbName) {
-    super(dbName);
+    super(dbName, BytesCapsule::new);
+    int nodeCacheSize = Args.getInstance().getStorage().getTrieNodeCacheSize();
+    nodeCache = nodeCacheSize > 0 ? new TrieNodeCache(dbName, nodeCacheSize) : null;
   }
 
   @PostConstruct
@@ -42,11 +49,18 @@ public class AccountStateStoreTrie extends UnichainStoreWithRevoking<BytesCapsul
   }
 
   public AccountStateEntity getAccount(byte[] key, byte[] rootHash) {
-    TrieImpl trie = new TrieImpl(this, rootHash);
+    TrieImpl trie = newTrie(rootHash);
     byte[] value = trie.get(RLP.encodeElement(key));
     return ArrayUtils.isEmpty(value) ? null : AccountStateEntity.parse(value);
   }
 
+  /**
+   * @return trie over this store sharing the decoded nodes of the other tries
+   */
+  public TrieImpl newTrie(byte[] rootHash) {
+    return new TrieImpl(this, nodeCache, rootHash);
+  }
+
   @Override
   public boolean isEmpty() {
     return super.size() <= 0;
@@ -0,0 +1,59 @@
+package org.unichain.core.db.api;
+
+import lombok.extern.slf4j.Slf4j;
+import org.unichain.core.capsule.BlockCapsule;
+import org.unichain.core.capsule.TransactionCapsule;
+import org.unichain.core.db.AddressHistoryStore;
+import org.unichain.core.db.Manager;
+
+import java.util.List;
+
+/**
+ * Backfill the address history with the blocks applied before the index was enabled.
+ */
+@Slf4j(topic = "DB")
+public class AddressHistoryHelper {
+
+  private Manager dbManager;
+
+  public AddressHistoryHelper(Manager dbManager) {
+    this.dbManager = dbManager;
+  }
+
+  public void doWork() {
+    long start = System.currentTimeMillis();
+    logger.info("Start indexing the address history");
+    long count = indexHistory();
+    finish();
+    logger.info("Complete the address history index, Total transactions：{}, Total time：{} milliseconds",
+        count, System.currentTimeMillis() - start);
+  }
+
+  public long indexHistory() {
+    AddressHistoryStore addressHistoryStore = dbManager.getAddressHistoryStore();
+    long firstBlockNum = addressHistoryStore.getFirstBlockNum();
+    long count = 0;
+    for (long blockNum = 1; blockNum < firstBlockNum; blockNum++) {
+      if (blockNum % 100000 == 0) {
+        logger.info("The number of block that have processed：{}, transactions：{}", blockNum, count);
+      }
+      BlockCapsule block;
+      try {
+        block = dbManager.getBlockByNum(blockNum);
+      } catch (Exception e) {
+        throw new RuntimeException("Block not exists,num:" + blockNum);
+      }
+
+      List<TransactionCapsule> transactions = block.getTransactions();
+      for (int i = 0; i < transactions.size(); i++) {
+        addressHistoryStore.index(blockNum, i, transactions.get(i));
+        count++;
+      }
+    }
+    return count;
+  }
+
+  public void finish() {
+    dbManager.getAddressHistoryStore().saveFirstBlockNum(1);
+  }
+}
@@ -0,0 +1,83 @@
+package org.unichain.core.db.api;
+
+import lombok.extern.slf4j.Slf4j;
+import org.unichain.core.capsule.AccountCapsule;
+import org.unichain.core.capsule.FutureTokenCapsule;
+import org.unichain.core.capsule.FutureTransferCapsule;
+import org.unichain.core.db.FutureDealIndexStore;
+import org.unichain.core.db.FutureTokenStore;
+import org.unichain.core.db.FutureTransferStore;
+import org.unichain.core.db.Manager;
+import org.unichain.protos.Protocol.FutureSummary;
+import org.unichain.protos.Protocol.FutureTokenSummaryV2;
+
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.Optional;
+
+/**
+ * Backfill the positional index of the future deal chains created before the index was kept by the
+ * future actuators.
+ */
+@Slf4j(topic = "DB")
+public class FutureDealIndexHelper {
+
+  private Manager dbManager;
+
+  public FutureDealIndexHelper(Manager dbManager) {
+    this.dbManager = dbManager;
+  }
+
+  public void doWork() {
+    long start = System.currentTimeMillis();
+    logger.info("Start indexing the future deal chains");
+    long count = indexChains();
+    finish();
+    logger.info("Complete the future deal index, Total chains：{}, Total time：{} milliseconds",
+        count, System.currentTimeMillis() - start);
+  }
+
+  public long indexChains() {
+    FutureDealIndexStore dealIndex = dbManager.getFutureDealIndexStore();
+    FutureTransferStore futureStore = dbManager.getFutureTransferStore();
+    FutureTokenStore tokenStore = dbManager.getFutureTokenStore();
+    long count = 0;
+    long accounts = 0;
+    Iterator<Entry<byte[], AccountCapsule>> iterator = dbManager.getAccountStore().iterator();
+    while (iterator.hasNext()) {
+      Entry<byte[], AccountCapsule> entry = iterator.next();
+      byte[] owner = entry.getKey();
+      AccountCapsule account = entry.getValue();
+
+      FutureSummary summary = account.getFutureSummary();
+      if (summary != null && summary.getTotalDeal() > 0) {
+        dealIndex.sync(owner, summary.getTotalDeal(), summary.getLowerTick(), summary.getUpperTick(),
+            key -> Optional.ofNullable(futureStore.get(key)).map(FutureTransferCapsule::getNextTick)
+                .orElse(null));
+        count++;
+      }
+
+      for (FutureTokenSummaryV2 tokenSummary : account.getInstance().getTokenFutureMap().values()) {
+        if (tokenSummary.getTotalDeal() <= 0) {
+          continue;
+        }
+        byte[] chain = FutureDealIndexStore.tokenChain(owner, tokenSummary.getTokenName().getBytes());
+        dealIndex.sync(chain, tokenSummary.getTotalDeal(), tokenSummary.getLowerTick(),
+            tokenSummary.getUpperTick(),
+            key -> Optional.ofNullable(tokenStore.get(key)).map(FutureTokenCapsule::getNextTick)
+                .orElse(null));
+        count++;
+      }
+
+      if (++accounts % 100000 == 0) {
+        logger.info("The number of accounts that have scanned：{}, future deal chains indexed：{}",
+            accounts, count);
+      }
+    }
+    return count;
+  }
+
+  public void finish() {
+    dbManager.getDynamicPropertiesStore().saveFutureDealIndexDone(1);
+  }
+}
@@ -7,7 +7,6 @@ import org.unichain.core.db.api.index.Index;
 import org.unichain.protos.Contract.AssetIssueContract;
 import org.unichain.protos.Protocol.Account;
 import org.unichain.protos.Protocol.Block;
-import org.unichain.protos.Protocol.Transaction;
 import org.unichain.protos.Protocol.Witness;
 
 import javax.annotation.Resource;
@@ -15,9 +14,6 @@ import javax.annotation.Resource;
 @Slf4j(topic = "DB")
 public class IndexHelper {
 
-  @Getter
-  @Resource
-  private Index.Iface<Transaction> transactionIndex;
   @Getter
   @Resource
   private Index.Iface<Block> blockIndex;
@@ -33,7 +29,6 @@ public class IndexHelper {
 
   //@PostConstruct
   public void init() {
-    transactionIndex.fill();
     //blockIndex.fill();
     //witnessIndex.fill();
     //accountIndex.fill();
@@ -44,10 +39,6 @@ public class IndexHelper {
     index.add(bytes);
   }
 
-  public void add(Transaction t) {
-    add(transactionIndex, getKey(t));
-  }
-
   public void add(Block b) {
     //add(blockIndex, getKey(b));
   }
@@ -68,10 +59,6 @@ public class IndexHelper {
     index.update(bytes);
   }
 
-  public void update(Transaction t) {
-    update(transactionIndex, getKey(t));
-  }
-
   public void update(Block b) {
     // update(blockIndex, getKey(b));
   }
@@ -92,10 +79,6 @@ public class IndexHelper {
     index.remove(bytes);
   }
 
-  public void remove(Transaction t) {
-    remove(transactionIndex, getKey(t));
-  }
-
   public void remove(Block b) {
     //remove(blockIndex, getKey(b));
   }
@@ -112,10 +95,6 @@ public class IndexHelper {
     //remove(assetIssueIndex, getKey(a));
   }
 
-  private byte[] getKey(Transaction t) {
-    return new TransactionCapsule(t).getTransactionId().getBytes();
-  }
-
   private byte[] getKey(Block b) {
     return new BlockCapsule(b).getBlockId().getBytes();
   }
@@ -0,0 +1,57 @@
+package org.unichain.core.db.api;
+
+import com.google.protobuf.ByteString;
+import lombok.extern.slf4j.Slf4j;
+import org.unichain.core.capsule.WitnessCapsule;
+import org.unichain.core.db.DelegationStore;
+import org.unichain.core.db.Manager;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Backfill the witness reward vi of the cycles finished before the vi was kept by the cycle rollover,
+ * so the vi of every witness is continuous from the first cycle.
+ */
+@Slf4j(topic = "DB")
+public class RewardViHelper {
+
+  private Manager dbManager;
+
+  public RewardViHelper(Manager dbManager) {
+    this.dbManager = dbManager;
+  }
+
+  public void doWork() {
+    long start = System.currentTimeMillis();
+    logger.info("Start computing the reward vi");
+    long cycles = computeVi();
+    finish();
+    logger.info("Complete the reward vi, Total cycles：{}, Total time：{} milliseconds",
+        cycles, System.currentTimeMillis() - start);
+  }
+
+  public long computeVi() {
+    DelegationStore delegationStore = dbManager.getDelegationStore();
+    long currentCycle = dbManager.getDynamicPropertiesStore().getCurrentCycleNumber();
+    List<byte[]> witnesses = dbManager.getWitnessStore().getAllWitnesses().stream()
+        .map(WitnessCapsule::getAddress)
+        .map(ByteString::toByteArray)
+        .collect(Collectors.toList());
+
+    logger.info("Reward vi to compute, cycles：{}, witnesses：{}", currentCycle, witnesses.size());
+    for (long cycle = 0; cycle < currentCycle; cycle++) {
+      if (cycle % 1000 == 0) {
+        logger.info("The number of cycle that have processed：{}/{}", cycle, currentCycle);
+      }
+      for (byte[] witness : witnesses) {
+        delegationStore.accumulateWitnessVi(cycle, witness);
+      }
+    }
+    return currentCycle;
+  }
+
+  public void finish() {
+    dbManager.getDynamicPropertiesStore().saveRewardViIndexDone(1);
+  }
+}
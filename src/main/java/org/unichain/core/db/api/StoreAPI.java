@@ -1,29 +1,31 @@
 package org.unichain.core.db.api;
 
-import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Streams;
-import com.googlecode.cqengine.resultset.ResultSet;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
-import org.unichain.core.db.api.index.Index;
-import org.unichain.core.db.api.index.TransactionIndex;
-import org.unichain.core.exception.NonUniqueObjectException;
+import org.unichain.common.utils.ByteArray;
+import org.unichain.core.capsule.TransactionCapsule;
+import org.unichain.core.db.AddressHistoryStore;
+import org.unichain.core.db.TransactionStore;
 import org.unichain.protos.Protocol.Transaction;
 
 import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
-import static com.googlecode.cqengine.query.QueryFactory.*;
 import static org.unichain.core.config.Parameter.DatabaseConstants.TRANSACTIONS_COUNT_LIMIT_MAX;
 
 @Component
 @Slf4j(topic = "DB")
 public class StoreAPI {
 
-  @Autowired(required = false)
-  private IndexHelper indexHelper;
+  @Autowired
+  private AddressHistoryStore addressHistoryStore;
+
+  @Autowired
+  private TransactionStore transactionStore;
 
   /********************************************************************************
    *                            account api                                       *
@@ -70,58 +72,51 @@ public class StoreAPI {
    *                       transaction api                                       *
    *******************************************************************************
    */
-  public Transaction getTransactionById(String id) throws NonUniqueObjectException {
+  public Transaction getTransactionById(String id) {
     if (StringUtils.isEmpty(id)) {
       logger.info("id is empty");
       return null;
     }
-    Index.Iface<Transaction> index = indexHelper.getTransactionIndex();
-    try (ResultSet<Transaction> resultSet = index
-        .retrieve(equal(TransactionIndex.Transaction_ID, id))) {
-      if (resultSet.isEmpty()) {
-        return null;
-      }
-
-      return resultSet.uniqueResult();
-    } catch (com.googlecode.cqengine.resultset.common.NonUniqueObjectException e) {
-      throw new NonUniqueObjectException(e);
-    }
+    TransactionCapsule transaction = transactionStore.getUnchecked(ByteArray.fromHexString(id));
+    return transaction == null ? null : transaction.getInstance();
   }
 
   public List<Transaction> getTransactionsFromThis(String address, long offset, long limit) {
-    if (StringUtils.isEmpty(address)) {
-      logger.info("address is empty");
-      return Lists.newArrayList();
-    }
-    Index.Iface<Transaction> index = indexHelper.getTransactionIndex();
-    try (ResultSet<Transaction> resultSet =
-        index.retrieve(
-            equal(TransactionIndex.OWNERS, address),
-            queryOptions(
-                orderBy(ascending(TransactionIndex.TIMESTAMP))))) {
-      if (limit > TRANSACTIONS_COUNT_LIMIT_MAX) {
-        limit = TRANSACTIONS_COUNT_LIMIT_MAX;
-      }
-      return ImmutableList.copyOf(Streams.stream(resultSet).skip(offset).limit(limit).iterator());
-    }
+    return getTransactions(address, AddressHistoryStore.FROM, offset, limit);
   }
 
   public List<Transaction> getTransactionsToThis(String address, long offset, long limit) {
+    return getTransactions(address, AddressHistoryStore.TO, offset, limit);
+  }
+
+  /**
+   * Oldest first, only the transactions of the page are read.
+   *
+   * @throws IllegalStateException if the address history is not indexed
+   */
+  private List<Transaction> getTransactions(String address, byte direction, long offset,
+      long limit) {
+    if (!addressHistoryStore.isEnabled()) {
+      throw new IllegalStateException(
+          "address history is not indexed, set storage.addressHistoryIndex to query it");
+    }
     if (StringUtils.isEmpty(address)) {
       logger.info("address is empty");
       return Lists.newArrayList();
     }
-    Index.Iface<Transaction> index = indexHelper.getTransactionIndex();
-    try (ResultSet<Transaction> resultSet =
-        index.retrieve(
-            equal(TransactionIndex.TOS, address),
-            queryOptions(
-                orderBy(ascending(TransactionIndex.TIMESTAMP))))) {
-      if (limit > TRANSACTIONS_COUNT_LIMIT_MAX) {
-        limit = TRANSACTIONS_COUNT_LIMIT_MAX;
-      }
-      return ImmutableList.copyOf(Streams.stream(resultSet).skip(offset).limit(limit).iterator());
+    if (limit > TRANSACTIONS_COUNT_LIMIT_MAX) {
+      limit = TRANSACTIONS_COUNT_LIMIT_MAX;
+    }
+    if (offset + limit > Integer.MAX_VALUE) {
+      return Lists.newArrayList();
     }
+    return addressHistoryStore.getHistory(ByteArray.fromHexString(address), direction, null,
+        (int) (offset + limit), true).stream()
+        .skip(offset)
+        .map(entry -> transactionStore.getUnchecked(entry.getTransactionId()))
+        .filter(Objects::nonNull)
+        .map(TransactionCapsule::getInstance)
+        .collect(Collectors.toList());
   }
 
   /*******************************************************************************
@@ -0,0 +1,48 @@
+package org.unichain.core.db.api;
+
+import lombok.extern.slf4j.Slf4j;
+import org.unichain.core.capsule.TokenPoolCapsule;
+import org.unichain.core.db.Manager;
+import org.unichain.core.db.TokenNameIndexStore;
+
+import java.util.Iterator;
+import java.util.Map.Entry;
+
+/**
+ * Backfill the token name index with the token pools created before the index was kept by TokenPoolStore.
+ */
+@Slf4j(topic = "DB")
+public class TokenNameIndexHelper {
+
+  private Manager dbManager;
+
+  public TokenNameIndexHelper(Manager dbManager) {
+    this.dbManager = dbManager;
+  }
+
+  public void doWork() {
+    long start = System.currentTimeMillis();
+    logger.info("Start indexing the token names");
+    long count = indexNames();
+    finish();
+    logger.info("Complete the token name index, Total tokens：{}, Total time：{} milliseconds",
+        count, System.currentTimeMillis() - start);
+  }
+
+  public long indexNames() {
+    TokenNameIndexStore tokenNameIndexStore = dbManager.getTokenNameIndexStore();
+    long count = 0;
+    Iterator<Entry<byte[], TokenPoolCapsule>> iterator = dbManager.getTokenPoolStore().iterator();
+    while (iterator.hasNext()) {
+      tokenNameIndexStore.add(iterator.next().getKey());
+      if (++count % 10000 == 0) {
+        logger.info("The number of token names that have indexed：{}", count);
+      }
+    }
+    return count;
+  }
+
+  public void finish() {
+    dbManager.getDynamicPropertiesStore().saveTokenNameIndexDone(1);
+  }
+}
@@ -0,0 +1,65 @@
+package org.unichain.core.db.api;
+
+import lombok.extern.slf4j.Slf4j;
+import org.unichain.core.capsule.BlockCapsule;
+import org.unichain.core.capsule.TransactionCapsule;
+import org.unichain.core.db.Manager;
+import org.unichain.core.db.TransactionStore;
+import org.unichain.core.db.common.TransactionPosition;
+
+import java.util.List;
+
+/**
+ * Backfill the trans store: entries written before the position index only hold the block number,
+ * rewrite them into transaction positions so lookups no longer decode the whole block.
+ */
+@Slf4j(topic = "DB")
+public class TransactionPositionHelper {
+
+  private Manager dbManager;
+
+  public TransactionPositionHelper(Manager dbManager) {
+    this.dbManager = dbManager;
+  }
+
+  public void doWork() {
+    long start = System.currentTimeMillis();
+    logger.info("Start indexing the transaction position");
+    long count = updatePosition();
+    finish();
+    logger.info("Complete the transaction position index, Total transactions：{}, Total time：{} milliseconds",
+        count, System.currentTimeMillis() - start);
+  }
+
+  public long updatePosition() {
+    TransactionStore transactionStore = dbManager.getTransactionStore();
+    long latestBlockHeaderNumber = dbManager.getDynamicPropertiesStore().getLatestBlockHeaderNumber();
+    long count = 0;
+    long blockNum = 1;
+    while (blockNum <= latestBlockHeaderNumber) {
+      if (blockNum % 100000 == 0) {
+        logger.info("The number of block that have processed：{}, transactions：{}", blockNum, count);
+      }
+      BlockCapsule block;
+      try {
+        block = dbManager.getBlockByNum(blockNum);
+      } catch (Exception e) {
+        throw new RuntimeException("Block not exists,num:" + blockNum);
+      }
+
+      List<TransactionCapsule> transactions = block.getTransactions();
+      TransactionPosition[] positions = TransactionPosition.of(blockNum, block.getInstance());
+      for (int i = 0; i < positions.length; i++) {
+        if (transactionStore.updatePosition(transactions.get(i).getTransactionId().getBytes(), positions[i])) {
+          count++;
+        }
+      }
+      blockNum++;
+    }
+    return count;
+  }
+
+  public void finish() {
+    dbManager.getDynamicPropertiesStore().saveTransactionPositionIndexDone(1);
+  }
+}
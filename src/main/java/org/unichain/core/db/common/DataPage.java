@@ -3,15 +3,14 @@ package org.unichain.core.db.common;
 import java.util.List;
 
 public class DataPage<V> {
-    public int pageIndex;
     public int pageSize;
-    public int total;
     public List<V> content;
+    // key of the last entry, cursor of the next page; null when no entry is left after this page
+    public byte[] nextCursor;
 
-    public DataPage(int pageIndex, int pageSize, int total, List<V> content) {
-        this.pageIndex = pageIndex;
+    public DataPage(int pageSize, List<V> content, byte[] nextCursor) {
         this.pageSize = pageSize;
-        this.total = total;
         this.content = content;
+        this.nextCursor = nextCursor;
     }
 }
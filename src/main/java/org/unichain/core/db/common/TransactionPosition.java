@@ -0,0 +1,72 @@
+package org.unichain.core.db.common;
+
+import com.google.protobuf.CodedOutputStream;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.unichain.protos.Protocol.Block;
+import org.unichain.protos.Protocol.Transaction;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Location of one transaction inside a stored block: block number, index in the block and the
+ * byte range of the transaction inside the serialized block.
+ * Stored as the value of the trans store so a lookup only needs to parse the target transaction.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class TransactionPosition {
+
+  // blockNum(8) + index(4) + offset(4) + length(4)
+  public static final int LENGTH = 20;
+
+  // Block.transactions is field 1, length delimited
+  private static final int TRANSACTIONS_TAG_SIZE = CodedOutputStream.computeTagSize(Block.TRANSACTIONS_FIELD_NUMBER);
+
+  private long blockNum;
+  private int index;
+  private int offset;
+  private int length;
+
+  public static boolean isPosition(byte[] bytes) {
+    return bytes != null && bytes.length == LENGTH;
+  }
+
+  public static TransactionPosition decode(byte[] bytes) {
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    return new TransactionPosition(buffer.getLong(), buffer.getInt(), buffer.getInt(), buffer.getInt());
+  }
+
+  public byte[] encode() {
+    return ByteBuffer.allocate(LENGTH)
+        .putLong(blockNum)
+        .putInt(index)
+        .putInt(offset)
+        .putInt(length)
+        .array();
+  }
+
+  /**
+   * Positions of all transactions of a block, in block order.
+   * Protobuf writes fields by number, so the repeated transactions (field 1) always come first in
+   * the serialized block, each one prefixed by its tag and its varint length.
+   */
+  public static TransactionPosition[] of(long blockNum, Block block) {
+    List<Transaction> transactions = block.getTransactionsList();
+    TransactionPosition[] positions = new TransactionPosition[transactions.size()];
+    int offset = 0;
+    for (int i = 0; i < positions.length; i++) {
+      int length = transactions.get(i).getSerializedSize();
+      offset += TRANSACTIONS_TAG_SIZE + CodedOutputStream.computeUInt32SizeNoTag(length);
+      positions[i] = new TransactionPosition(blockNum, i, offset, length);
+      offset += length;
+    }
+    return positions;
+  }
+
+  public boolean fitsIn(byte[] blockBytes) {
+    return offset >= 0 && length >= 0 && blockBytes != null && (long) offset + length <= blockBytes.length;
+  }
+}
@@ -3,6 +3,7 @@ package org.unichain.core.db2.common;
 import org.unichain.core.db.common.WrappedByteArray;
 import org.unichain.core.exception.ItemNotFoundException;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -30,6 +31,12 @@ public interface IRevokingDB extends Iterable<Map.Entry<byte[], byte[]>> {
   // for blockstore
   Set<byte[]> getValuesNext(byte[] key, long limit);
   
+  // entries with key >= from in key order, only the returned window is read from the db
+  List<Map.Entry<byte[], byte[]>> getEntriesNext(byte[] from, long limit);
+
+  // entries with key <= to in reverse key order, only the returned window is read from the db
+  List<Map.Entry<byte[], byte[]>> getEntriesPrevious(byte[] to, long limit);
+
   // for deferTransaction
   Set<byte[]> getValuesPrevious(byte[] key, long limit);
 
@@ -1,79 +1,324 @@
 package org.unichain.core.db2.common;
 
-import com.google.common.collect.ArrayListMultimap;
-import com.google.common.collect.Iterators;
 import com.google.common.collect.Maps;
-import com.google.common.collect.Multimap;
 import com.google.common.primitives.Longs;
 import lombok.extern.slf4j.Slf4j;
 import org.unichain.core.db.common.WrappedByteArray;
 
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.WeakHashMap;
+import java.util.NoSuchElementException;
 
+/**
+ * Recent transaction ids (32 bytes) with the number of the block they were packed in.
+ *
+ * Ids live in one open addressing table (linear probing) of primitive arrays. Block numbers are
+ * tracked by a ring of BLOCK_COUNT buckets indexed by blockNum % BLOCK_COUNT: when a newer block
+ * takes a bucket over, the older block is evicted at once and its ids become stale slots that
+ * lookups ignore and inserts reuse, so eviction is constant time and lookups do not allocate.
+ */
 @Slf4j(topic = "DB")
 public class TxCacheDB implements DB<byte[], byte[]>, Flusher {
 
   // > 65_536(= 2^16) blocks, that is the number of the reference block
-  private final int BLOCK_COUNT = 70_000;
+  private static final int BLOCK_COUNT = 70_000;
 
-  private Map<Key, Long> db = new WeakHashMap<>();
-  private Multimap<Long, Key> blockNumMap = ArrayListMultimap.create();
+  private static final int ID_LENGTH = 32;
+  private static final int ID_WORDS = ID_LENGTH / Long.BYTES;
+  private static final int INITIAL_CAPACITY = 1 << 16;
+  // live + stale + deleted slots never exceed half of the table
+  private static final int MAX_LOAD_SHIFT = 1;
+
+  private static final byte EMPTY = 0;
+  private static final byte FULL = 1;
+  private static final byte DELETED = 2;
+  private static final long NO_BLOCK = Long.MIN_VALUE;
+
+  // ring of block buckets
+  private long[] bucketBlockNum = new long[BLOCK_COUNT];
+  private int[] bucketSize = new int[BLOCK_COUNT];
+
+  // open addressing table
+  private int capacity;
+  private long[] ids;
+  private long[] blockNums;
+  private byte[] states;
+  private int used;
+  private long size;
+
+  public TxCacheDB() {
+    init(INITIAL_CAPACITY);
+  }
+
+  private void init(int capacity) {
+    Arrays.fill(bucketBlockNum, NO_BLOCK);
+    Arrays.fill(bucketSize, 0);
+    allocate(capacity);
+    size = 0;
+  }
+
+  private void allocate(int capacity) {
+    this.capacity = capacity;
+    ids = new long[capacity * ID_WORDS];
+    blockNums = new long[capacity];
+    states = new byte[capacity];
+    used = 0;
+  }
 
   @Override
-  public byte[] get(byte[] key) {
-    Long v = db.get(Key.of(key));
-    return v == null ? null : Longs.toByteArray(v);
+  public synchronized byte[] get(byte[] key) {
+    if (!isId(key)) {
+      return null;
+    }
+
+    int slot = find(key);
+    return slot < 0 ? null : Longs.toByteArray(blockNums[slot]);
   }
 
   @Override
-  public void put(byte[] key, byte[] value) {
+  public synchronized void put(byte[] key, byte[] value) {
     if (key == null || value == null) {
       return;
     }
 
-    Key k = Key.copyOf(key);
-    Long v = Longs.fromByteArray(value);
-    blockNumMap.put(v, k);
-    db.put(k, v);
-    removeEldest();
+    if (!isId(key)) {
+      logger.warn("txCache ignores key of length {}", key.length);
+      return;
+    }
+    put(key, Longs.fromByteArray(value));
+  }
+
+  /**
+   * Load all transaction ids of one block, used to warm the cache at startup.
+   */
+  public synchronized void putAll(long blockNum, List<byte[]> keys) {
+    for (byte[] key : keys) {
+      if (isId(key)) {
+        put(key, blockNum);
+      }
+    }
+  }
+
+  private void put(byte[] key, long blockNum) {
+    if (!acquireBucket(blockNum)) {
+      // older than every block kept in the ring
+      return;
+    }
+
+    int slot = find(key);
+    if (slot >= 0) {
+      releaseBucket(blockNums[slot]);
+      blockNums[slot] = blockNum;
+      ++bucketSize[bucket(blockNum)];
+      return;
+    }
+
+    if ((used + 1) << MAX_LOAD_SHIFT > capacity) {
+      rehash();
+    }
+
+    insert(key, blockNum);
+    ++bucketSize[bucket(blockNum)];
+    ++size;
   }
 
-  private void removeEldest() {
-    Set<Long> keys = blockNumMap.keySet();
-    if (keys.size() > BLOCK_COUNT) {
-      keys.stream()
-          .min(Long::compareTo)
-          .ifPresent(k -> {
-            blockNumMap.removeAll(k);
-            logger.debug("******removeEldest block number:{}, block count:{}", k, keys.size());
-          });
+  /**
+   * Make sure the ring bucket of this block belongs to it, evicting the older block it replaces.
+   */
+  private boolean acquireBucket(long blockNum) {
+    int bucket = bucket(blockNum);
+    long owner = bucketBlockNum[bucket];
+    if (owner == blockNum) {
+      return true;
+    }
+
+    if (owner != NO_BLOCK && owner > blockNum) {
+      return false;
+    }
+
+    if (owner != NO_BLOCK) {
+      size -= bucketSize[bucket];
+      logger.debug("******removeEldest block number:{}, tx count:{}", owner, bucketSize[bucket]);
+    }
+    bucketBlockNum[bucket] = blockNum;
+    bucketSize[bucket] = 0;
+    return true;
+  }
+
+  private void releaseBucket(long blockNum) {
+    --bucketSize[bucket(blockNum)];
+  }
+
+  private static int bucket(long blockNum) {
+    return (int) Math.floorMod(blockNum, (long) BLOCK_COUNT);
+  }
+
+  private boolean isLive(int slot) {
+    return states[slot] == FULL && bucketBlockNum[bucket(blockNums[slot])] == blockNums[slot];
+  }
+
+  private int find(byte[] key) {
+    int mask = capacity - 1;
+    int slot = hash(key) & mask;
+    while (states[slot] != EMPTY) {
+      if (isLive(slot) && matches(slot, key)) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  private void insert(byte[] key, long blockNum) {
+    int mask = capacity - 1;
+    int slot = hash(key) & mask;
+    while (states[slot] == FULL && isLive(slot)) {
+      slot = (slot + 1) & mask;
+    }
+    if (states[slot] == EMPTY) {
+      ++used;
+    }
+    states[slot] = FULL;
+    blockNums[slot] = blockNum;
+    int base = slot * ID_WORDS;
+    for (int i = 0; i < ID_WORDS; i++) {
+      ids[base + i] = word(key, i);
+    }
+  }
+
+  /**
+   * Drop stale and deleted slots, growing the table only when live ids need it.
+   */
+  private void rehash() {
+    long[] oldIds = ids;
+    long[] oldBlockNums = blockNums;
+    byte[] oldStates = states;
+    int oldCapacity = capacity;
+
+    int newCapacity = oldCapacity;
+    while ((size + 1) << (MAX_LOAD_SHIFT + 1) > newCapacity) {
+      newCapacity <<= 1;
+    }
+    allocate(newCapacity);
+
+    byte[] key = new byte[ID_LENGTH];
+    for (int slot = 0; slot < oldCapacity; slot++) {
+      long blockNum = oldBlockNums[slot];
+      if (oldStates[slot] != FULL || bucketBlockNum[bucket(blockNum)] != blockNum) {
+        continue;
+      }
+      int base = slot * ID_WORDS;
+      for (int i = 0; i < ID_WORDS; i++) {
+        writeWord(key, i, oldIds[base + i]);
+      }
+      insert(key, blockNum);
+    }
+    logger.debug("txCache rehash, capacity:{} -> {}, size:{}", oldCapacity, newCapacity, size);
+  }
+
+  private boolean matches(int slot, byte[] key) {
+    int base = slot * ID_WORDS;
+    for (int i = 0; i < ID_WORDS; i++) {
+      if (ids[base + i] != word(key, i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isId(byte[] key) {
+    return key != null && key.length == ID_LENGTH;
+  }
+
+  private static int hash(byte[] key) {
+    // ids are sha256 hashes, any of their words is already uniformly distributed
+    long w = word(key, ID_WORDS - 1);
+    return (int) (w ^ (w >>> 32));
+  }
+
+  private static long word(byte[] key, int index) {
+    int p = index * Long.BYTES;
+    return Longs.fromBytes(key[p], key[p + 1], key[p + 2], key[p + 3],
+        key[p + 4], key[p + 5], key[p + 6], key[p + 7]);
+  }
+
+  private static void writeWord(byte[] key, int index, long word) {
+    int p = index * Long.BYTES;
+    for (int i = Long.BYTES - 1; i >= 0; i--) {
+      key[p + i] = (byte) word;
+      word >>>= 8;
     }
   }
 
   @Override
-  public long size() {
-    return db.size();
+  public synchronized long size() {
+    return size;
   }
 
   @Override
-  public boolean isEmpty() {
-    return db.isEmpty();
+  public synchronized boolean isEmpty() {
+    return size == 0;
   }
 
   @Override
-  public void remove(byte[] key) {
-    if (key != null) {
-      db.remove(Key.of(key));
+  public synchronized void remove(byte[] key) {
+    if (!isId(key)) {
+      return;
+    }
+
+    int slot = find(key);
+    if (slot >= 0) {
+      releaseBucket(blockNums[slot]);
+      states[slot] = DELETED;
+      --size;
     }
   }
 
   @Override
-  public Iterator<Map.Entry<byte[], byte[]>> iterator() {
-    return Iterators.transform(db.entrySet().iterator(),
-        e -> Maps.immutableEntry(e.getKey().getBytes(), Longs.toByteArray(e.getValue())));
+  public synchronized Iterator<Map.Entry<byte[], byte[]>> iterator() {
+    return new Iterator<Map.Entry<byte[], byte[]>>() {
+      private final long[] snapshotIds = Arrays.copyOf(ids, ids.length);
+      private final long[] snapshotBlockNums = Arrays.copyOf(blockNums, blockNums.length);
+      private final boolean[] live = liveSlots();
+      private int slot = advance(0);
+
+      private int advance(int from) {
+        while (from < live.length && !live[from]) {
+          ++from;
+        }
+        return from;
+      }
+
+      @Override
+      public boolean hasNext() {
+        return slot < live.length;
+      }
+
+      @Override
+      public Map.Entry<byte[], byte[]> next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        byte[] key = new byte[ID_LENGTH];
+        int base = slot * ID_WORDS;
+        for (int i = 0; i < ID_WORDS; i++) {
+          writeWord(key, i, snapshotIds[base + i]);
+        }
+        Map.Entry<byte[], byte[]> entry = Maps.immutableEntry(key, Longs.toByteArray(snapshotBlockNums[slot]));
+        slot = advance(slot + 1);
+        return entry;
+      }
+    };
+  }
+
+  private boolean[] liveSlots() {
+    boolean[] live = new boolean[capacity];
+    for (int slot = 0; slot < capacity; slot++) {
+      live[slot] = isLive(slot);
+    }
+    return live;
   }
 
   @Override
@@ -82,15 +327,12 @@ public class TxCacheDB implements DB<byte[], byte[]>, Flusher {
   }
 
   @Override
-  public void close() {
+  public synchronized void close() {
     reset();
-    db = null;
-    blockNumMap = null;
   }
 
   @Override
-  public void reset() {
-    db.clear();
-    blockNumMap.clear();
+  public synchronized void reset() {
+    init(INITIAL_CAPACITY);
   }
 }
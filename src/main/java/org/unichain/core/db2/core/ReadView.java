@@ -0,0 +1,118 @@
+package org.unichain.core.db2.core;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Immutable view of a revoking db as of the last committed block: the committed head layer and the
+ * solidity layer of that moment. Snapshot layers are never written once committed, so a view is read
+ * by walking its layers without the lock of the db.
+ *
+ * The snapshot manager publishes the views of all its dbs after each commit as one set, replaced as a
+ * whole. A thread that opted in (api threads) pins the set published when its call starts and reads
+ * every db through it until the call ends, so one request sees all the stores at the same block; a set
+ * replaced by a pop or a newer commit stays consistent, it is just older. Views are never read while
+ * holding the writer lock, where the thread must see its own uncommitted writes.
+ */
+public final class ReadView {
+
+  // views of the dbs as of one commit, by db
+  private static volatile Map<RevokingDBWithCachingNewValue, ReadView> published =
+      Collections.emptyMap();
+
+  // set pinned by the calling thread for its whole call, null if it does not read through views
+  private static final ThreadLocal<Map<RevokingDBWithCachingNewValue, ReadView>> PINNED =
+      new ThreadLocal<>();
+
+  private static volatile Object writerLock;
+
+  @Getter
+  private final long version;
+  private final Snapshot head;
+  private final Snapshot solidity;
+
+  ReadView(long version, Snapshot head, Snapshot solidity) {
+    this.version = version;
+    this.head = head;
+    this.solidity = solidity;
+  }
+
+  byte[] get(byte[] key, boolean fullNode) {
+    return (fullNode ? head : solidity).get(key);
+  }
+
+  Iterator<Map.Entry<byte[], byte[]>> iterator(boolean fullNode) {
+    return (fullNode ? head : solidity).iterator();
+  }
+
+  Snapshot snapshot(boolean fullNode) {
+    return fullNode ? head : solidity;
+  }
+
+  /**
+   * Replace the published set at once, the map is not changed afterwards.
+   */
+  static void publish(Map<RevokingDBWithCachingNewValue, ReadView> views) {
+    published = Collections.unmodifiableMap(new IdentityHashMap<>(views));
+  }
+
+  /**
+   * @return the view of the db in the set pinned by the calling thread, null if the thread reads the
+   *     db itself
+   */
+  static ReadView of(RevokingDBWithCachingNewValue db) {
+    return isActive() ? PINNED.get().get(db) : null;
+  }
+
+  /**
+   * Lock held by the threads that write the revoking dbs.
+   */
+  public static void setWriterLock(Object lock) {
+    writerLock = lock;
+  }
+
+  static boolean isActive() {
+    if (PINNED.get() == null) {
+      return false;
+    }
+    Object lock = writerLock;
+    return lock == null || !Thread.holdsLock(lock);
+  }
+
+  /**
+   * Run the call on the views published when it starts, a nested call keeps the views of the outer one.
+   */
+  public static <T> T call(Callable<T> callable) throws Exception {
+    if (PINNED.get() != null) {
+      return callable.call();
+    }
+    PINNED.set(published);
+    try {
+      return callable.call();
+    } finally {
+      PINNED.remove();
+    }
+  }
+
+  public static void run(Runnable runnable) {
+    if (PINNED.get() != null) {
+      runnable.run();
+      return;
+    }
+    PINNED.set(published);
+    try {
+      runnable.run();
+    } finally {
+      PINNED.remove();
+    }
+  }
+
+  public static Runnable wrap(Runnable runnable) {
+    return () -> run(runnable);
+  }
+}
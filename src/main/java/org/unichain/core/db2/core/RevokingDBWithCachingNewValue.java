@@ -2,6 +2,8 @@ package org.unichain.core.db2.core;
 
 import com.google.common.collect.Maps;
 import com.google.common.collect.Streams;
+import com.google.common.primitives.UnsignedBytes;
+import lombok.AccessLevel;
 import lombok.Getter;
 import org.unichain.common.utils.ByteUtil;
 import org.unichain.core.config.args.Args;
@@ -13,17 +15,22 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 public class RevokingDBWithCachingNewValue implements IRevokingDB {
-  private ThreadLocal<Boolean> mode = new ThreadLocal<>();
+  // one mode per thread for all dbs, so switching a thread to solidity is a single set
+  private static final ThreadLocal<Boolean> MODE = new ThreadLocal<>();
   private Snapshot head;
+  // changed when the head loses values other than by put/delete on it, see getRevision
+  private volatile long revision;
   @Getter
   private String dbName;
   private Class<? extends DB> clz;
+  @Getter(AccessLevel.PACKAGE)
+  private SnapshotIndex index = new SnapshotIndex();
 
   public RevokingDBWithCachingNewValue(String dbName, Class<? extends DB> clz) {
     this.dbName = dbName;
     this.clz = clz;
     head = new SnapshotRoot(Args.getInstance().getOutputDirectoryByDbName(dbName), dbName, clz);
-    mode.set(true);
+    MODE.set(true);
   }
 
   /**
@@ -32,17 +39,61 @@ public class RevokingDBWithCachingNewValue implements IRevokingDB {
    */
   @Override
   public void setMode(boolean mode) {
-    this.mode.set(mode);
+    setThreadMode(mode);
+  }
+
+  static void setThreadMode(boolean mode) {
+    MODE.set(mode);
+  }
+
+  private static boolean isFullNodeMode() {
+    Boolean mode = MODE.get();
+    return mode == null || mode;
   }
 
   private Snapshot head() {
-    if (mode.get() == null || mode.get()) {
+    if (isFullNodeMode()) {
       return head;
     } else {
       return head.getSolidity();
     }
   }
 
+  /**
+   * View of the committed head for the threads that read without the lock, published by the snapshot
+   * manager with the views of the other dbs.
+   */
+  synchronized ReadView newReadView(long version) {
+    return new ReadView(version, head, head.getSolidity());
+  }
+
+  private ReadView activeReadView() {
+    return ReadView.of(this);
+  }
+
+  /**
+   * Revision of the head values: changes when layers of the head are dropped, on reset and on writes
+   * to a layer under the head. Values read from the head at one revision stay valid as long as it does
+   * not change and no put/delete is made.
+   */
+  public long getRevision() {
+    return revision;
+  }
+
+  /**
+   * Called once the head layer is dropped (revoke, pop, check recovery), not when it is merged.
+   */
+  synchronized void revise() {
+    ++revision;
+  }
+
+  /**
+   * Whether reads of the calling thread are made from the head, not the solidity layer or a read view.
+   */
+  public static boolean isHeadRead() {
+    return isFullNodeMode() && !ReadView.isActive();
+  }
+
   public synchronized Snapshot getHead() {
     return head();
   }
@@ -64,20 +115,32 @@ public class RevokingDBWithCachingNewValue implements IRevokingDB {
     head().reset();
     head().close();
     head = new SnapshotRoot(Args.getInstance().getOutputDirectoryByDbName(dbName), dbName, clz);
+    index.clear();
+    ++revision;
   }
 
   @Override
   public synchronized void put(byte[] key, byte[] value) {
-    head().put(key, value);
+    Snapshot snapshot = head();
+    snapshot.put(key, value);
+    index.put(key, snapshot, snapshot == head);
+    if (snapshot != head) {
+      ++revision;
+    }
   }
 
   @Override
   public synchronized void delete(byte[] key) {
-    head().remove(key);
+    Snapshot snapshot = head();
+    snapshot.remove(key);
+    index.put(key, snapshot, snapshot == head);
+    if (snapshot != head) {
+      ++revision;
+    }
   }
 
   @Override
-  public synchronized byte[] get(byte[] key) throws ItemNotFoundException {
+  public byte[] get(byte[] key) throws ItemNotFoundException {
     byte[] value = getUnchecked(key);
     if (value == null) {
       throw new ItemNotFoundException();
@@ -87,18 +150,33 @@ public class RevokingDBWithCachingNewValue implements IRevokingDB {
   }
 
   @Override
-  public synchronized byte[] getUnchecked(byte[] key) {
-    return head().get(key);
+  public byte[] getUnchecked(byte[] key) {
+    ReadView view = activeReadView();
+    if (view != null) {
+      return view.get(key, isFullNodeMode());
+    }
+    return getLatest(key);
+  }
+
+  private synchronized byte[] getLatest(byte[] key) {
+    Snapshot snapshot = head();
+    return snapshot == head ? index.get(snapshot, key) : snapshot.get(key);
   }
 
   @Override
-  public synchronized boolean has(byte[] key) {
+  public boolean has(byte[] key) {
     return getUnchecked(key) != null;
   }
 
   @Override
-  public synchronized Iterator<Map.Entry<byte[], byte[]>> iterator() {
-    return head().iterator();
+  public Iterator<Map.Entry<byte[], byte[]>> iterator() {
+    ReadView view = activeReadView();
+    if (view != null) {
+      return view.iterator(isFullNodeMode());
+    }
+    synchronized (this) {
+      return head().iterator();
+    }
   }
 
   //for blockstore
@@ -180,6 +258,97 @@ public class RevokingDBWithCachingNewValue implements IRevokingDB {
     return getValuesNext(head(), key, limit);
   }
 
+  @Override
+  public List<Map.Entry<byte[], byte[]>> getEntriesNext(byte[] from, long limit) {
+    return getEntries(from, limit, true);
+  }
+
+  @Override
+  public List<Map.Entry<byte[], byte[]>> getEntriesPrevious(byte[] to, long limit) {
+    return getEntries(to, limit, false);
+  }
+
+  private List<Map.Entry<byte[], byte[]>> getEntries(byte[] bound, long limit, boolean ascending) {
+    if (limit <= 0) {
+      return Collections.emptyList();
+    }
+    ReadView view = activeReadView();
+    if (view != null) {
+      return getEntries(view.snapshot(isFullNodeMode()), bound, limit, ascending);
+    }
+    synchronized (this) {
+      return getEntries(head(), bound, limit, ascending);
+    }
+  }
+
+  /**
+   * The snapshot overlay is merged over the root db: an overlay entry hides the root entry of its key.
+   * The root is read by windows of the entries still missing from bound on, so an overlay key only
+   * costs a read when it hides a root entry of the returned range.
+   */
+  private static List<Map.Entry<byte[], byte[]>> getEntries(Snapshot snapshot, byte[] bound,
+      long limit, boolean ascending) {
+    Map<WrappedByteArray, WrappedByteArray> collection = new HashMap<>();
+    if (snapshot.getPrevious() != null) {
+      ((SnapshotImpl) snapshot).collect(collection);
+    }
+
+    Comparator<byte[]> order = ascending ? UnsignedBytes.lexicographicalComparator()
+        : UnsignedBytes.lexicographicalComparator().reversed();
+    TreeMap<byte[], byte[]> merged = new TreeMap<>(order);
+    collection.forEach((k, v) -> {
+      if (order.compare(k.getBytes(), bound) >= 0 && v != null && v.getBytes() != null) {
+        merged.put(k.getBytes(), v.getBytes());
+      }
+    });
+
+    DB<byte[], byte[]> rootDb = ((SnapshotRoot) snapshot.getRoot()).db;
+    byte[] from = bound;
+    boolean first = true;
+    long visible = 0;
+    while (visible < limit) {
+      // after the first window, from is the last key read: it is read again and skipped
+      long window = limit - visible + (first ? 0 : 1);
+      Map<byte[], byte[]> rootEntries = getRootEntries(rootDb, from, window, ascending);
+      byte[] last = null;
+      for (Map.Entry<byte[], byte[]> e : rootEntries.entrySet()) {
+        byte[] key = e.getKey();
+        if (!first && Arrays.equals(key, from)) {
+          continue;
+        }
+        if (last == null || order.compare(key, last) > 0) {
+          last = key;
+        }
+        if (!collection.containsKey(WrappedByteArray.of(key))) {
+          merged.put(key, e.getValue());
+          ++visible;
+        }
+      }
+      if (rootEntries.size() < window || last == null) {
+        break;
+      }
+      from = last;
+      first = false;
+    }
+
+    return merged.entrySet().stream()
+        .limit(limit)
+        .map(e -> Maps.immutableEntry(e.getKey(), e.getValue()))
+        .collect(Collectors.toList());
+  }
+
+  private static Map<byte[], byte[]> getRootEntries(DB<byte[], byte[]> rootDb, byte[] from,
+      long limit, boolean ascending) {
+    if (rootDb.getClass() == LevelDB.class) {
+      return ascending ? ((LevelDB) rootDb).getDb().getNext(from, limit)
+          : ((LevelDB) rootDb).getDb().getPrev(from, limit);
+    } else if (rootDb.getClass() == RocksDB.class) {
+      return ascending ? ((RocksDB) rootDb).getDb().getNext(from, limit)
+          : ((RocksDB) rootDb).getDb().getPrev(from, limit);
+    }
+    return Collections.emptyMap();
+  }
+
   @Override
   public Set<byte[]> getValuesPrevious(byte[] key, long limit) {
     Map<WrappedByteArray, WrappedByteArray> collection = new HashMap<>();
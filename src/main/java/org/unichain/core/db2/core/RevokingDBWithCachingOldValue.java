@@ -1,5 +1,6 @@
 package org.unichain.core.db2.core;
 
+import com.google.common.primitives.UnsignedBytes;
 import lombok.Getter;
 import org.apache.commons.lang3.ArrayUtils;
 import org.unichain.common.storage.leveldb.LevelDbDataSourceImpl;
@@ -131,6 +132,20 @@ public class RevokingDBWithCachingOldValue implements IRevokingDB {
     return dbSource.getValuesNext(key, limit);
   }
 
+  @Override
+  public List<Map.Entry<byte[], byte[]>> getEntriesNext(byte[] from, long limit) {
+    return dbSource.getNext(from, limit).entrySet().stream()
+        .sorted(Map.Entry.comparingByKey(UnsignedBytes.lexicographicalComparator()))
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  public List<Map.Entry<byte[], byte[]>> getEntriesPrevious(byte[] to, long limit) {
+    return dbSource.getPrev(to, limit).entrySet().stream()
+        .sorted(Map.Entry.comparingByKey(UnsignedBytes.lexicographicalComparator().reversed()))
+        .collect(Collectors.toList());
+  }
+
   @Override
   public Set<byte[]> getValuesPrevious(byte[] key, long limit) {
     return dbSource.getPrevious(key, limit, Long.SIZE / Byte.SIZE).values().stream()
@@ -0,0 +1,129 @@
+package org.unichain.core.db2.core;
+
+import org.unichain.core.db2.common.Key;
+import org.unichain.core.db2.common.Value;
+
+import java.util.*;
+
+/**
+ * Newest snapshot layer holding each key of a revoking db, so a read of the head finds its layer at once
+ * instead of probing every layer down to the root; a key not indexed is read from the root directly.
+ *
+ * Kept by the snapshot manager on every change of the chain:
+ * <ul>
+ *   <li>put/remove on the head: the head becomes the newest layer of the key,</li>
+ *   <li>merge of the head into its previous: its keys move to the previous layer,</li>
+ *   <li>retreat: the keys of the dropped head go back to their next newest layer, found by a walk,</li>
+ *   <li>flush: keys whose newest layer is merged into the root are dropped.</li>
+ * </ul>
+ * A write to a layer under the head (solidity view) can not be placed, the index is then given up and
+ * reads walk the layers as before.
+ */
+class SnapshotIndex {
+
+  private Map<Key, SnapshotImpl> latest = new HashMap<>();
+
+  private boolean enabled = true;
+
+  synchronized boolean isEnabled() {
+    return enabled;
+  }
+
+  synchronized void disable() {
+    enabled = false;
+    latest.clear();
+  }
+
+  synchronized void clear() {
+    latest.clear();
+  }
+
+  /**
+   * @param head newest layer of the chain
+   */
+  byte[] get(Snapshot head, byte[] key) {
+    Key k = Key.of(key);
+    SnapshotImpl layer;
+    synchronized (this) {
+      if (!enabled) {
+        return head.get(key);
+      }
+      layer = latest.get(k);
+    }
+
+    if (layer == null) {
+      return head.getRoot().get(key);
+    }
+
+    Value value = layer.db.get(k);
+    return value == null ? head.get(key) : value.getBytes();
+  }
+
+  synchronized void put(byte[] key, Snapshot layer, boolean isHead) {
+    if (!enabled || !Snapshot.isImpl(layer)) {
+      return;
+    }
+
+    if (!isHead) {
+      disable();
+      return;
+    }
+
+    SnapshotImpl impl = (SnapshotImpl) layer;
+    if (latest.get(Key.of(key)) != impl) {
+      latest.put(Key.copyOf(key), impl);
+    }
+  }
+
+  synchronized void merge(Snapshot from, Snapshot to) {
+    if (!enabled || !Snapshot.isImpl(from) || !Snapshot.isImpl(to)) {
+      return;
+    }
+
+    SnapshotImpl impl = (SnapshotImpl) to;
+    ((SnapshotImpl) from).db.forEach(e -> latest.put(e.getKey(), impl));
+  }
+
+  synchronized void retreat(Snapshot head) {
+    if (!enabled || !Snapshot.isImpl(head)) {
+      return;
+    }
+
+    SnapshotImpl dropped = (SnapshotImpl) head;
+    dropped.db.forEach(e -> {
+      Key key = e.getKey();
+      if (latest.get(key) != dropped) {
+        return;
+      }
+
+      Snapshot snapshot = dropped.getPrevious();
+      while (Snapshot.isImpl(snapshot) && ((SnapshotImpl) snapshot).db.get(key) == null) {
+        snapshot = snapshot.getPrevious();
+      }
+      if (Snapshot.isImpl(snapshot)) {
+        latest.put(key, (SnapshotImpl) snapshot);
+      } else {
+        latest.remove(key);
+      }
+    });
+  }
+
+  /**
+   * @param flushed oldest layers, merged into the root
+   */
+  synchronized void flush(List<Snapshot> flushed) {
+    if (!enabled || flushed.isEmpty()) {
+      return;
+    }
+
+    Set<Snapshot> layers = Collections.newSetFromMap(new IdentityHashMap<>());
+    layers.addAll(flushed);
+    for (Snapshot snapshot : flushed) {
+      ((SnapshotImpl) snapshot).db.forEach(e -> {
+        if (layers.contains(latest.get(e.getKey()))) {
+          latest.remove(e.getKey());
+        }
+      });
+    }
+  }
+}
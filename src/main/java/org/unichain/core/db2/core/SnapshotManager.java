@@ -3,6 +3,7 @@ package org.unichain.core.db2.core;
 import com.google.common.collect.Maps;
 import com.google.common.primitives.Bytes;
 import com.google.common.primitives.Ints;
+import com.google.common.primitives.Longs;
 import com.google.common.util.concurrent.*;
 import lombok.Getter;
 import lombok.Setter;
@@ -20,6 +21,7 @@ import org.unichain.core.db2.common.Value;
 import org.unichain.core.exception.RevokingStoreIllegalStateException;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -48,8 +50,28 @@ public class SnapshotManager implements RevokingDatabase {
 
   private volatile int flushCount = 0;
 
+  // version of the read views, published after each commit
+  private long viewVersion = 0;
+
   private Map<String, ListeningExecutorService> flushServices = new HashMap<>();
 
+  /**
+   * The checkpoint is written under a generation: the entries of the new generation and the generation
+   * marker go in one batch, so the previous checkpoint needs no delete before it and is dropped after
+   * the roots are merged. check() replays only the generation of the marker.
+   */
+  private static final byte[] CHECKPOINT_GENERATION_KEY = "checkpoint-generation".getBytes();
+  private static final byte CHECKPOINT_GENERATION_PREFIX = 1;
+  private long checkPointGeneration = 0;
+  private List<byte[]> checkPointKeys = new ArrayList<>();
+
+  // pipelined flush: checkpoint and root merge run here while the next blocks apply
+  private ListeningExecutorService asyncFlushService = MoreExecutors.listeningDecorator(
+      Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("snapshot-flush").build()));
+  private ListenableFuture<?> pendingFlush;
+  private Map<RevokingDBWithCachingNewValue, List<Snapshot>> pendingSnapshots;
+  private Set<String> pendingMerged;
+
   @Autowired
   @Setter
   @Getter
@@ -86,7 +108,7 @@ public class SnapshotManager implements RevokingDatabase {
 
   @Override
   public void setMode(boolean mode) {
-    dbs.forEach(db -> db.setMode(mode));
+    RevokingDBWithCachingNewValue.setThreadMode(mode);
   }
 
   @Override
@@ -104,8 +126,22 @@ public class SnapshotManager implements RevokingDatabase {
     ++size;
   }
 
-  private void retreat() {
-    dbs.forEach(db -> db.setHead(db.getHead().retreat()));
+  /**
+   * @param drop whether the head layer is dropped, not merged into the layer under it, so that values
+   *     read from it are no longer valid
+   */
+  private void retreat(boolean drop) {
+    if (size <= 1) {
+      // the snapshots of a pending flush must not become the head again
+      completePendingFlush();
+    }
+    dbs.forEach(db -> {
+      db.getIndex().retreat(db.getHead());
+      db.setHead(db.getHead().retreat());
+      if (drop) {
+        db.revise();
+      }
+    });
     --size;
   }
 
@@ -118,8 +154,11 @@ public class SnapshotManager implements RevokingDatabase {
       return;
     }
 
-    dbs.forEach(db -> db.getHead().getPrevious().merge(db.getHead()));
-    retreat();
+    dbs.forEach(db -> {
+      db.getHead().getPrevious().merge(db.getHead());
+      db.getIndex().merge(db.getHead(), db.getHead().getPrevious());
+    });
+    retreat(false);
     --activeSession;
   }
 
@@ -139,7 +178,7 @@ public class SnapshotManager implements RevokingDatabase {
     disabled = true;
 
     try {
-      retreat();
+      retreat(true);
     } finally {
       disabled = false;
     }
@@ -152,6 +191,19 @@ public class SnapshotManager implements RevokingDatabase {
     }
 
     --activeSession;
+    if (activeSession == 0) {
+      publishReadViews();
+    }
+  }
+
+  /**
+   * Publish the committed heads to the readers without the lock, the views of all the dbs at once.
+   */
+  private void publishReadViews() {
+    long version = ++viewVersion;
+    Map<RevokingDBWithCachingNewValue, ReadView> views = new IdentityHashMap<>();
+    dbs.forEach(db -> views.put(db, db.newReadView(version)));
+    ReadView.publish(views);
   }
 
   public synchronized void pop() {
@@ -166,10 +218,11 @@ public class SnapshotManager implements RevokingDatabase {
     disabled = true;
 
     try {
-      retreat();
+      retreat(true);
     } finally {
       disabled = false;
     }
+    publishReadViews();
   }
 
   @Override
@@ -203,6 +256,10 @@ public class SnapshotManager implements RevokingDatabase {
   public void shutdown() {
     System.err.println("******** begin to pop revokingDb ********");
     System.err.println("******** before revokingDb size:" + size);
+    synchronized (this) {
+      completePendingFlush();
+    }
+    asyncFlushService.shutdown();
     try {
       while (shouldBeRefreshed()) {
         logger.info("waiting leveldb flush done");
@@ -258,6 +315,7 @@ public class SnapshotManager implements RevokingDatabase {
     }
 
     root.merge(snapshots);
+    db.getIndex().flush(snapshots);
 
     root.resetSolidity();
     if (db.getHead() == next) {
@@ -274,12 +332,17 @@ public class SnapshotManager implements RevokingDatabase {
     }
 
     if (shouldBeRefreshed()) {
+      if (Args.getInstance().getStorage().isSnapshotAsyncFlush()) {
+        flushAsync();
+        return;
+      }
+
       long start = System.currentTimeMillis();
-      deleteCheckPoint();
-      createCheckPoint();
+      List<byte[]> previousCheckPoint = createCheckPoint(collectFlushSnapshots());
       long checkPointEnd = System.currentTimeMillis();
       refresh();
       flushCount = 0;
+      deleteCheckPoint(previousCheckPoint);
       logger.info("flush cost:{}, create checkpoint cost:{}, refresh cost:{}",
           System.currentTimeMillis() - start,
           checkPointEnd - start,
@@ -288,43 +351,158 @@ public class SnapshotManager implements RevokingDatabase {
     }
   }
 
-  private void createCheckPoint() {
-    Map<WrappedByteArray, WrappedByteArray> batch = new HashMap<>();
-    for (RevokingDBWithCachingNewValue db : dbs) {
-      Snapshot head = db.getHead();
-      if (Snapshot.isRoot(head)) {
+  /**
+   * Hand the oldest flushCount snapshots over to the flush thread. They stay linked until their root
+   * is merged, so reads keep finding their values above the root; they are unlinked by the next flush.
+   */
+  private void flushAsync() {
+    long start = System.currentTimeMillis();
+    completePendingFlush();
+    long waitEnd = System.currentTimeMillis();
+
+    Map<RevokingDBWithCachingNewValue, List<Snapshot>> snapshots = collectFlushSnapshots();
+    Set<String> merged = ConcurrentHashMap.newKeySet();
+    flushCount = 0;
+
+    pendingSnapshots = snapshots;
+    pendingMerged = merged;
+    pendingFlush = asyncFlushService.submit(() -> {
+      long flushStart = System.currentTimeMillis();
+      List<byte[]> previousCheckPoint = createCheckPoint(snapshots);
+      long checkPointEnd = System.currentTimeMillis();
+      mergeRoots(snapshots, merged);
+      deleteCheckPoint(previousCheckPoint);
+      logger.info("async flush cost:{}, create checkpoint cost:{}, refresh cost:{}",
+          System.currentTimeMillis() - flushStart,
+          checkPointEnd - flushStart,
+          System.currentTimeMillis() - checkPointEnd
+      );
+    });
+    logger.info("async flush wait previous:{}", waitEnd - start);
+  }
+
+  /**
+   * Wait for the pending flush and unlink its snapshots from the roots they were merged into.
+   */
+  private void completePendingFlush() {
+    if (pendingFlush == null) {
+      return;
+    }
+
+    try {
+      pendingFlush.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    } catch (ExecutionException e) {
+      logger.error("Snapshot manager error: {} --> ", e.getMessage(), e);
+    }
+
+    pendingSnapshots.forEach((db, snapshots) -> {
+      if (!snapshots.isEmpty() && pendingMerged.contains(db.getDbName())) {
+        db.getIndex().flush(snapshots);
+        unlink(db, snapshots.get(snapshots.size() - 1));
+      }
+    });
+    pendingFlush = null;
+    pendingSnapshots = null;
+    pendingMerged = null;
+  }
+
+  private void mergeRoots(Map<RevokingDBWithCachingNewValue, List<Snapshot>> snapshots, Set<String> merged) {
+    List<ListenableFuture<?>> futures = new ArrayList<>(snapshots.size());
+    snapshots.forEach((db, list) -> {
+      if (list.isEmpty()) {
         return;
       }
+      futures.add(flushServices.get(db.getDbName()).submit(() -> {
+        ((SnapshotRoot) list.get(0).getRoot()).merge(list);
+        merged.add(db.getDbName());
+      }));
+    });
+    Future<?> future = Futures.allAsList(futures);
+    try {
+      future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      logger.error("Snapshot manager error: {} --> ", e.getMessage(), e);
+    }
+  }
 
-      String dbName = db.getDbName();
-      Snapshot next = head.getRoot();
-      for (int i = 0; i < flushCount; ++i) {
-        next = next.getNext();
-        SnapshotImpl snapshot = (SnapshotImpl) next;
-        DB<Key, Value> keyValueDB = snapshot.getDb();
+  private void unlink(RevokingDBWithCachingNewValue db, Snapshot last) {
+    SnapshotRoot root = (SnapshotRoot) last.getRoot();
+    // the solidity may have moved past the merged snapshots meanwhile
+    if (root.getSolidity() == last) {
+      root.resetSolidity();
+    }
+    if (db.getHead() == last) {
+      db.setHead(root);
+    } else {
+      last.getNext().setPrevious(root);
+      root.setNext(last.getNext());
+    }
+  }
+
+  /**
+   * @return the oldest flushCount snapshots of every db, empty when its head is the root
+   */
+  private Map<RevokingDBWithCachingNewValue, List<Snapshot>> collectFlushSnapshots() {
+    Map<RevokingDBWithCachingNewValue, List<Snapshot>> snapshots = new LinkedHashMap<>();
+    for (RevokingDBWithCachingNewValue db : dbs) {
+      List<Snapshot> list = new ArrayList<>();
+      if (!Snapshot.isRoot(db.getHead())) {
+        Snapshot next = db.getHead().getRoot();
+        for (int i = 0; i < flushCount; ++i) {
+          next = next.getNext();
+          list.add(next);
+        }
+      }
+      snapshots.put(db, list);
+    }
+    return snapshots;
+  }
+
+  /**
+   * Write the snapshots as the next checkpoint generation.
+   *
+   * @return keys of the previous checkpoint, to drop once the roots are merged
+   */
+  private List<byte[]> createCheckPoint(Map<RevokingDBWithCachingNewValue, List<Snapshot>> snapshots) {
+    long generation = checkPointGeneration + 1;
+    byte[] prefix = Bytes.concat(new byte[]{CHECKPOINT_GENERATION_PREFIX}, Longs.toByteArray(generation));
+    Map<WrappedByteArray, WrappedByteArray> batch = new HashMap<>();
+    for (Map.Entry<RevokingDBWithCachingNewValue, List<Snapshot>> entry : snapshots.entrySet()) {
+      byte[] dbPrefix = Bytes.concat(prefix, simpleEncode(entry.getKey().getDbName()));
+      for (Snapshot snapshot : entry.getValue()) {
+        DB<Key, Value> keyValueDB = ((SnapshotImpl) snapshot).getDb();
         for (Map.Entry<Key, Value> e : keyValueDB) {
-          Key k = e.getKey();
-          Value v = e.getValue();
-          batch.put(WrappedByteArray.of(Bytes.concat(simpleEncode(dbName), k.getBytes())),
-              WrappedByteArray.of(v.encode()));
+          batch.put(WrappedByteArray.of(Bytes.concat(dbPrefix, e.getKey().getBytes())),
+              WrappedByteArray.of(e.getValue().encode()));
         }
       }
     }
 
-    checkTmpStore.getDbSource().updateByBatch(batch.entrySet().stream()
-            .map(e -> Maps.immutableEntry(e.getKey().getBytes(), e.getValue().getBytes()))
-            .collect(HashMap::new, (m, k) -> m.put(k.getKey(), k.getValue()), HashMap::putAll),
+    Map<byte[], byte[]> rows = new HashMap<>(batch.size() + 1);
+    batch.forEach((k, v) -> rows.put(k.getBytes(), v.getBytes()));
+    List<byte[]> keys = new ArrayList<>(rows.keySet());
+    rows.put(CHECKPOINT_GENERATION_KEY, Longs.toByteArray(generation));
+    checkTmpStore.getDbSource().updateByBatch(rows,
         WriteOptionsWrapper.getInstance().sync(Args.getInstance().getStorage().isDbSync()));
+
+    List<byte[]> previous = checkPointKeys;
+    checkPointKeys = keys;
+    checkPointGeneration = generation;
+    return previous;
   }
 
-  private void deleteCheckPoint() {
-    Map<byte[], byte[]> hmap = new HashMap<byte[], byte[]>();
-    if (!checkTmpStore.getDbSource().allKeys().isEmpty()) {
-      for (Map.Entry<byte[], byte[]> e : checkTmpStore.getDbSource()) {
-        hmap.put(e.getKey(), null);
-      }
+  private void deleteCheckPoint(List<byte[]> keys) {
+    if (keys.isEmpty()) {
+      return;
     }
 
+    Map<byte[], byte[]> hmap = new HashMap<>(keys.size());
+    keys.forEach(key -> hmap.put(key, null));
     checkTmpStore.getDbSource().updateByBatch(hmap, WriteOptionsWrapper.getInstance()
         .sync(Args.getInstance().getStorage().isDbSync()));
   }
@@ -338,12 +516,37 @@ public class SnapshotManager implements RevokingDatabase {
       }
     }
 
-    if (!checkTmpStore.getDbSource().allKeys().isEmpty()) {
+    byte[] marker = checkTmpStore.getDbSource().getData(CHECKPOINT_GENERATION_KEY);
+    checkPointGeneration = marker == null ? 0 : Longs.fromByteArray(marker);
+    int generationLength = 1 + Longs.BYTES;
+
+    // entries of the marked generation, or the legacy unprefixed checkpoint when there is no marker;
+    // everything else is left over by an interrupted cleanup and is dropped by the next flush
+    List<Map.Entry<byte[], byte[]>> checkPoint = new ArrayList<>();
+    List<byte[]> keys = new ArrayList<>();
+    for (Map.Entry<byte[], byte[]> e : checkTmpStore.getDbSource()) {
+      byte[] key = e.getKey();
+      if (Arrays.equals(key, CHECKPOINT_GENERATION_KEY)) {
+        continue;
+      }
+      keys.add(key);
+      if (key[0] == CHECKPOINT_GENERATION_PREFIX && key.length > generationLength) {
+        long generation = Longs.fromByteArray(Arrays.copyOfRange(key, 1, generationLength));
+        if (marker != null && generation == checkPointGeneration) {
+          checkPoint.add(Maps.immutableEntry(Arrays.copyOfRange(key, generationLength, key.length), e.getValue()));
+        }
+      } else if (marker == null) {
+        checkPoint.add(Maps.immutableEntry(key, e.getValue()));
+      }
+    }
+    checkPointKeys = keys;
+
+    if (!checkPoint.isEmpty()) {
       Map<String, RevokingDBWithCachingNewValue> dbMap = dbs.stream()
           .map(db -> Maps.immutableEntry(db.getDbName(), db))
           .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
       advance();
-      for (Map.Entry<byte[], byte[]> e : checkTmpStore.getDbSource()) {
+      for (Map.Entry<byte[], byte[]> e : checkPoint) {
         byte[] key = e.getKey();
         byte[] value = e.getValue();
         String db = simpleDecode(key);
@@ -362,10 +565,11 @@ public class SnapshotManager implements RevokingDatabase {
       }
 
       dbs.forEach(db -> db.getHead().getRoot().merge(db.getHead()));
-      retreat();
+      retreat(true);
     }
 
     unChecked = false;
+    publishReadViews();
   }
 
   private byte[] simpleEncode(String s) {
@@ -1,5 +1,7 @@
 package org.unichain.core.net;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.spongycastle.util.encoders.Hex;
@@ -13,6 +15,7 @@ import org.unichain.core.capsule.BlockCapsule;
 import org.unichain.core.capsule.BlockCapsule.BlockId;
 import org.unichain.core.capsule.TransactionCapsule;
 import org.unichain.core.db.Manager;
+import org.unichain.core.db.TransactionAdmission;
 import org.unichain.core.db.WitnessScheduleStore;
 import org.unichain.core.exception.*;
 import org.unichain.core.exception.P2pException.TypeEnum;
@@ -26,6 +29,7 @@ import java.util.Collection;
 import java.util.LinkedList;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
 
 @Slf4j(topic = "net")
 @Component
@@ -48,6 +52,14 @@ public class UnichainNetDelegate {
 
   private int blockIdCacheSize = 100;
 
+  // blocks recently served to syncing peers, shared by all peers and kept as sent
+  private static final long SERVED_BLOCK_CACHE_BYTES = 64L * 1024 * 1024;
+
+  private Cache<Sha256Hash, BlockMessage> servedBlocks = CacheBuilder.newBuilder()
+      .maximumWeight(SERVED_BLOCK_CACHE_BYTES)
+      .weigher((Sha256Hash id, BlockMessage msg) -> msg.getData().length)
+      .build();
+
   private Queue<BlockId> freshBlockId = new ConcurrentLinkedQueue<BlockId>() {
     @Override
     public boolean offer(BlockId blockId) {
@@ -139,7 +151,7 @@ public class UnichainNetDelegate {
     try {
       switch (type) {
         case BLOCK:
-          return new BlockMessage(dbManager.getBlockById(hash));
+          return getBlockMessage(hash);
         case UNW:
           TransactionCapsule tx = dbManager.getTransactionStore().get(hash.getBytes());
           if (tx != null) {
@@ -155,6 +167,25 @@ public class UnichainNetDelegate {
     }
   }
 
+  /**
+   * The stored block bytes go out as they are: no decoding and no encoding per peer.
+   */
+  private BlockMessage getBlockMessage(Sha256Hash hash) throws StoreException {
+    BlockMessage message = servedBlocks.getIfPresent(hash);
+    if (message != null) {
+      return message;
+    }
+
+    byte[] data = dbManager.getBlockStore().getBytes(hash.getBytes());
+    if (data != null) {
+      message = new BlockMessage(new BlockId(hash), data);
+    } else {
+      message = new BlockMessage(dbManager.getBlockById(hash));
+    }
+    servedBlocks.put(hash, message);
+    return message;
+  }
+
   public void processBlock(BlockCapsule block) throws P2pException {
     synchronized (blockLock) {
       try {
@@ -210,6 +241,50 @@ public class UnichainNetDelegate {
     }
   }
 
+  /**
+   * Push the transaction through the admission pipeline when it is enabled.
+   *
+   * @param callback gets null once the transaction is pending, the failure otherwise
+   */
+  public void pushTransaction(TransactionCapsule unx, Consumer<Exception> callback) {
+    TransactionAdmission admission = dbManager.getTransactionAdmission();
+    if (admission == null) {
+      try {
+        pushTransaction(unx);
+        callback.accept(null);
+      } catch (Exception e) {
+        callback.accept(e);
+      }
+      return;
+    }
+    admission.submit(unx, e -> callback.accept(e == null ? null : toP2pException(e)));
+  }
+
+  public int getAdmissionQueueDepth() {
+    TransactionAdmission admission = dbManager.getTransactionAdmission();
+    return admission == null ? 0 : admission.getQueueDepth();
+  }
+
+  private Exception toP2pException(Exception e) {
+    if (e instanceof ContractSizeNotEqualToOneException
+        || e instanceof VMIllegalException) {
+      return new P2pException(TypeEnum.BAD_UNW, e);
+    }
+    if (e instanceof ContractValidateException
+        || e instanceof ValidateSignatureException
+        || e instanceof ContractExeException
+        || e instanceof DupTransactionException
+        || e instanceof TaposException
+        || e instanceof TooBigTransactionException
+        || e instanceof TransactionExpirationException
+        || e instanceof ReceiptCheckErrException
+        || e instanceof TooBigTransactionResultException
+        || e instanceof AccountResourceInsufficientException) {
+      return new P2pException(TypeEnum.UNW_EXE_FAILED, e);
+    }
+    return e;
+  }
+
   public boolean validBlock(BlockCapsule block) throws P2pException {
     try {
       return witnessScheduleStore.getActiveWitnesses().contains(block.getWitnessAddress())
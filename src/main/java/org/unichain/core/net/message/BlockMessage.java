@@ -1,14 +1,19 @@
 package org.unichain.core.net.message;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import org.unichain.common.overlay.message.Message;
 import org.unichain.common.utils.Sha256Hash;
 import org.unichain.core.capsule.BlockCapsule;
 import org.unichain.core.capsule.BlockCapsule.BlockId;
 import org.unichain.core.capsule.TransactionCapsule;
+import org.unichain.core.exception.BadItemException;
 
 public class BlockMessage extends UnichainMessage {
 
-  private BlockCapsule block;
+  private volatile BlockCapsule block;
+
+  private BlockId blockId;
 
   public BlockMessage(byte[] data) throws Exception {
     super(data);
@@ -26,14 +31,39 @@ public class BlockMessage extends UnichainMessage {
     this.block = block;
   }
 
+  /**
+   * Block served as stored, the bytes are only decoded if the block itself is asked for.
+   */
+  public BlockMessage(BlockId blockId, byte[] data) {
+    this.data = data;
+    this.type = MessageTypes.BLOCK.asByte();
+    this.blockId = blockId;
+  }
+
   public BlockId getBlockId() {
-    return getBlockCapsule().getBlockId();
+    return blockId != null ? blockId : getBlockCapsule().getBlockId();
   }
 
   public BlockCapsule getBlockCapsule() {
+    if (block == null) {
+      synchronized (this) {
+        if (block == null) {
+          try {
+            block = new BlockCapsule(data);
+          } catch (BadItemException e) {
+            throw new IllegalStateException("broken block " + blockId.getString(), e);
+          }
+        }
+      }
+    }
     return block;
   }
 
+  @Override
+  public ByteBuf getSendData() {
+    return Unpooled.wrappedBuffer(new byte[]{type}, data);
+  }
+
   @Override
   public Class<?> getAnswerMessage() {
     return null;
@@ -41,7 +71,7 @@ public class BlockMessage extends UnichainMessage {
 
   @Override
   public Sha256Hash getMessageId() {
-    return getBlockCapsule().getBlockId();
+    return getBlockId();
   }
 
   @Override
@@ -56,6 +86,10 @@ public class BlockMessage extends UnichainMessage {
 
   @Override
   public String toString() {
+    if (block == null) {
+      return new StringBuilder().append(super.toString()).append(blockId.getString())
+          .append(", raw size: ").append(data.length).append("\n").toString();
+    }
     return new StringBuilder().append(super.toString()).append(block.getBlockId().getString())
         .append(", unx size: ").append(block.getTransactions().size()).append("\n").toString();
   }
@@ -73,7 +73,7 @@ public class TransactionsMsgHandler implements UnichainMsgHandler {
   }
 
   public boolean isBusy() {
-    return queue.size() + smartContractQueue.size() > MAX_UNW_SIZE;
+    return queue.size() + smartContractQueue.size() + unichainNetDelegate.getAdmissionQueueDepth() > MAX_UNW_SIZE;
   }
 
   @Override
@@ -107,7 +107,7 @@ public class TransactionsMsgHandler implements UnichainMsgHandler {
   private void handleSmartContract() {
     smartContractExecutor.scheduleWithFixedDelay(() -> {
       try {
-        while (queue.size() < MAX_SMART_CONTRACT_SUBMIT_SIZE) {
+        while (queue.size() + unichainNetDelegate.getAdmissionQueueDepth() < MAX_SMART_CONTRACT_SUBMIT_SIZE) {
           UnxEvent event = smartContractQueue.take();
           unxHandlePool.submit(() -> handleTransaction(event.getPeer(), event.getMsg()));
         }
@@ -127,18 +127,20 @@ public class TransactionsMsgHandler implements UnichainMsgHandler {
       return;
     }
 
-    try {
-      unichainNetDelegate.pushTransaction(unx.getTransactionCapsule());
-      advService.broadcast(unx);
-    } catch (P2pException e) {
-      logger.warn("Unx {} from peer {} process failed. type: {}, reason: {}",
-          unx.getMessageId(), peer.getInetAddress(), e.getType(), e.getMessage());
-      if (e.getType().equals(TypeEnum.BAD_UNW)) {
-        peer.disconnect(ReasonCode.BAD_TX);
+    unichainNetDelegate.pushTransaction(unx.getTransactionCapsule(), e -> {
+      if (e == null) {
+        advService.broadcast(unx);
+      } else if (e instanceof P2pException) {
+        P2pException p2pException = (P2pException) e;
+        logger.warn("Unx {} from peer {} process failed. type: {}, reason: {}",
+            unx.getMessageId(), peer.getInetAddress(), p2pException.getType(), e.getMessage());
+        if (p2pException.getType().equals(TypeEnum.BAD_UNW)) {
+          peer.disconnect(ReasonCode.BAD_TX);
+        }
+      } else {
+        logger.error("Unx {} from peer {} process failed.", unx.getMessageId(), peer.getInetAddress(),
+            e);
       }
-    } catch (Exception e) {
-      logger.error("Unx {} from peer {} process failed.", unx.getMessageId(), peer.getInetAddress(),
-          e);
-    }
+    });
   }
 }
\ No newline at end of file
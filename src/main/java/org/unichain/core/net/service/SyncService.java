@@ -2,6 +2,8 @@ package org.unichain.core.net.service;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.protobuf.ByteString;
 import javafx.util.Pair;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
@@ -10,6 +12,9 @@ import org.springframework.stereotype.Component;
 import org.unichain.common.overlay.server.Channel.UnichainState;
 import org.unichain.core.capsule.BlockCapsule;
 import org.unichain.core.capsule.BlockCapsule.BlockId;
+import org.unichain.core.capsule.TransactionCapsule;
+import org.unichain.core.capsule.utils.SignatureCache;
+import org.unichain.core.config.args.Args;
 import org.unichain.core.config.Parameter.NodeConstant;
 import org.unichain.core.exception.P2pException;
 import org.unichain.core.exception.P2pException.TypeEnum;
@@ -21,9 +26,14 @@ import org.unichain.core.net.peer.PeerConnection;
 import org.unichain.protos.Protocol.Inventory.InventoryType;
 import org.unichain.protos.Protocol.ReasonCode;
 
+import java.security.SignatureException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
@@ -47,6 +57,16 @@ public class SyncService {
 
   private ScheduledExecutorService blockHandleExecutor = Executors.newSingleThreadScheduledExecutor();
 
+  /**
+   * Blocks received ahead of the one applied are prevalidated here: what the validation derives
+   * from the block alone is computed before the block reaches the apply loop.
+   */
+  private ExecutorService prevalidateExecutor = Executors.newFixedThreadPool(
+      Math.max(1, Args.getInstance().getValidateSignThreadNum()),
+      new ThreadFactoryBuilder().setNameFormat("sync-prevalidate-%d").setDaemon(true).build());
+
+  private Map<BlockMessage, Future<?>> blockPrevalidating = new ConcurrentHashMap<>();
+
   private volatile boolean handleFlag = false;
 
   @Setter
@@ -79,6 +99,7 @@ public class SyncService {
   public void close() {
     fetchExecutor.shutdown();
     blockHandleExecutor.shutdown();
+    prevalidateExecutor.shutdownNow();
   }
 
   public void startSync(PeerConnection peer) {
@@ -109,6 +130,7 @@ public class SyncService {
   }
 
   public void processBlock(PeerConnection peer, BlockMessage blockMessage) {
+    prevalidate(blockMessage);
     synchronized (blockJustReceived) {
       blockJustReceived.put(blockMessage, peer);
     }
@@ -218,13 +240,20 @@ public class SyncService {
     }
 
     final boolean[] isProcessed = {true};
+    final int[] processed = {0};
+    long start = System.currentTimeMillis();
 
     while (isProcessed[0]) {
       isProcessed[0] = false;
-      synchronized (unichainNetDelegate.getBlockLock()) {
-        blockWaitToProcess.forEach((msg, peerConnection) -> {
+      blockWaitToProcess.forEach((msg, peerConnection) -> {
+        if (!peerConnection.isDisconnect() && isNextToFetch(msg)) {
+          // outside of the block lock, which is only taken for the apply
+          awaitPrevalidate(msg);
+        }
+        synchronized (unichainNetDelegate.getBlockLock()) {
           if (peerConnection.isDisconnect()) {
             blockWaitToProcess.remove(msg);
+            cancelPrevalidate(msg);
             invalid(msg.getBlockId());
             return;
           }
@@ -240,14 +269,89 @@ public class SyncService {
               });
           if (isFound[0]) {
             blockWaitToProcess.remove(msg);
+            // only left when the block became next after the wait above, not waited for under the lock
+            cancelPrevalidate(msg);
             isProcessed[0] = true;
             processSyncBlock(msg.getBlockCapsule());
+            processed[0]++;
           }
-        });
+        }
+      });
+    }
+
+    if (processed[0] > 0) {
+      long cost = Math.max(1, System.currentTimeMillis() - start);
+      logger.info("Handle {} sync blocks in {} ms, {} blocks/s, head {}.", processed[0], cost,
+          String.format("%.1f", processed[0] * 1000.0 / cost),
+          unichainNetDelegate.getHeadBlockId().getString());
+    }
+  }
+
+  private void prevalidate(BlockMessage msg) {
+    try {
+      blockPrevalidating.put(msg, prevalidateExecutor.submit(() -> prevalidate(msg.getBlockCapsule())));
+    } catch (RejectedExecutionException e) {
+      logger.debug("Prevalidate of block {} rejected.", msg.getBlockId().getString());
+    }
+  }
+
+  /**
+   * Signer of the block, merkle hashes of its transactions, ids of its transactions and signers of
+   * their signatures (kept by the signature cache). The checks against the chain state (witness,
+   * permissions, weights) are left to the apply loop.
+   */
+  private void prevalidate(BlockCapsule block) {
+    block.precompute();
+    boolean recoverSigners = SignatureCache.getInstance().isEnabled();
+    for (TransactionCapsule unx : block.getTransactions()) {
+      byte[] hash = unx.getTransactionId().getBytes();
+      if (!recoverSigners) {
+        continue;
+      }
+      for (ByteString sig : unx.getInstance().getSignatureList()) {
+        if (sig.size() < 65) {
+          break;
+        }
+        try {
+          SignatureCache.getInstance().recover(hash, sig);
+        } catch (SignatureException | RuntimeException e) {
+          // reported by the validation of the transaction
+          break;
+        }
       }
     }
   }
 
+  private boolean isNextToFetch(BlockMessage msg) {
+    return unichainNetDelegate.getActivePeer().stream()
+        .anyMatch(peer -> msg.getBlockId().equals(peer.getSyncBlockToFetch().peek()));
+  }
+
+  /**
+   * Wait for the prevalidation of the block so its work is not done twice. Not to be called with
+   * the block lock held: the lock would be kept from the other block handlers for the whole wait.
+   */
+  private void awaitPrevalidate(BlockMessage msg) {
+    Future<?> future = blockPrevalidating.remove(msg);
+    if (future == null) {
+      return;
+    }
+    try {
+      future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      logger.warn("Prevalidate block {} failed.", msg.getBlockId().getString(), e.getCause());
+    }
+  }
+
+  private void cancelPrevalidate(BlockMessage msg) {
+    Future<?> future = blockPrevalidating.remove(msg);
+    if (future != null) {
+      future.cancel(false);
+    }
+  }
+
   private void processSyncBlock(BlockCapsule block) {
     boolean flag = true;
     BlockId blockId = block.getBlockId();
@@ -17,6 +17,7 @@ import org.unichain.core.db.Manager;
 import org.unichain.core.exception.BalanceInsufficientException;
 import org.unichain.protos.Protocol.Vote;
 
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
@@ -99,7 +100,7 @@ public class DelegationService {
     if (beginCycle + 1 == endCycle && beginCycle < currentCycle) {
       AccountCapsule account = delegationStore.getAccountVote(beginCycle, address);
       if (account != null) {
-        reward = computeReward(beginCycle, account);
+        reward = computeReward(beginCycle, beginCycle + 1, account);
         adjustAllowance(address, reward);
         reward = 0;
         logger.info("latest cycle reward {},{}", beginCycle, account.getVotesList());
@@ -113,9 +114,7 @@ public class DelegationService {
       return;
     }
     if (beginCycle < endCycle) {
-      for (long cycle = beginCycle; cycle < endCycle; cycle++) {
-        reward += computeReward(cycle, accountCapsule);
-      }
+      reward += computeReward(beginCycle, endCycle, accountCapsule);
       adjustAllowance(address, reward);
     }
     delegationStore.setBeginCycle(address, endCycle);
@@ -147,7 +146,7 @@ public class DelegationService {
     if (beginCycle + 1 == endCycle && beginCycle < currentCycle) {
       AccountCapsule account = delegationStore.getAccountVote(beginCycle, address);
       if (account != null) {
-        reward = computeReward(beginCycle, account);
+        reward = computeReward(beginCycle, beginCycle + 1, account);
       }
       beginCycle += 1;
     }
@@ -157,11 +156,45 @@ public class DelegationService {
       return reward + accountCapsule.getAllowance();
     }
     if (beginCycle < endCycle) {
-      for (long cycle = beginCycle; cycle < endCycle; cycle++) {
+      reward += computeReward(beginCycle, endCycle, accountCapsule);
+    }
+    return reward + accountCapsule.getAllowance();
+  }
+
+  /**
+   * Reward of the votes over cycles [beginCycle, endCycle): cycles before the new reward algorithm
+   * are summed cycle by cycle, the others take the difference of the witness vi.
+   */
+  private long computeReward(long beginCycle, long endCycle, AccountCapsule accountCapsule) {
+    long reward = 0;
+    long newAlgorithmCycle = manager.getDynamicPropertiesStore().getNewRewardAlgorithmEffectiveCycle();
+    if (beginCycle < newAlgorithmCycle) {
+      long oldEndCycle = Math.min(endCycle, newAlgorithmCycle);
+      for (long cycle = beginCycle; cycle < oldEndCycle; cycle++) {
         reward += computeReward(cycle, accountCapsule);
       }
+      beginCycle = oldEndCycle;
     }
-    return reward + accountCapsule.getAllowance();
+    if (beginCycle >= endCycle) {
+      return reward;
+    }
+
+    DelegationStore delegationStore = manager.getDelegationStore();
+    for (Vote vote : accountCapsule.getVotesList()) {
+      byte[] srAddress = vote.getVoteAddress().toByteArray();
+      BigInteger deltaVi = delegationStore.getWitnessVi(endCycle - 1, srAddress)
+          .subtract(delegationStore.getWitnessVi(beginCycle - 1, srAddress));
+      if (deltaVi.signum() <= 0) {
+        continue;
+      }
+      long userVote = vote.getVoteCount();
+      reward += deltaVi.multiply(BigInteger.valueOf(userVote))
+          .divide(DelegationStore.DECIMAL_OF_VI_REWARD).longValue();
+      logger.debug("computeReward {}-{} {} {} {},{},{}", beginCycle, endCycle,
+          Hex.toHexString(accountCapsule.getAddress().toByteArray()), Hex.toHexString(srAddress),
+          userVote, deltaVi, reward);
+    }
+    return reward;
   }
 
   private long computeReward(long cycle, AccountCapsule accountCapsule) {
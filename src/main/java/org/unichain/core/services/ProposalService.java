@@ -63,7 +63,8 @@ public class ProposalService {
     HARD_FORK(34), // block version 34
     MAX_FUTURE_TRANSFER_TIME_RANGE_UNW(35), // max future transfer unw 35
     MAX_FUTURE_TRANSFER_TIME_RANGE_TOKEN(36), // max future transfer token 36
-    TOKEN_UPDATE_FEE(37); // token update(burn, mine, update params..) fee 37
+    TOKEN_UPDATE_FEE(37), // token update(burn, mine, update params..) fee 37
+    ALLOW_NEW_REWARD_ALGORITHM(38); // 1, 38
 
     ProposalType(long code) {
       this.code = code;
@@ -313,6 +314,21 @@ public class ProposalService {
         }
         break;
       }
+      case ALLOW_NEW_REWARD_ALGORITHM: {
+        if (manager.getDynamicPropertiesStore().getBlockVersion() < BLOCK_VERSION_4) {
+          throw new ContractValidateException("require at least block version: " + BLOCK_VERSION_4);
+        }
+        if (value != 1) {
+          throw new ContractValidateException("This value[ALLOW_NEW_REWARD_ALGORITHM] is only allowed to be 1");
+        }
+        if (!manager.getDynamicPropertiesStore().allowChangeDelegation()) {
+          throw new ContractValidateException("[ALLOW_CHANGE_DELEGATION] proposal must be approved before [ALLOW_NEW_REWARD_ALGORITHM] can be proposed");
+        }
+        if (manager.getDynamicPropertiesStore().useNewRewardAlgorithm()) {
+          throw new ContractValidateException("[ALLOW_NEW_REWARD_ALGORITHM] has been valid, no need to propose again");
+        }
+        break;
+      }
 
       default:
         break;
@@ -499,6 +515,18 @@ public class ProposalService {
           manager.getDynamicPropertiesStore().saveAssetUpdateFee(entry.getValue());
           break;
         }
+        /**
+         * cycles up to the current one keep the per cycle reward, the vi of the current cycle is closed
+         * by the cycle rollover of this maintenance.
+         */
+        case ALLOW_NEW_REWARD_ALGORITHM: {
+          if (!manager.getDynamicPropertiesStore().useNewRewardAlgorithm()) {
+            long effectiveCycle = manager.getDynamicPropertiesStore().getCurrentCycleNumber() + 1;
+            logger.info("Saving new reward algorithm effective cycle --> {}", effectiveCycle);
+            manager.getDynamicPropertiesStore().saveNewRewardAlgorithmEffectiveCycle(effectiveCycle);
+          }
+          break;
+        }
         default:
           find = false;
           break;
@@ -4,7 +4,9 @@ import com.google.common.base.Preconditions;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.Message;
 import io.grpc.Server;
+import io.grpc.Status;
 import io.grpc.netty.NettyServerBuilder;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -34,6 +36,7 @@ import org.unichain.core.capsule.TransactionCapsule;
 import org.unichain.core.capsule.WitnessCapsule;
 import org.unichain.core.config.args.Args;
 import org.unichain.core.db.Manager;
+import org.unichain.core.db2.core.ReadView;
 import org.unichain.core.exception.ContractValidateException;
 import org.unichain.core.exception.NonUniqueObjectException;
 import org.unichain.core.exception.StoreException;
@@ -51,6 +54,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
@@ -99,7 +103,12 @@ public class RpcApiService implements Service {
 
       Args args = Args.getInstance();
 
-      if (args.getRpcThreadNum() > 0) {
+      if (args.isApiReadView()) {
+        // calls read from the views of the last committed block
+        ExecutorService executor = args.getRpcThreadNum() > 0
+            ? Executors.newFixedThreadPool(args.getRpcThreadNum()) : Executors.newCachedThreadPool();
+        serverBuilder = serverBuilder.executor(command -> executor.execute(ReadView.wrap(command)));
+      } else if (args.getRpcThreadNum() > 0) {
         serverBuilder = serverBuilder.executor(Executors.newFixedThreadPool(args.getRpcThreadNum()));
       }
 
@@ -254,6 +263,70 @@ public class RpcApiService implements Service {
       responseObserver.onNext(dynamicProperties);
       responseObserver.onCompleted();
     }
+
+    /**
+     * Blocks are sent while the call is ready, then again each time it gets ready: a client that
+     * reads slowly fills the flow control window and stops the sending, no block is queued for it.
+     */
+    @Override
+    public void getSolidBlocks(BlockLimit request, StreamObserver<Block> responseObserver) {
+      if (request.getStartNum() < 0) {
+        responseObserver.onError(Status.INVALID_ARGUMENT
+            .withDescription("startNum must not be negative").asRuntimeException());
+        return;
+      }
+      long solidNum = dbManager.getDynamicPropertiesStore().getLatestSolidifiedBlockNum();
+      SolidBlocksSender sender = new SolidBlocksSender(
+          (ServerCallStreamObserver<Block>) responseObserver,
+          request.getStartNum(), Math.min(request.getEndNum(), solidNum + 1));
+      sender.observer.setOnReadyHandler(sender);
+      sender.run();
+    }
+
+    /**
+     * Run by the serializing executor of the call only, from the call itself and its ready handler.
+     */
+    private class SolidBlocksSender implements Runnable {
+
+      private final ServerCallStreamObserver<Block> observer;
+      private final long endNum;
+      private long nextNum;
+      private boolean done;
+
+      private SolidBlocksSender(ServerCallStreamObserver<Block> observer, long startNum,
+          long endNum) {
+        this.observer = observer;
+        this.nextNum = startNum;
+        this.endNum = endNum;
+      }
+
+      @Override
+      public void run() {
+        if (done) {
+          return;
+        }
+        while (nextNum < endNum && observer.isReady()) {
+          if (observer.isCancelled()) {
+            done = true;
+            return;
+          }
+          try {
+            observer.onNext(dbManager.getBlockByNum(nextNum).getInstance());
+          } catch (StoreException e) {
+            logger.error("Failed to stream block {}, reason: {}.", nextNum, e.getMessage());
+            done = true;
+            observer.onError(Status.NOT_FOUND
+                .withDescription("block " + nextNum + " not found").asRuntimeException());
+            return;
+          }
+          nextNum++;
+        }
+        if (nextNum >= endNum) {
+          done = true;
+          observer.onCompleted();
+        }
+      }
+    }
   }
 
   /**
@@ -1827,6 +1900,29 @@ public class RpcApiService implements Service {
       responseObserver.onCompleted();
     }
 
+    @Override
+    public void getAddressHistory(AddressHistoryMessage request,
+        StreamObserver<AddressHistoryList> responseObserver) {
+      AddressHistoryList reply;
+      try {
+        reply = wallet.getAddressHistory(request);
+      } catch (IllegalArgumentException e) {
+        responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage())
+            .asRuntimeException());
+        return;
+      }
+      responseObserver.onNext(reply);
+      responseObserver.onCompleted();
+    }
+
+    @Override
+    public void getTransactionMerkleProof(BytesMessage request,
+        StreamObserver<TransactionMerkleProof> responseObserver) {
+      TransactionMerkleProof reply = wallet.getTransactionMerkleProof(request.getValue());
+      responseObserver.onNext(reply == null ? TransactionMerkleProof.getDefaultInstance() : reply);
+      responseObserver.onCompleted();
+    }
+
     @Override
     public void getNodeInfo(EmptyMessage request, StreamObserver<NodeInfo> responseObserver) {
       try {
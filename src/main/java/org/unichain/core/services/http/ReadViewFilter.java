@@ -0,0 +1,35 @@
+package org.unichain.core.services.http;
+
+import org.unichain.core.db2.core.ReadView;
+
+import javax.servlet.*;
+import java.io.IOException;
+
+/**
+ * Serve the requests from the read views of the last committed block, without the db locks.
+ */
+public class ReadViewFilter implements Filter {
+
+  @Override
+  public void init(FilterConfig filterConfig) {
+  }
+
+  @Override
+  public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+      throws IOException, ServletException {
+    try {
+      ReadView.call(() -> {
+        chain.doFilter(request, response);
+        return null;
+      });
+    } catch (IOException | ServletException | RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new ServletException(e);
+    }
+  }
+
+  @Override
+  public void destroy() {
+  }
+}
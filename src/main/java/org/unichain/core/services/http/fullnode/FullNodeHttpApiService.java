@@ -11,6 +11,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.unichain.common.application.Service;
 import org.unichain.core.config.args.Args;
+import org.unichain.core.services.http.ReadViewFilter;
 import org.unichain.core.services.http.fullnode.servlet.*;
 
 import javax.servlet.DispatcherType;
@@ -118,6 +119,10 @@ public class FullNodeHttpApiService implements Service {
   @Autowired
   private GetTransactionInfoByIdServlet getTransactionInfoByIdServlet;
   @Autowired
+  private GetTransactionMerkleProofServlet getTransactionMerkleProofServlet;
+  @Autowired
+  private GetAddressHistoryServlet getAddressHistoryServlet;
+  @Autowired
   private GetTransactionCountByBlockNumServlet getTransactionCountByBlockNumServlet;
   @Autowired
   private ListWitnessesServlet listWitnessesServlet;
@@ -239,6 +244,10 @@ public class FullNodeHttpApiService implements Service {
       holder.setInitParameter(CrossOriginFilter.ALLOWED_HEADERS_PARAM, "X-Requested-With,Content-Type,Accept,Origin");
       context.addFilter(holder, "/*", EnumSet.of(DispatcherType.REQUEST));
 
+      if (Args.getInstance().isApiReadView()) {
+        context.addFilter(new FilterHolder(new ReadViewFilter()), "/*", EnumSet.of(DispatcherType.REQUEST));
+      }
+
       server.setHandler(context);
 
       //@todo show all future deals
@@ -291,6 +300,8 @@ public class FullNodeHttpApiService implements Service {
       context.addServlet(new ServletHolder(getTransactionByIdServlet), "/gettransactionbyid");
 
       context.addServlet(new ServletHolder(getTransactionInfoByIdServlet), "/gettransactioninfobyid");
+      context.addServlet(new ServletHolder(getTransactionMerkleProofServlet), "/gettransactionmerkleproof");
+      context.addServlet(new ServletHolder(getAddressHistoryServlet), "/getaddresshistory");
       context.addServlet(new ServletHolder(getTransactionCountByBlockNumServlet), "/gettransactioncountbyblocknum");
       context.addServlet(new ServletHolder(listWitnessesServlet), "/listwitnesses");
       context.addServlet(new ServletHolder(getAssetIssueListServlet), "/getassetissuelist");
@@ -0,0 +1,48 @@
+package org.unichain.core.services.http.fullnode.servlet;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.unichain.api.GrpcAPI.AddressHistoryList;
+import org.unichain.api.GrpcAPI.AddressHistoryMessage;
+import org.unichain.core.Wallet;
+import org.unichain.core.services.http.utils.JsonFormat;
+import org.unichain.core.services.http.utils.Util;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.stream.Collectors;
+
+
+@Component
+@Slf4j(topic = "API")
+public class GetAddressHistoryServlet extends HttpServlet {
+
+  @Autowired
+  private Wallet wallet;
+
+  protected void doGet(HttpServletRequest request, HttpServletResponse response) {
+    doPost(request, response);
+  }
+
+  protected void doPost(HttpServletRequest request, HttpServletResponse response) {
+    try {
+      String input = request.getReader().lines().collect(Collectors.joining(System.lineSeparator()));
+      Util.checkBodySize(input);
+      boolean visible = Util.getVisiblePost(input);
+      AddressHistoryMessage.Builder build = AddressHistoryMessage.newBuilder();
+      JsonFormat.merge(input, build, visible);
+      AddressHistoryList reply = wallet.getAddressHistory(build.build());
+      response.getWriter().println(Util.printAddressHistory(reply, visible));
+    } catch (Exception e) {
+      logger.debug("Exception: {}", e.getMessage());
+      try {
+        response.getWriter().println(Util.printErrorMsg(e));
+      } catch (IOException ioe) {
+        logger.debug("IOException: {}", ioe.getMessage());
+      }
+    }
+  }
+}
@@ -30,6 +30,7 @@ public class GetTokenPoolServlet extends HttpServlet {
     pageJson.put("page_size", page.getPageSize());
     pageJson.put("page_index", page.getPageIndex());
     pageJson.put("total", page.getTotal());
+    pageJson.put("next_cursor", page.getNextCursor());
     JSONArray tokens = new JSONArray();
     for(var item : page.getTokensList()){
       JSONObject itemJson = JSONObject.parseObject(JsonFormat.printToString(item, false));
@@ -0,0 +1,69 @@
+package org.unichain.core.services.http.fullnode.servlet;
+
+import com.google.protobuf.ByteString;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.unichain.api.GrpcAPI.BytesMessage;
+import org.unichain.api.GrpcAPI.TransactionMerkleProof;
+import org.unichain.common.utils.ByteArray;
+import org.unichain.core.Wallet;
+import org.unichain.core.services.http.utils.JsonFormat;
+import org.unichain.core.services.http.utils.Util;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.stream.Collectors;
+
+
+@Component
+@Slf4j(topic = "API")
+public class GetTransactionMerkleProofServlet extends HttpServlet {
+  @Autowired
+  private Wallet wallet;
+
+  protected void doGet(HttpServletRequest request, HttpServletResponse response) {
+    try {
+      boolean visible = Util.getVisible(request);
+      String input = request.getParameter("value");
+      TransactionMerkleProof reply = wallet.getTransactionMerkleProof(ByteString.copyFrom(ByteArray.fromHexString(input)));
+      if (reply != null) {
+        response.getWriter().println(JsonFormat.printToString(reply, visible));
+      } else {
+        response.getWriter().println("{}");
+      }
+    } catch (Exception e) {
+      logger.error(e.getMessage(), e);
+      try {
+        response.getWriter().println(Util.printErrorMsg(e));
+      } catch (IOException ioe) {
+        logger.debug("IOException: {}", ioe.getMessage());
+      }
+    }
+  }
+
+  protected void doPost(HttpServletRequest request, HttpServletResponse response) {
+    try {
+      String input = request.getReader().lines().collect(Collectors.joining(System.lineSeparator()));
+      Util.checkBodySize(input);
+      boolean visible = Util.getVisiblePost(input);
+      BytesMessage.Builder build = BytesMessage.newBuilder();
+      JsonFormat.merge(input, build, visible);
+      TransactionMerkleProof reply = wallet.getTransactionMerkleProof(build.getValue());
+      if (reply != null) {
+        response.getWriter().println(JsonFormat.printToString(reply, visible));
+      } else {
+        response.getWriter().println("{}");
+      }
+    } catch (Exception e) {
+      logger.error(e.getMessage(), e);
+      try {
+        response.getWriter().println(Util.printErrorMsg(e));
+      } catch (IOException ioe) {
+        logger.debug("IOException: {}", ioe.getMessage());
+      }
+    }
+  }
+}
\ No newline at end of file
@@ -80,6 +80,20 @@ public class Util {
     return jsonObject.toJSONString();
   }
 
+  public static String printAddressHistory(AddressHistoryList history, boolean selfType) {
+    JSONObject jsonObject = JSONObject.parseObject(JsonFormat.printToString(history, selfType));
+    JSONArray jsonArray = new JSONArray();
+    history.getEntryList().forEach(entry -> {
+      JSONObject jsonEntry = JSONObject.parseObject(JsonFormat.printToString(entry, selfType));
+      if (entry.hasTransaction()) {
+        jsonEntry.put(TRANSACTION, printTransactionToJSON(entry.getTransaction(), selfType));
+      }
+      jsonArray.add(jsonEntry);
+    });
+    jsonObject.put("entry", jsonArray);
+    return jsonObject.toJSONString();
+  }
+
   public static JSONArray printTransactionListToJSON(List<TransactionCapsule> list, boolean selfType) {
     JSONArray transactions = new JSONArray();
     list.stream().forEach(transactionCapsule -> transactions.add(printTransactionToJSON(transactionCapsule.getInstance(), selfType)));
@@ -639,6 +653,7 @@ public class Util {
   public static Descriptors.FieldDescriptor TOKEN_QUERY_FIELD_PAGE_INDEX= Protocol.TokenPoolQuery.getDescriptor().findFieldByNumber(Protocol.TokenPoolQuery.PAGE_INDEX_FIELD_NUMBER);
   public static Descriptors.FieldDescriptor TOKEN_QUERY_FIELD_PAGE_SIZE= Protocol.TokenPoolQuery.getDescriptor().findFieldByNumber(Protocol.TokenPoolQuery.PAGE_SIZE_FIELD_NUMBER);
   public static Descriptors.FieldDescriptor TOKEN_QUERY_FIELD_TOKEN_NAME= Protocol.TokenPoolQuery.getDescriptor().findFieldByNumber(Protocol.TokenPoolQuery.TOKEN_NAME_FIELD_NUMBER);
+  public static Descriptors.FieldDescriptor TOKEN_QUERY_FIELD_CURSOR= Protocol.TokenPoolQuery.getDescriptor().findFieldByNumber(Protocol.TokenPoolQuery.CURSOR_FIELD_NUMBER);
 
   public static Descriptors.FieldDescriptor TOKEN_CREATE_FIELD_START_TIME= CreateTokenContract.getDescriptor().findFieldByNumber(CreateTokenContract.START_TIME_FIELD_NUMBER);
   public static Descriptors.FieldDescriptor TOKEN_CREATE_FIELD_END_TIME= CreateTokenContract.getDescriptor().findFieldByNumber(CreateTokenContract.END_TIME_FIELD_NUMBER);
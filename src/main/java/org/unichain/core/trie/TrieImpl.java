@@ -14,6 +14,7 @@ import org.unichain.core.db2.common.DB;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map.Entry;
@@ -22,7 +23,6 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
-import static org.apache.commons.lang3.concurrent.ConcurrentUtils.constantFuture;
 import static org.unichain.common.crypto.Hash.EMPTY_TRIE_HASH;
 import static org.unichain.common.utils.ByteUtil.EMPTY_BYTE_ARRAY;
 import static org.unichain.common.utils.ByteUtil.toHexString;
@@ -35,6 +35,8 @@ public class TrieImpl implements Trie<byte[]> {
 
   private final static Object NULL_NODE = new Object();
   private final static int MIN_BRANCHES_CONCURRENTLY = 3;
+  private final static int SUBTREES_CONCURRENTLY = 16;
+  private final static int MAX_SUBTREE_DEPTH = 4;
   private static ExecutorService executor;
 
   private static final Logger logger = LoggerFactory.getLogger(TrieImpl.class);
@@ -101,7 +103,16 @@ public class TrieImpl implements Trie<byte[]> {
       if (rlp != null || parsedRlp != null || hash == null) {
         return true;
       }
+      if (nodeCache != null) {
+        parsedRlp = nodeCache.get(hash);
+        if (parsedRlp != null) {
+          return true;
+        }
+      }
       rlp = getHash(hash);
+      if (rlp != null && nodeCache != null) {
+        parsedRlp = nodeCache.put(hash, rlp);
+      }
       return rlp != null;
     }
 
@@ -113,64 +124,27 @@ public class TrieImpl implements Trie<byte[]> {
     }
 
     public byte[] encode() {
-      return encode(1, true);
+      return encode(true);
     }
 
-    private byte[] encode(final int depth, boolean forceHash) {
+    private byte[] encode(boolean forceHash) {
       if (!dirty) {
         return hash != null ? encodeElement(hash) : rlp;
       } else {
         NodeType type = getType();
         byte[] ret;
         if (type == NodeType.BranchNode) {
-          if (depth == 1 && async) {
-            // parallelize encode() on the first trie level only and if there are at least
-            // MIN_BRANCHES_CONCURRENTLY branches are modified
-            final Object[] encoded = new Object[17];
-            int encodeCnt = 0;
-            for (int i = 0; i < 16; i++) {
-              final Node child = branchNodeGetChild(i);
-              if (child == null) {
-                encoded[i] = EMPTY_ELEMENT_RLP;
-              } else if (!child.dirty) {
-                encoded[i] = child.encode(depth + 1, false);
-              } else {
-                encodeCnt++;
-              }
-            }
-            for (int i = 0; i < 16; i++) {
-              if (encoded[i] == null) {
-                final Node child = branchNodeGetChild(i);
-                if (child == null) {
-                  continue;
-                }
-                if (encodeCnt >= MIN_BRANCHES_CONCURRENTLY) {
-                  encoded[i] = getExecutor().submit(() -> child.encode(depth + 1, false));
-                } else {
-                  encoded[i] = child.encode(depth + 1, false);
-                }
-              }
-            }
-            byte[] value = branchNodeGetValue();
-            encoded[16] = constantFuture(encodeElement(value));
-            try {
-              ret = encodeRlpListFutures(encoded);
-            } catch (Exception e) {
-              throw new RuntimeException(e);
-            }
-          } else {
-            byte[][] encoded = new byte[17][];
-            for (int i = 0; i < 16; i++) {
-              Node child = branchNodeGetChild(i);
-              encoded[i] = child == null ? EMPTY_ELEMENT_RLP : child.encode(depth + 1, false);
-            }
-            byte[] value = branchNodeGetValue();
-            encoded[16] = encodeElement(value);
-            ret = encodeList(encoded);
+          byte[][] encoded = new byte[17][];
+          for (int i = 0; i < 16; i++) {
+            Node child = branchNodeGetChild(i);
+            encoded[i] = child == null ? EMPTY_ELEMENT_RLP : child.encode(false);
           }
+          byte[] value = branchNodeGetValue();
+          encoded[16] = encodeElement(value);
+          ret = encodeList(encoded);
         } else if (type == NodeType.KVNodeNode) {
           ret = encodeList(encodeElement(kvNodeGetKey().toPacked()),
-              kvNodeGetChildNode().encode(depth + 1, false));
+              kvNodeGetChildNode().encode(false));
         } else {
           byte[] value = kvNodeGetValue();
           ret = encodeList(encodeElement(kvNodeGetKey().toPacked()),
@@ -181,6 +155,8 @@ public class TrieImpl implements Trie<byte[]> {
         }
         dirty = false;
         if (ret.length < 32 && !forceHash) {
+          // embedded in the parent from now on, an encode of the parent must not take the old hash
+          hash = null;
           rlp = ret;
           return ret;
         } else {
@@ -191,20 +167,6 @@ public class TrieImpl implements Trie<byte[]> {
       }
     }
 
-    @SafeVarargs
-    private final byte[] encodeRlpListFutures(Object... list)
-        throws ExecutionException, InterruptedException {
-      byte[][] vals = new byte[list.length][];
-      for (int i = 0; i < list.length; i++) {
-        if (list[i] instanceof Future) {
-          vals[i] = ((Future<byte[]>) list[i]).get();
-        } else {
-          vals[i] = (byte[]) list[i];
-        }
-      }
-      return encodeList(vals);
-    }
-
     private void parse() {
       if (children != null) {
         return;
@@ -458,6 +420,8 @@ public class TrieImpl implements Trie<byte[]> {
   }
 
   private DB<byte[], BytesCapsule> cache;
+  // null when the nodes of the store are not cached
+  private TrieNodeCache nodeCache;
   private Node root;
   private boolean async = true;
 
@@ -474,7 +438,12 @@ public class TrieImpl implements Trie<byte[]> {
   }
 
   public TrieImpl(DB<byte[], BytesCapsule> cache, byte[] root) {
+    this(cache, null, root);
+  }
+
+  public TrieImpl(DB<byte[], BytesCapsule> cache, TrieNodeCache nodeCache, byte[] root) {
     this.cache = cache;
+    this.nodeCache = nodeCache;
     setRoot(root);
   }
 
@@ -484,10 +453,71 @@ public class TrieImpl implements Trie<byte[]> {
 
   private void encode() {
     if (root != null) {
+      if (async) {
+        encodeSubtrees();
+      }
       root.encode();
     }
   }
 
+  /**
+   * Encode independent dirty subtrees on the executor first; the nodes above them then take the
+   * encoding of their clean children, so the root is the one encoded on a single thread.
+   */
+  private void encodeSubtrees() {
+    List<Node> subtrees = dirtySubtrees();
+    if (subtrees.size() < MIN_BRANCHES_CONCURRENTLY) {
+      return;
+    }
+    List<Future<byte[]>> futures = new ArrayList<>(subtrees.size());
+    for (Node node : subtrees) {
+      futures.add(getExecutor().submit(() -> node.encode(false)));
+    }
+    try {
+      for (Future<byte[]> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException(e.getCause());
+    }
+  }
+
+  /**
+   * @return dirty nodes below the root, down to the level where there are enough of them
+   */
+  private List<Node> dirtySubtrees() {
+    List<Node> level = Collections.singletonList(root);
+    List<Node> subtrees = Collections.emptyList();
+    for (int depth = 0; depth < MAX_SUBTREE_DEPTH && subtrees.size() < SUBTREES_CONCURRENTLY;
+        depth++) {
+      List<Node> next = new ArrayList<>();
+      for (Node node : level) {
+        if (!node.dirty) {
+          continue;
+        }
+        if (node.getType() == NodeType.BranchNode) {
+          for (int i = 0; i < 16; i++) {
+            Node child = node.branchNodeGetChild(i);
+            if (child != null && child.dirty) {
+              next.add(child);
+            }
+          }
+        } else if (node.getType() == NodeType.KVNodeNode && node.kvNodeGetChildNode().dirty) {
+          next.add(node.kvNodeGetChildNode());
+        }
+      }
+      if (next.isEmpty()) {
+        break;
+      }
+      level = next;
+      subtrees = next;
+    }
+    return subtrees;
+  }
+
   public void setRoot(byte[] root) {
     if (root != null && !FastByteComparisons.equalByte(root, EMPTY_TRIE_HASH)) {
       this.root = new Node(root);
@@ -512,6 +542,9 @@ public class TrieImpl implements Trie<byte[]> {
 
   private void addHash(byte[] hash, byte[] ret) {
     cache.put(hash, new BytesCapsule(ret));
+    if (nodeCache != null) {
+      nodeCache.put(hash, ret);
+    }
   }
 
   private void deleteHash(byte[] hash) {
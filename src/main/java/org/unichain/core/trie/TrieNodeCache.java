@@ -0,0 +1,71 @@
+package org.unichain.core.trie;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.unichain.core.capsule.utils.RLP;
+import org.unichain.core.db.common.WrappedByteArray;
+
+/**
+ * Decoded nodes of the tries opened over one store, kept across tries (blocks) by node hash.
+ *
+ * A node is stored under the hash of its encoding, so an entry is right whenever its hash is asked
+ * for, whatever was written, deleted or reverted in the store since: entries are never invalidated,
+ * only evicted. Decoded lists are not changed once built and are shared between threads.
+ */
+@Slf4j(topic = "AccountState")
+public class TrieNodeCache {
+
+  private static final long STATS_INTERVAL_MS = 60_000;
+
+  private final String name;
+  private final Cache<WrappedByteArray, RLP.LList> cache;
+  private volatile long statsTime = System.currentTimeMillis();
+
+  public TrieNodeCache(String name, int maxSize) {
+    this.name = name;
+    this.cache = CacheBuilder.newBuilder()
+        .maximumSize(maxSize)
+        .recordStats()
+        .build();
+  }
+
+  RLP.LList get(byte[] hash) {
+    long now = System.currentTimeMillis();
+    if (now - statsTime >= STATS_INTERVAL_MS) {
+      statsTime = now;
+      logStats();
+    }
+    return cache.getIfPresent(WrappedByteArray.of(hash));
+  }
+
+  /**
+   * @param rlp encoding of the node, not changed afterwards
+   * @return the decoded node, null if it is not a list the trie can read
+   */
+  RLP.LList put(byte[] hash, byte[] rlp) {
+    RLP.LList node;
+    try {
+      node = RLP.decodeLazyList(rlp);
+    } catch (RuntimeException e) {
+      // left to the trie, which fails on it if it is ever read
+      return null;
+    }
+    if (node != null) {
+      cache.put(WrappedByteArray.copyOf(hash), node);
+    }
+    return node;
+  }
+
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  private void logStats() {
+    CacheStats stats = cache.stats();
+    logger.info("trie node cache of {}, size:{}, hit rate:{}, requests:{}, evictions:{}", name,
+        cache.size(), String.format("%.3f", stats.hitRate()), stats.requestCount(),
+        stats.evictionCount());
+  }
+}
@@ -377,9 +377,11 @@ public class WitnessController {
     }
     //update the delegation cycle
     if (manager.getDynamicPropertiesStore().allowChangeDelegation()) {
-      long nextCycle = manager.getDynamicPropertiesStore().getCurrentCycleNumber() + 1;
+      long currentCycle = manager.getDynamicPropertiesStore().getCurrentCycleNumber();
+      long nextCycle = currentCycle + 1;
       manager.getDynamicPropertiesStore().saveCurrentCycleNumber(nextCycle);
       witnessStore.getAllWitnesses().forEach(witnessCapsule -> {
+        manager.getDelegationStore().accumulateWitnessVi(currentCycle, witnessCapsule.getAddress().toByteArray());
         manager.getDelegationStore().setBrokerage(nextCycle,
             witnessCapsule.getAddress().toByteArray(),
             manager.getDelegationStore().getBrokerage(witnessCapsule.getAddress().toByteArray()));
@@ -1,9 +1,13 @@
 package org.unichain.program;
 
+import io.grpc.Status;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.BooleanUtils;
 import org.springframework.context.ApplicationContext;
 import org.springframework.util.StringUtils;
+import org.unichain.api.GrpcAPI.BlockLimit;
 import org.unichain.common.application.Application;
 import org.unichain.common.application.ApplicationFactory;
 import org.unichain.common.application.UnichainApplicationContext;
@@ -20,7 +24,11 @@ import org.unichain.core.services.RpcApiService;
 import org.unichain.core.services.http.solidity.SolidityNodeHttpApiService;
 import org.unichain.protos.Protocol.Block;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static org.unichain.core.config.Parameter.ChainConstant.BLOCK_PRODUCED_INTERVAL;
@@ -28,6 +36,8 @@ import static org.unichain.core.config.Parameter.ChainConstant.BLOCK_PRODUCED_IN
 @Slf4j(topic = "app")
 public class SolidityNode {
 
+  private static final int APPLY_BATCH_SIZE = 100;
+
   private Manager dbManager;
 
   private DatabaseGrpcClient databaseGrpcClient;
@@ -36,7 +46,14 @@ public class SolidityNode {
 
   private AtomicLong remoteBlockNum = new AtomicLong();
 
-  private LinkedBlockingDeque<Block> blockQueue = new LinkedBlockingDeque(100);
+  // blocks fetched ahead of the one applied
+  private LinkedBlockingDeque<Block> blockQueue = new LinkedBlockingDeque(
+      Math.max(1, Args.getInstance().getSolidityPrefetchBlocks()));
+
+  private volatile boolean streamBlocks = Args.getInstance().isSolidityStreamBlocks();
+
+  // stream the blocks are fetched with, null between streams
+  private volatile BlockStream blockStream;
 
   private int exceptionSleepTime = 1000;
 
@@ -62,6 +79,9 @@ public class SolidityNode {
   }
 
   private void getBlock() {
+    if (streamBlocks) {
+      streamBlocks();
+    }
     long blockNum = ID.incrementAndGet();
     while (flag) {
       try {
@@ -80,32 +100,188 @@ public class SolidityNode {
     }
   }
 
+  /**
+   * Fetch the blocks with one call for all the blocks the trust node has solidified, until the
+   * trust node turns out not to stream them.
+   */
+  private void streamBlocks() {
+    while (flag) {
+      long startNum = ID.get() + 1;
+      if (startNum > remoteBlockNum.get()) {
+        sleep(BLOCK_PRODUCED_INTERVAL);
+        remoteBlockNum.set(getLastSolidityBlockNum());
+        continue;
+      }
+      if (blockQueue.remainingCapacity() == 0) {
+        // the call asks for the first block as it starts
+        sleep(exceptionSleepTime);
+        continue;
+      }
+      long time = System.currentTimeMillis();
+      BlockStream stream = new BlockStream(startNum);
+      databaseGrpcClient.getSolidBlocks(startNum, remoteBlockNum.get() + 1, stream);
+      blockStream = stream;
+      stream.request();
+      Throwable error = stream.await();
+      blockStream = null;
+      long count = ID.get() - startNum + 1;
+      if (error == null) {
+        logger.info("Success to stream {} blocks from {}, cost: {}ms, blockQueueSize: {}.",
+            count, startNum, System.currentTimeMillis() - time, blockQueue.size());
+        if (count == 0) {
+          sleep(exceptionSleepTime);
+          remoteBlockNum.set(getLastSolidityBlockNum());
+        }
+        continue;
+      }
+      if (Status.fromThrowable(error).getCode() == Status.Code.UNIMPLEMENTED) {
+        logger.warn("Trust node does not stream blocks, get them one by one.");
+        streamBlocks = false;
+        return;
+      }
+      logger.error("Failed to stream blocks from {}, got {}, reason: {}.", startNum, count,
+          error.getMessage());
+      sleep(exceptionSleepTime);
+    }
+  }
+
+  /**
+   * Puts the streamed blocks in the queue. The blocks are requested from the call as the queue has
+   * room for them (inbound flow control is manual), so the delivery never waits for the queue and
+   * the prefetch is bounded by it.
+   */
+  private class BlockStream implements ClientResponseObserver<BlockLimit, Block> {
+
+    private final CountDownLatch finished = new CountDownLatch(1);
+    private ClientCallStreamObserver<BlockLimit> call;
+    private long nextNum;
+    // blocks requested and not delivered yet, the call requests the first one itself
+    private int requested = 1;
+    private volatile Throwable error;
+
+    private BlockStream(long startNum) {
+      this.nextNum = startNum;
+    }
+
+    @Override
+    public void beforeStart(ClientCallStreamObserver<BlockLimit> call) {
+      this.call = call;
+      call.disableAutoInboundFlowControl();
+    }
+
+    /**
+     * Request as many blocks as the queue has room for, besides the requested ones. Called once the
+     * call is started and whenever blocks are taken from the queue.
+     */
+    private synchronized void request() {
+      int n = blockQueue.remainingCapacity() - requested;
+      if (n > 0 && finished.getCount() > 0) {
+        requested += n;
+        call.request(n);
+      }
+    }
+
+    @Override
+    public void onNext(Block block) {
+      long num = block.getBlockHeader().getRawData().getNumber();
+      if (num != nextNum) {
+        call.cancel("Get block id not the same, " + num + ", " + nextNum, null);
+        return;
+      }
+      synchronized (this) {
+        requested--;
+        // room was left for each requested block
+        if (!blockQueue.offer(block)) {
+          call.cancel("Block queue is full", null);
+          return;
+        }
+      }
+      ID.set(num);
+      nextNum++;
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      error = t;
+      finished.countDown();
+    }
+
+    @Override
+    public void onCompleted() {
+      finished.countDown();
+    }
+
+    /**
+     * @return the error that ended the stream, null if it completed
+     */
+    private Throwable await() {
+      try {
+        while (!finished.await(exceptionSleepTime, TimeUnit.MILLISECONDS)) {
+          if (!flag) {
+            call.cancel("Solid node stopped", null);
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        call.cancel("Interrupted", e);
+        return e;
+      }
+      return error;
+    }
+  }
+
+  /**
+   * Apply the blocks in the queue in batches, the latest solidified block number is saved once per
+   * batch.
+   */
   private void processBlock() {
+    List<Block> batch = new ArrayList<>(APPLY_BATCH_SIZE);
     while (flag) {
       try {
-        Block block = blockQueue.take();
-        loopProcessBlock(block);
+        batch.add(blockQueue.take());
+        blockQueue.drainTo(batch, APPLY_BATCH_SIZE - 1);
+        BlockStream stream = blockStream;
+        if (stream != null) {
+          stream.request();
+        }
+        long time = System.currentTimeMillis();
+        long blockNum = -1;
+        for (Block block : batch) {
+          if (!loopProcessBlock(block)) {
+            break;
+          }
+          blockNum = block.getBlockHeader().getRawData().getNumber();
+        }
+        if (blockNum >= 0) {
+          dbManager.getDynamicPropertiesStore().saveLatestSolidifiedBlockNum(blockNum);
+          logger.info("Success to process {} blocks to {}, cost: {}ms, blockQueueSize: {}.",
+              batch.size(), blockNum, System.currentTimeMillis() - time, blockQueue.size());
+        }
       } catch (Exception e) {
         logger.error(e.getMessage());
         sleep(exceptionSleepTime);
+      } finally {
+        batch.clear();
       }
     }
   }
 
-  private void loopProcessBlock(Block block) {
+  /**
+   * @return false if the node stopped before the block was applied
+   */
+  private boolean loopProcessBlock(Block block) {
     while (flag) {
       long blockNum = block.getBlockHeader().getRawData().getNumber();
       try {
         dbManager.pushVerifiedBlock(new BlockCapsule(block));
-        dbManager.getDynamicPropertiesStore().saveLatestSolidifiedBlockNum(blockNum);
-        logger.info("Success to process block: {}, blockQueueSize: {}.", blockNum, blockQueue.size());
-        return;
+        return true;
       } catch (Exception e) {
         logger.error("Failed to process block {}.", new BlockCapsule(block), e);
         sleep(exceptionSleepTime);
         block = getBlockByNum(blockNum);
       }
     }
+    return false;
   }
 
   private Block getBlockByNum(long blockNum) {
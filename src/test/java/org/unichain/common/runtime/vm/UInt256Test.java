@@ -0,0 +1,246 @@
+package org.unichain.common.runtime.vm;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.unichain.common.utils.ByteUtil;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.unichain.common.runtime.vm.DataWord.MAX_VALUE;
+import static org.unichain.common.runtime.vm.DataWord._2_256;
+
+/**
+ * The DataWord opcodes computed on UInt256 must give the results of the BigInteger code they replaced,
+ * which is kept here as the reference.
+ */
+public class UInt256Test {
+
+  private static final int RANDOM_ROUNDS = 20_000;
+  private static final BigInteger TWO_32 = BigInteger.ONE.shiftLeft(32);
+  private static final BigInteger TWO_255 = BigInteger.ONE.shiftLeft(255);
+
+  private final Random random = new Random(20261018L);
+
+  private static List<BigInteger> edgeValues() {
+    List<BigInteger> values = new ArrayList<>();
+    values.add(BigInteger.ZERO);
+    values.add(BigInteger.ONE);
+    values.add(BigInteger.valueOf(2));
+    values.add(BigInteger.valueOf(3));
+    values.add(BigInteger.valueOf(7));
+    values.add(BigInteger.valueOf(10));
+    values.add(BigInteger.valueOf(255));
+    values.add(BigInteger.valueOf(256));
+    values.add(TWO_32.subtract(BigInteger.ONE));
+    values.add(TWO_32);
+    values.add(TWO_32.add(BigInteger.ONE));
+    // top digit with its high bit set, no normalization shift in the division
+    values.add(BigInteger.ONE.shiftLeft(63));
+    values.add(BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE));
+    values.add(BigInteger.ONE.shiftLeft(127).add(BigInteger.valueOf(12345)));
+    values.add(TWO_255.subtract(BigInteger.ONE));
+    values.add(TWO_255);
+    values.add(TWO_255.add(BigInteger.ONE));
+    values.add(MAX_VALUE.subtract(BigInteger.ONE));
+    values.add(MAX_VALUE);
+    return values;
+  }
+
+  @Test
+  public void edgeCases() {
+    List<BigInteger> values = edgeValues();
+    for (BigInteger a : values) {
+      for (BigInteger b : values) {
+        checkBinary(a, b);
+        for (BigInteger c : values) {
+          checkTernary(a, b, c);
+        }
+      }
+      checkUnary(a);
+    }
+  }
+
+  @Test
+  public void randomOperands() {
+    for (int i = 0; i < RANDOM_ROUNDS; i++) {
+      BigInteger a = randomValue();
+      BigInteger b = randomValue();
+      checkBinary(a, b);
+      checkTernary(a, b, randomValue());
+      checkUnary(a);
+      BigInteger shift = BigInteger.valueOf(random.nextInt(300));
+      checkShifts(a, shift);
+    }
+  }
+
+  @Test
+  public void singleDigitDivisors() {
+    for (int i = 0; i < RANDOM_ROUNDS; i++) {
+      BigInteger a = randomValue();
+      BigInteger b = BigInteger.valueOf(1 + random.nextInt(Integer.MAX_VALUE))
+          .shiftLeft(random.nextInt(2));
+      checkBinary(a, b);
+      checkTernary(a, randomValue(), b);
+    }
+  }
+
+  @Test
+  public void divisorsWithoutNormalizationShift() {
+    for (int i = 0; i < RANDOM_ROUNDS; i++) {
+      int digits = 2 + random.nextInt(7);
+      // the top digit of the divisor has its high bit set
+      BigInteger b = new BigInteger(digits * 32 - 1, random).setBit(digits * 32 - 1);
+      BigInteger a = randomValue().or(b.shiftLeft(random.nextInt(256 - digits * 32 + 1)))
+          .and(MAX_VALUE);
+      checkBinary(a, b);
+      checkTernary(a, randomValue(), b);
+
+      long[][] qr = UInt256.divMod(UInt256.of(ByteUtil.copyToArray(a)),
+          UInt256.of(ByteUtil.copyToArray(b)));
+      BigInteger[] expected = a.divideAndRemainder(b);
+      Assert.assertEquals(expected[0], value(qr[0]));
+      Assert.assertEquals(expected[1], value(qr[1]));
+    }
+  }
+
+  @Test
+  public void shifts() {
+    List<BigInteger> shifts = new ArrayList<>();
+    for (int n : new int[]{0, 1, 7, 8, 31, 32, 33, 63, 64, 128, 255, 256, 257, 1000}) {
+      shifts.add(BigInteger.valueOf(n));
+    }
+    shifts.add(TWO_32.add(BigInteger.ONE));
+    shifts.add(MAX_VALUE);
+    for (BigInteger a : edgeValues()) {
+      for (BigInteger shift : shifts) {
+        checkShifts(a, shift);
+      }
+    }
+  }
+
+  private void checkBinary(BigInteger a, BigInteger b) {
+    String operands = a.toString(16) + ", " + b.toString(16);
+    BigInteger sa = signed(a);
+    BigInteger sb = signed(b);
+
+    DataWord word = word(a);
+    word.mul(word(b));
+    Assert.assertEquals("mul " + operands, a.multiply(b).and(MAX_VALUE), word.value());
+
+    word = word(a);
+    word.div(word(b));
+    Assert.assertEquals("div " + operands,
+        b.signum() == 0 ? BigInteger.ZERO : a.divide(b).and(MAX_VALUE), word.value());
+
+    word = word(a);
+    word.sDiv(word(b));
+    Assert.assertEquals("sDiv " + operands,
+        b.signum() == 0 ? BigInteger.ZERO : sa.divide(sb).and(MAX_VALUE), word.value());
+
+    word = word(a);
+    word.sub(word(b));
+    Assert.assertEquals("sub " + operands, a.subtract(b).and(MAX_VALUE), word.value());
+
+    word = word(a);
+    word.exp(word(b));
+    Assert.assertEquals("exp " + operands, a.modPow(b, _2_256), word.value());
+
+    word = word(a);
+    word.mod(word(b));
+    Assert.assertEquals("mod " + operands,
+        b.signum() == 0 ? BigInteger.ZERO : a.mod(b).and(MAX_VALUE), word.value());
+
+    word = word(a);
+    word.sMod(word(b));
+    BigInteger sMod = BigInteger.ZERO;
+    if (b.signum() != 0) {
+      sMod = sa.abs().mod(sb.abs());
+      sMod = sa.signum() == -1 ? sMod.negate() : sMod;
+    }
+    Assert.assertEquals("sMod " + operands, sMod.and(MAX_VALUE), word.value());
+  }
+
+  private void checkTernary(BigInteger a, BigInteger b, BigInteger c) {
+    String operands = a.toString(16) + ", " + b.toString(16) + ", " + c.toString(16);
+
+    DataWord word = word(a);
+    word.addmod(word(b), word(c));
+    Assert.assertEquals("addmod " + operands,
+        c.signum() == 0 ? BigInteger.ZERO : a.add(b).mod(c).and(MAX_VALUE), word.value());
+
+    word = word(a);
+    word.mulmod(word(b), word(c));
+    BigInteger mulmod = a.signum() == 0 || b.signum() == 0 || c.signum() == 0 ? BigInteger.ZERO
+        : a.multiply(b).mod(c).and(MAX_VALUE);
+    Assert.assertEquals("mulmod " + operands, mulmod, word.value());
+  }
+
+  private void checkUnary(BigInteger a) {
+    DataWord word = word(a);
+    word.bnot();
+    Assert.assertEquals("bnot " + a.toString(16), MAX_VALUE.subtract(a), word.value());
+
+    for (byte k = 0; k < 32; k++) {
+      word = word(a);
+      word.signExtend(k);
+      BigInteger low = BigInteger.ONE.shiftLeft(k * 8 + 8).subtract(BigInteger.ONE);
+      BigInteger expected = signed(a).testBit(k * 8 + 7) ? a.or(MAX_VALUE.xor(low)) : a.and(low);
+      Assert.assertEquals("signExtend " + a.toString(16) + ", " + k, expected, word.value());
+    }
+  }
+
+  private void checkShifts(BigInteger a, BigInteger shift) {
+    String operands = a.toString(16) + ", " + shift.toString(16);
+    boolean outOfRange = shift.compareTo(BigInteger.valueOf(DataWord.MAX_POW)) >= 0;
+    int n = shift.intValue();
+
+    Assert.assertEquals("shl " + operands,
+        outOfRange ? BigInteger.ZERO : a.shiftLeft(n).and(MAX_VALUE),
+        word(a).shiftLeft(word(shift)).value());
+    Assert.assertEquals("shr " + operands,
+        outOfRange ? BigInteger.ZERO : a.shiftRight(n),
+        word(a).shiftRight(word(shift)).value());
+
+    BigInteger sar;
+    if (outOfRange) {
+      sar = signed(a).signum() < 0 ? MAX_VALUE : BigInteger.ZERO;
+    } else {
+      sar = signed(a).shiftRight(n).and(MAX_VALUE);
+    }
+    Assert.assertEquals("sar " + operands, sar, word(a).shiftRightSigned(word(shift)).value());
+  }
+
+  /**
+   * Random value of a random bit length, so that every number of significant digits shows up.
+   */
+  private BigInteger randomValue() {
+    switch (random.nextInt(8)) {
+      case 0:
+        return edgeValues().get(random.nextInt(edgeValues().size()));
+      case 1:
+        // negative as a signed value
+        return new BigInteger(255, random).setBit(255);
+      default:
+        return new BigInteger(random.nextInt(257), random);
+    }
+  }
+
+  private static DataWord word(BigInteger value) {
+    return new DataWord(ByteUtil.copyToArray(value));
+  }
+
+  private static BigInteger signed(BigInteger value) {
+    return value.testBit(255) ? value.subtract(_2_256) : value;
+  }
+
+  private static BigInteger value(long[] digits) {
+    BigInteger value = BigInteger.ZERO;
+    for (int i = digits.length - 1; i >= 0; i--) {
+      value = value.shiftLeft(32).or(BigInteger.valueOf(digits[i]));
+    }
+    return value;
+  }
+}
@@ -0,0 +1,129 @@
+package org.unichain.core.capsule.utils;
+
+import com.google.common.primitives.Bytes;
+import org.junit.Assert;
+import org.junit.Test;
+import org.unichain.common.utils.Sha256Hash;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The flat levels must give the root of the former tree of leaf objects, and the branch of every leaf
+ * must verify against it.
+ */
+public class MerkleTreeTest {
+
+  // from here the levels are hashed on several threads
+  private static final int PARALLEL_LEAVES = 4096;
+
+  private final Random random = new Random(23L);
+
+  @Test
+  public void rootOfTheCarryUpTree() {
+    for (int count = 1; count <= 70; count++) {
+      List<Sha256Hash> leaves = leaves(count);
+      Assert.assertEquals("leaves " + count, carryUpRoot(leaves), MerkleTree.root(leaves));
+    }
+    for (int count : new int[]{PARALLEL_LEAVES - 1, PARALLEL_LEAVES, PARALLEL_LEAVES + 1,
+        3 * PARALLEL_LEAVES + 5}) {
+      List<Sha256Hash> leaves = leaves(count);
+      Assert.assertEquals("leaves " + count, carryUpRoot(leaves), MerkleTree.root(leaves));
+    }
+  }
+
+  @Test
+  public void singleLeaf() {
+    List<Sha256Hash> leaves = leaves(1);
+    Sha256Hash root = MerkleTree.root(leaves);
+    Assert.assertEquals(leaves.get(0), root);
+    List<Sha256Hash> branch = MerkleTree.branch(leaves, 0);
+    Assert.assertTrue(branch.isEmpty());
+    Assert.assertTrue(MerkleTree.verify(root, leaves.get(0), 0, 1, branch));
+    Assert.assertFalse(MerkleTree.verify(root, leaves(1).get(0), 0, 1, branch));
+  }
+
+  @Test
+  public void branchOfEveryLeaf() {
+    for (int count = 1; count <= 40; count++) {
+      List<Sha256Hash> leaves = leaves(count);
+      Sha256Hash root = MerkleTree.root(leaves);
+      for (int index = 0; index < count; index++) {
+        checkBranch(root, leaves, index);
+      }
+    }
+  }
+
+  @Test
+  public void branchOfParallelLevels() {
+    int count = PARALLEL_LEAVES + 3;
+    List<Sha256Hash> leaves = leaves(count);
+    Sha256Hash root = MerkleTree.root(leaves);
+    checkBranch(root, leaves, 0);
+    checkBranch(root, leaves, count - 1);
+    for (int i = 0; i < 20; i++) {
+      checkBranch(root, leaves, random.nextInt(count));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void noLeaves() {
+    MerkleTree.root(Collections.emptyList());
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void branchOutOfTheLeaves() {
+    MerkleTree.branch(leaves(3), 3);
+  }
+
+  private void checkBranch(Sha256Hash root, List<Sha256Hash> leaves, int index) {
+    int count = leaves.size();
+    Sha256Hash leaf = leaves.get(index);
+    List<Sha256Hash> branch = MerkleTree.branch(leaves, index);
+    String message = "leaf " + index + " of " + count;
+    Assert.assertTrue(message, MerkleTree.verify(root, leaf, index, count, branch));
+
+    Assert.assertFalse(message, MerkleTree.verify(root, leaves(1).get(0), index, count, branch));
+    if (count > 1) {
+      Assert.assertFalse(message, MerkleTree.verify(root, leaf, index ^ 1, count, branch));
+      Assert.assertFalse(message,
+          MerkleTree.verify(root, leaf, index, count, branch.subList(0, branch.size() - 1)));
+    }
+    List<Sha256Hash> longer = new ArrayList<>(branch);
+    longer.add(leaf);
+    Assert.assertFalse(message, MerkleTree.verify(root, leaf, index, count, longer));
+  }
+
+  private List<Sha256Hash> leaves(int count) {
+    List<Sha256Hash> leaves = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      byte[] hash = new byte[Sha256Hash.LENGTH];
+      random.nextBytes(hash);
+      leaves.add(Sha256Hash.wrap(hash));
+    }
+    return leaves;
+  }
+
+  /**
+   * Root as the tree of leaf objects built it before: pairs are hashed level by level, the last
+   * node of an odd level is carried up unchanged.
+   */
+  private static Sha256Hash carryUpRoot(List<Sha256Hash> leaves) {
+    List<Sha256Hash> level = leaves;
+    while (level.size() > 1) {
+      List<Sha256Hash> parents = new ArrayList<>();
+      for (int i = 0; i < level.size(); i += 2) {
+        if (i + 1 < level.size()) {
+          parents.add(Sha256Hash.of(Bytes.concat(level.get(i).getBytes(),
+              level.get(i + 1).getBytes())));
+        } else {
+          parents.add(level.get(i));
+        }
+      }
+      level = parents;
+    }
+    return level.get(0);
+  }
+}
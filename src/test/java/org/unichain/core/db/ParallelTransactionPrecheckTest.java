@@ -0,0 +1,214 @@
+package org.unichain.core.db;
+
+import com.google.protobuf.ByteString;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.unichain.common.application.UnichainApplicationContext;
+import org.unichain.common.crypto.ECKey;
+import org.unichain.common.utils.ByteArray;
+import org.unichain.common.utils.FileUtil;
+import org.unichain.common.utils.Sha256Hash;
+import org.unichain.core.Constant;
+import org.unichain.core.capsule.AccountCapsule;
+import org.unichain.core.capsule.BlockCapsule;
+import org.unichain.core.capsule.BytesCapsule;
+import org.unichain.core.capsule.TransactionCapsule;
+import org.unichain.core.config.DefaultConfig;
+import org.unichain.core.config.args.Args;
+import org.unichain.core.db2.core.ISession;
+import org.unichain.protos.Contract.TransferContract;
+import org.unichain.protos.Protocol.AccountType;
+import org.unichain.protos.Protocol.Transaction.Contract.ContractType;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Blocks applied with node.parallelTransactionPrecheck on and off must leave the same state and
+ * the same transaction results, including blocks rejected at one of their transactions.
+ */
+@Slf4j
+public class ParallelTransactionPrecheckTest {
+
+  private static final String DB_PATH = "output_parallel_precheck_test";
+  private static final int ACCOUNTS = 6;
+  private static final long BALANCE = 1_000_000_000_000L;
+
+  private static UnichainApplicationContext context;
+  private static Manager dbManager;
+  private static List<ECKey> keys = new ArrayList<>();
+
+  private static class Outcome {
+
+    private final String exception;
+    private final Map<String, String> accounts;
+    private final Map<String, String> properties;
+    private final String result;
+
+    private Outcome(String exception, Map<String, String> accounts, Map<String, String> properties,
+        String result) {
+      this.exception = exception;
+      this.accounts = accounts;
+      this.properties = properties;
+      this.result = result;
+    }
+  }
+
+  @BeforeClass
+  public static void init() {
+    Args.setParam(new String[]{"-d", DB_PATH}, Constant.TESTNET_CONF);
+    context = new UnichainApplicationContext(DefaultConfig.class);
+    dbManager = context.getBean(Manager.class);
+
+    for (int i = 0; i < ACCOUNTS; i++) {
+      ECKey key = ECKey.fromPrivate(Sha256Hash.hash(("precheck account " + i).getBytes()));
+      keys.add(key);
+      dbManager.getAccountStore().put(key.getAddress(), new AccountCapsule(
+          ByteString.copyFromUtf8("precheck" + i), ByteString.copyFrom(key.getAddress()),
+          AccountType.Normal, BALANCE));
+    }
+  }
+
+  @AfterClass
+  public static void destroy() {
+    Args.getInstance().setParallelTransactionPrecheck(false);
+    Args.clearParam();
+    context.destroy();
+    FileUtil.deleteDir(new File(DB_PATH));
+  }
+
+  @Test
+  public void chainedTransfers() {
+    List<TransactionCapsule> transactions = new ArrayList<>();
+    // every account sends and receives in each round, more than half of its balance at a time
+    for (int round = 0; round < 5; round++) {
+      for (int i = 0; i < ACCOUNTS; i++) {
+        transactions.add(transfer(i, (i + 1) % ACCOUNTS, BALANCE / 2 + round * ACCOUNTS + i,
+            expiration()));
+      }
+    }
+    Outcome outcome = assertSameOutcome(block(transactions));
+    Assert.assertNull(outcome.exception);
+    Assert.assertNotNull(outcome.result);
+  }
+
+  @Test
+  public void expiredTransactionInTheMiddle() {
+    List<TransactionCapsule> transactions = new ArrayList<>();
+    for (int i = 0; i < ACCOUNTS; i++) {
+      transactions.add(transfer(i, (i + 1) % ACCOUNTS, 1_000 + i, expiration()));
+    }
+    transactions.add(ACCOUNTS / 2, transfer(0, 1, 7, dbManager.getHeadBlockTimeStamp()));
+    Outcome outcome = assertSameOutcome(block(transactions));
+    Assert.assertEquals("TransactionExpirationException", outcome.exception);
+  }
+
+  @Test
+  public void duplicateTransactionInTheBlock() {
+    List<TransactionCapsule> transactions = new ArrayList<>();
+    for (int i = 0; i < ACCOUNTS; i++) {
+      transactions.add(transfer(i, (i + 1) % ACCOUNTS, 2_000 + i, expiration()));
+    }
+    transactions.add(new TransactionCapsule(transactions.get(1).getInstance()));
+    transactions.add(transfer(2, 3, 2_100, expiration()));
+    // the second copy is only checked against the chain once the first one is applied
+    assertSameOutcome(block(transactions));
+  }
+
+  @Test
+  public void badTaposTransaction() {
+    List<TransactionCapsule> transactions = new ArrayList<>();
+    for (int i = 0; i < ACCOUNTS; i++) {
+      transactions.add(transfer(i, (i + 1) % ACCOUNTS, 3_000 + i, expiration()));
+    }
+    transactions.add(2, transfer(3, 4, 3_100, expiration(), new byte[32]));
+    Outcome outcome = assertSameOutcome(block(transactions));
+    Assert.assertEquals("TaposException", outcome.exception);
+  }
+
+  private Outcome assertSameOutcome(BlockCapsule block) {
+    Outcome serial = apply(block, false);
+    Outcome precheck = apply(block, true);
+    Assert.assertEquals(serial.exception, precheck.exception);
+    Assert.assertEquals(serial.accounts, precheck.accounts);
+    Assert.assertEquals(serial.properties, precheck.properties);
+    Assert.assertEquals(serial.result, precheck.result);
+    return serial;
+  }
+
+  /**
+   * Apply a copy of the block on the head in a session that is reverted afterwards.
+   */
+  private Outcome apply(BlockCapsule block, boolean parallelPrecheck) {
+    Args.getInstance().setParallelTransactionPrecheck(parallelPrecheck);
+    BlockCapsule copy = new BlockCapsule(block.getInstance());
+    try (ISession session = dbManager.getRevokingStore().buildSession()) {
+      String exception = null;
+      try {
+        dbManager.processBlock(copy);
+      } catch (Exception e) {
+        logger.info("block rejected: {}", e.getMessage());
+        exception = e.getClass().getSimpleName();
+      }
+
+      Map<String, String> accounts = new TreeMap<>();
+      for (ECKey key : keys) {
+        accounts.put(ByteArray.toHexString(key.getAddress()), ByteArray
+            .toHexString(dbManager.getAccountStore().get(key.getAddress()).getData()));
+      }
+      ByteString witness = copy.getInstance().getBlockHeader().getRawData().getWitnessAddress();
+      AccountCapsule witnessAccount = dbManager.getAccountStore().get(witness.toByteArray());
+      accounts.put(ByteArray.toHexString(witness.toByteArray()),
+          witnessAccount == null ? null : ByteArray.toHexString(witnessAccount.getData()));
+
+      Map<String, String> properties = new TreeMap<>();
+      for (Map.Entry<byte[], BytesCapsule> entry : dbManager.getDynamicPropertiesStore()) {
+        properties.put(ByteArray.toHexString(entry.getKey()),
+            ByteArray.toHexString(entry.getValue().getData()));
+      }
+
+      String result = copy.getResult() == null ? null
+          : ByteArray.toHexString(copy.getResult().getInstance().toByteArray());
+      Assert.assertTrue(copy.getTransactions().stream().noneMatch(TransactionCapsule::isPrechecked));
+      return new Outcome(exception, accounts, properties, result);
+    }
+  }
+
+  private BlockCapsule block(List<TransactionCapsule> transactions) {
+    BlockCapsule genesis = dbManager.getGenesisBlock();
+    ByteString witness = dbManager.getWitnessScheduleStore().getActiveWitnesses().get(0);
+    BlockCapsule block = new BlockCapsule(dbManager.getDynamicPropertiesStore().getBlockVersion(),
+        genesis.getNum() + 1, genesis.getBlockId(), genesis.getTimeStamp() + 3_000, witness);
+    transactions.forEach(block::addTransaction);
+    block.setMerkleRoot();
+    return block;
+  }
+
+  private TransactionCapsule transfer(int from, int to, long amount, long expiration) {
+    return transfer(from, to, amount, expiration, dbManager.getGenesisBlock().getBlockId().getBytes());
+  }
+
+  private TransactionCapsule transfer(int from, int to, long amount, long expiration,
+      byte[] refBlockHash) {
+    TransferContract contract = TransferContract.newBuilder()
+        .setOwnerAddress(ByteString.copyFrom(keys.get(from).getAddress()))
+        .setToAddress(ByteString.copyFrom(keys.get(to).getAddress()))
+        .setAmount(amount)
+        .build();
+    TransactionCapsule transaction = new TransactionCapsule(contract, ContractType.TransferContract);
+    transaction.setReference(dbManager.getGenesisBlock().getNum(), refBlockHash);
+    transaction.setExpiration(expiration);
+    transaction.sign(keys.get(from).getPrivKeyBytes());
+    return transaction;
+  }
+
+  private static long expiration() {
+    return dbManager.getHeadBlockTimeStamp() + 60_000;
+  }
+}
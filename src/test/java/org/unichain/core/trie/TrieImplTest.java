@@ -0,0 +1,113 @@
+package org.unichain.core.trie;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.unichain.core.db.common.WrappedByteArray;
+import org.unichain.core.db2.common.ConcurrentHashDB;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * A trie over a node cache with its dirty subtrees hashed on the executor must give the roots of
+ * the serial trie without node cache, block after block over the same puts and deletes.
+ */
+public class TrieImplTest {
+
+  private static final int BLOCKS = 120;
+  private static final int ADDRESS_SIZE = 21;
+
+  @Test
+  public void sameRootsWithoutNodeCache() {
+    compareRoots(1L, null);
+  }
+
+  @Test
+  public void sameRootsWithSmallNodeCache() {
+    // most nodes are evicted between blocks and read back from the store
+    compareRoots(2L, new TrieNodeCache("small", 16));
+  }
+
+  @Test
+  public void sameRootsWithLargeNodeCache() {
+    compareRoots(3L, new TrieNodeCache("large", 1_000_000));
+  }
+
+  private void compareRoots(long seed, TrieNodeCache nodeCache) {
+    Random random = new Random(seed);
+    ConcurrentHashDB serialStore = new ConcurrentHashDB();
+    ConcurrentHashDB parallelStore = new ConcurrentHashDB();
+    byte[] serialRoot = null;
+    byte[] parallelRoot = null;
+    Map<WrappedByteArray, byte[]> state = new HashMap<>();
+    List<byte[]> keys = new ArrayList<>();
+
+    for (int block = 0; block < BLOCKS; block++) {
+      TrieImpl serial = new TrieImpl(serialStore, serialRoot);
+      serial.setAsync(false);
+      TrieImpl parallel = new TrieImpl(parallelStore, nodeCache, parallelRoot);
+
+      // every tenth block is large enough to spread over many subtrees
+      int operations = random.nextInt(block % 10 == 0 ? 3_000 : 80);
+      for (int i = 0; i < operations; i++) {
+        int operation = random.nextInt(10);
+        if (operation < 6 || keys.isEmpty()) {
+          byte[] key = operation == 0 && !keys.isEmpty()
+              ? keys.get(random.nextInt(keys.size()))
+              : newKey(random, state, keys);
+          byte[] value = newValue(random);
+          serial.put(key, value);
+          parallel.put(key, value);
+          state.put(WrappedByteArray.of(key), value);
+        } else if (operation < 8) {
+          byte[] key = keys.remove(random.nextInt(keys.size()));
+          serial.delete(key);
+          parallel.delete(key);
+          state.remove(WrappedByteArray.of(key));
+        } else {
+          byte[] key = keys.get(random.nextInt(keys.size()));
+          byte[] expected = state.get(WrappedByteArray.of(key));
+          Assert.assertArrayEquals(expected, serial.get(key));
+          Assert.assertArrayEquals(expected, parallel.get(key));
+        }
+        if (random.nextInt(300) == 0) {
+          // root hashed in the middle of the block, then the same nodes change again
+          Assert.assertArrayEquals(serial.getRootHash(), parallel.getRootHash());
+        }
+      }
+
+      byte[] serialHash = serial.getRootHash();
+      byte[] parallelHash = parallel.getRootHash();
+      Assert.assertArrayEquals("block " + block, serialHash, parallelHash);
+      serial.flush();
+      parallel.flush();
+      serialRoot = serialHash;
+      parallelRoot = parallelHash;
+    }
+  }
+
+  private static byte[] newKey(Random random, Map<WrappedByteArray, byte[]> state,
+      List<byte[]> keys) {
+    // account addresses, half of them sharing a prefix with an older one for deeper branches
+    byte[] key = new byte[ADDRESS_SIZE];
+    random.nextBytes(key);
+    if (!keys.isEmpty() && random.nextBoolean()) {
+      byte[] other = keys.get(random.nextInt(keys.size()));
+      System.arraycopy(other, 0, key, 0, 1 + random.nextInt(ADDRESS_SIZE - 1));
+    }
+    if (!state.containsKey(WrappedByteArray.of(key))) {
+      keys.add(key);
+    }
+    return key;
+  }
+
+  private static byte[] newValue(Random random) {
+    // account capsules, always hashed rather than inlined in their parent node
+    byte[] value = new byte[32 + random.nextInt(100)];
+    random.nextBytes(value);
+    return value;
+  }
+}